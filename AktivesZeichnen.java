@@ -0,0 +1,188 @@
+import java.awt.DisplayMode;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.awt.image.VolatileImage;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Aktives Zeichnen (s. VisualListAnimator.setActiveRendering). Der EDT zeichnet im Takt den
+ * sichtbaren Ausschnitt als Bildliste auf, wenn seit dem letzten Bild etwas neu zu zeichnen war.
+ * Der Zeichen-Thread spielt die jeweils neueste Bildliste in ein VolatileImage ab und kopiert es
+ * zum naechsten Zeitpunkt im Raster der Bildwiederholrate in das DrawPanel. Drei Bildlisten
+ * wechseln sich ab (aufzeichnen, bereit, abspielen), so dass keiner der beiden Threads auf den
+ * anderen warten muss; eine nicht abgeholte Bildliste wird durch die neuere ersetzt.
+ */
+class AktivesZeichnen<ContentType> implements Runnable {
+
+    // Anzeige, deren DrawPanel gezeichnet wird
+    private final VisualListAnimator<ContentType> animator;
+    private final ReentrantLock sperre = new ReentrantLock();
+    private final Condition bildDa = sperre.newCondition();
+    // nur EDT
+    private Bildliste<ContentType> aufzeichnen = new Bildliste<ContentType>();
+    // unter sperre
+    private Bildliste<ContentType> bereit = new Bildliste<ContentType>();
+    private boolean neu;
+    private boolean beendet;
+    // nur Zeichen-Thread
+    private Bildliste<ContentType> abspielen = new Bildliste<ContentType>();
+    private final GrafikFlaeche<ContentType> flaeche;
+    private VolatileImage hinten;
+    // seit dem letzten Bild wurde neu gezeichnet (s. DrawPanel.repaint)
+    private volatile boolean angefordert = true;
+
+    public AktivesZeichnen(VisualListAnimator<ContentType> pAnimator) {
+        animator = pAnimator;
+        flaeche = new GrafikFlaeche<ContentType>(pAnimator, new KachelSpeicher<ContentType>(pAnimator));
+    }
+
+    public void starte() {
+        Thread t = new Thread(this, "VisualListAnimator-Zeichnen");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public void beende() {
+        sperre.lock();
+        try {
+            beendet = true;
+            bildDa.signal();
+        }
+        finally {
+            sperre.unlock();
+        }
+    }
+
+    public void fordereAn() {
+        angefordert = true;
+    }
+
+    // EDT, im Takt: den sichtbaren Ausschnitt aufzeichnen und dem Zeichen-Thread uebergeben
+    public void zeichneAuf() {
+        if (!angefordert) {
+            return;
+        }
+        angefordert = false;
+        if (!animator.dp.zeichneAuf(aufzeichnen)) {
+            return;
+        }
+        boolean ersetzt;
+        sperre.lock();
+        try {
+            Bildliste<ContentType> frei = bereit;
+            bereit = aufzeichnen;
+            aufzeichnen = frei;
+            ersetzt = neu;
+            neu = true;
+            bildDa.signal();
+        }
+        finally {
+            sperre.unlock();
+        }
+        Messwerte<ContentType> m = animator.messwerte;
+        if (ersetzt && m != null) {
+            m.uebersprungen.incrementAndGet();
+        }
+    }
+
+    public void run() {
+        long periode = gibBildPeriode();
+        long naechstesBild = System.nanoTime();
+        while (true) {
+            sperre.lock();
+            try {
+                while (!neu && !beendet) {
+                    bildDa.awaitUninterruptibly();
+                }
+                if (beendet) {
+                    break;
+                }
+                Bildliste<ContentType> frei = abspielen;
+                abspielen = bereit;
+                bereit = frei;
+                neu = false;
+            }
+            finally {
+                sperre.unlock();
+            }
+            if (!zeichne(abspielen)) {
+                continue;
+            }
+            // wie mit vsync: nur zu den Zeitpunkten im Raster der Bildwiederholrate anzeigen
+            long jetzt = System.nanoTime();
+            if (naechstesBild - jetzt < 0) {
+                naechstesBild += ((jetzt - naechstesBild) / periode + 1) * periode;
+            }
+            long rest;
+            while ((rest = naechstesBild - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(rest);
+            }
+            zeige(abspielen.sichtbar);
+            naechstesBild += periode;
+        }
+        if (hinten != null) {
+            hinten.flush();
+        }
+    }
+
+    // Dauer eines Bildes bei der Bildwiederholrate des Bildschirms (60 Hz, wenn unbekannt)
+    private long gibBildPeriode() {
+        GraphicsConfiguration gc = animator.dp.getGraphicsConfiguration();
+        int rate = gc == null ? DisplayMode.REFRESH_RATE_UNKNOWN : gc.getDevice().getDisplayMode().getRefreshRate();
+        return 1000000000L / (rate > 0 ? rate : 60);
+    }
+
+    // Bildliste in den Hintergrundpuffer abspielen; false, wenn das DrawPanel nicht angezeigt wird
+    private boolean zeichne(Bildliste<ContentType> pListe) {
+        GraphicsConfiguration gc = animator.dp.getGraphicsConfiguration();
+        if (gc == null) {
+            return false;
+        }
+        Rectangle r = pListe.sichtbar;
+        do {
+            if (hinten == null || hinten.getWidth() != r.width || hinten.getHeight() != r.height
+                    || hinten.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if (hinten != null) {
+                    hinten.flush();
+                }
+                hinten = gc.createCompatibleVolatileImage(r.width, r.height);
+            }
+            Graphics2D g = hinten.createGraphics();
+            try {
+                g.translate(-r.x, -r.y);
+                g.setClip(r.x, r.y, r.width, r.height);
+                g.setFont(pListe.schrift);
+                flaeche.setze(g);
+                pListe.spieleAb(flaeche);
+            }
+            finally {
+                flaeche.setze(null);
+                g.dispose();
+            }
+        } while (hinten.contentsLost());
+        return true;
+    }
+
+    private void zeige(Rectangle pSichtbar) {
+        Graphics g = animator.dp.getGraphics();
+        if (g == null) {
+            return;
+        }
+        try {
+            g.drawImage(hinten, pSichtbar.x, pSichtbar.y, null);
+        }
+        finally {
+            g.dispose();
+        }
+        // unter X11 sofort anzeigen, nicht erst mit dem naechsten Ereignis
+        Toolkit.getDefaultToolkit().sync();
+        if (hinten.contentsLost()) {
+            angefordert = true;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Aufzeichnung ohne Fenster (Thread des Aufrufers): schreibt die Ereignisse gepuffert in
+ * eine Datei. Aufbau: "VLAT", Version (1 Byte), danach Saetze, die jeweils mit ihrer Art
+ * beginnen. Alle Zahlen sind varints (7 Bit pro Byte, gesetztes hoechstes Bit = es folgt
+ * ein weiteres Byte), vorzeichenbehaftete zusaetzlich zickzack-kodiert (zz).
+ *
+ *  SATZ_BEFEHL          opcode, Name (vor der ersten Verwendung eines eigenen Befehls)
+ *  SATZ_EREIGNIS + art  liste, befehl+1, flags, zz index, zz position, zz mark, anzahlVorher,
+ *                       danach je nach flags: Name, Text, inhalte (Anzahl, je Inhalt
+ *                       zz Zahl * 2 als 64-Bit-varint bzw. Text * 2 + 1), geleerte (Anzahl,
+ *                       Listen), hervorhebung (Anzahl, je zz Position)
+ *  SATZ_SCHLUESSELBILD  Schritt, Anzahl Listen, je Liste in der Reihenfolge der Anzeige:
+ *                       Liste, Anzahl Namen, Namen, Text, zz position, zz mark, inhalte
+ *  SATZ_INDEX           Anzahl Schritte, Anzahl Schluesselbilder, je Schluesselbild Schritt
+ *                       und Dateiposition (beide als Abstand zum vorherigen), Anzahl eigener
+ *                       Befehle, je Befehl opcode und Name
+ *
+ * Jedes Ereignis ist ein Schritt. Damit die Wiedergabe an jeden Schritt springen kann, ohne
+ * alle vorherigen anzuwenden, fuehrt die Aufzeichnung das Anzeigemodell (ohne Zeichnen) mit
+ * und schreibt daraus regelmaessig ein Schluesselbild mit dem Zustand aller Listen nach dem
+ * angegebenen Schritt. Der Abstand betraegt mindestens SCHLUESSELBILD_ABSTAND Schritte und
+ * waechst mit der Groesse der Schluesselbilder, so dass sie hoechstens ein Drittel der Datei
+ * belegen. close schreibt zum Schluss SATZ_INDEX, dahinter dessen Dateiposition (8 Byte) und
+ * "VLAI"; fehlt dieses Ende (z.B. nach einem Absturz), liest die Wiedergabe die Datei einmal durch.
+ *
+ * Listen werden ueber ihre Nummer (ab 1, 0 = keine) angegeben. Texte und Beschriftungen
+ * stehen in einer Tabelle mit TEXT_FAECHER Faechern, die Leser und Schreiber gleich fuehren.
+ * Ein Text wird als fach * 2 geschrieben, wenn das Fach (Hashwert des Texts) bereits mit ihm
+ * belegt ist, sonst als fach * 2 + 1 gefolgt von Laenge und UTF-8-Bytes, womit das Fach neu
+ * belegt wird. Vor jedem Schluesselbild und vor SATZ_INDEX wird die Tabelle geleert.
+ */
+class Aufzeichnung<ContentType> {
+
+    // Kennung und Version der Datei, Arten der Saetze, Groesse der Texttabelle, Mindestabstand
+    // der Schluesselbilder und Kennung des Inhaltsverzeichnisses am Dateiende
+    static final byte[] SPUR_KENNUNG = { 'V', 'L', 'A', 'T' };
+    static final byte SPUR_VERSION = 2;
+    static final int SATZ_BEFEHL = 0;
+    static final int SATZ_SCHLUESSELBILD = 1;
+    static final int SATZ_INDEX = 2;
+    static final int SATZ_EREIGNIS = 3;
+    static final int TEXT_FAECHER = 1 << 16;
+    private static final int SCHLUESSELBILD_ABSTAND = 1024;
+    static final byte[] SPUR_ENDE = { 'V', 'L', 'A', 'I' };
+
+    // Anzeigemodell, das die Aufzeichnung mitfuehrt (s. unten)
+    private final VisualListAnimator<ContentType> animator;
+    private final FileChannel kanal;
+    // varints werden direkt in das Array geschrieben, der Kanal erhaelt es erst beim Leeren
+    private final byte[] puffer = new byte[1 << 16];
+    private final ByteBuffer pufferHuelle = ByteBuffer.wrap(puffer);
+    private int stand;
+    // bereits an den Kanal uebergebene Bytes
+    private long geschrieben;
+    private final String[] texte = new String[TEXT_FAECHER];
+    // eigene Befehle, deren Name bereits geschrieben wurde
+    private final BitSet benannt = new BitSet();
+    private long schritte;
+    // Schritt, Ende und Groesse des letzten Schluesselbilds sowie alle Eintraege fuer SATZ_INDEX
+    private long bildSchritt;
+    private long bildEnde;
+    private long bildGroesse;
+    private long[] bildSchritte = new long[64];
+    private long[] bildPositionen = new long[64];
+    private int anzahlBilder;
+    private final Thread beimBeenden;
+    private boolean geschlossen;
+
+    public Aufzeichnung(VisualListAnimator<ContentType> pAnimator, FileChannel pKanal) {
+        animator = pAnimator;
+        kanal = pKanal;
+        System.arraycopy(SPUR_KENNUNG, 0, puffer, 0, SPUR_KENNUNG.length);
+        puffer[SPUR_KENNUNG.length] = SPUR_VERSION;
+        stand = SPUR_KENNUNG.length + 1;
+        // ohne close geht sonst der Inhalt des Puffers verloren
+        beimBeenden = new Thread(new Runnable() {
+                public void run() {
+                    schliesse();
+                }
+            }, "VisualListAnimator-Aufzeichnung");
+        Runtime.getRuntime().addShutdownHook(beimBeenden);
+    }
+
+    public synchronized void schreibe(VisualListAnimator<ContentType>.Ereignis e) {
+        if (geschlossen) {
+            return;
+        }
+        // das Ereignis ist noch nicht veroeffentlicht; das mitgefuehrte Modell haelt so keine Objekte fest
+        if (e.inhalte != null) {
+            animator.beschrifte(e.inhalte);
+        }
+        if (e.befehl >= VisualListAnimator.ERSTER_EIGENER_BEFEHL && !benannt.get(e.befehl)) {
+            schreibeZahl(SATZ_BEFEHL);
+            schreibeZahl(e.befehl);
+            schreibeText(animator.befehle.get(e.befehl).name, false);
+            benannt.set(e.befehl);
+        }
+        int flags = (e.name != null ? 1 : 0) | (e.text != null ? 2 : 0) | (e.inhalte != null ? 4 : 0)
+            | (e.geleerte != null ? 8 : 0) | (e.hervorhebung != null ? 16 : 0) | (e.strukturell ? 32 : 0);
+        schreibeZahl(SATZ_EREIGNIS + e.art);
+        schreibeZahl(e.liste == null ? 0 : e.liste.gibId());
+        schreibeZahl(e.befehl + 1);
+        schreibeZahl(flags);
+        schreibeZahl(zickzack(e.index));
+        schreibeZahl(zickzack(e.position));
+        schreibeZahl(zickzack(e.mark));
+        schreibeZahl(e.anzahlVorher);
+        if (e.name != null) {
+            schreibeText(e.name, false);
+        }
+        if (e.text != null) {
+            schreibeText(e.text, false);
+        }
+        if (e.inhalte != null) {
+            schreibeZahl(e.inhalte.length);
+            for (int i=0; i<e.inhalte.length; i++) {
+                schreibeInhalt(e.inhalte[i]);
+            }
+        }
+        if (e.geleerte != null) {
+            schreibeZahl(e.geleerte.length);
+            for (int i=0; i<e.geleerte.length; i++) {
+                // eingesammelte Listen bei ART_VERWAIST
+                @SuppressWarnings("unchecked")
+                VisualListAnimator<ContentType>.ListenErfassung<ContentType> erf =
+                    (VisualListAnimator<ContentType>.ListenErfassung<ContentType>) e.geleerte[i];
+                schreibeZahl(erf.gibId());
+            }
+        }
+        if (e.hervorhebung != null) {
+            schreibeZahl(e.hervorhebung.length);
+            for (int i=0; i<e.hervorhebung.length; i++) {
+                schreibeZahl(zickzack(e.hervorhebung[i]));
+            }
+        }
+        schritte++;
+        // ohne Fenster gibt es keinen EDT, das Modell gehoert hier dem Thread des Aufrufers
+        animator.wendeAn(e);
+        if (schritte - bildSchritt >= SCHLUESSELBILD_ABSTAND && gibStand() - bildEnde >= 2 * bildGroesse) {
+            schreibeSchluesselbild();
+        }
+    }
+
+    public synchronized void schliesse() {
+        if (geschlossen) {
+            return;
+        }
+        geschlossen = true;
+        try {
+            schreibeIndex();
+            leere();
+            kanal.close();
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        finally {
+            if (Thread.currentThread() != beimBeenden) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(beimBeenden);
+                }
+                catch (IllegalStateException ex) { // Programm wird bereits beendet
+                }
+            }
+        }
+    }
+
+    // Zustand aller Listen nach dem aktuellen Schritt; O(Anzahl aller Elemente)
+    private void schreibeSchluesselbild() {
+        Arrays.fill(texte, null);
+        long anfang = gibStand();
+        if (anzahlBilder == bildSchritte.length) {
+            bildSchritte = Arrays.copyOf(bildSchritte, anzahlBilder * 2);
+            bildPositionen = Arrays.copyOf(bildPositionen, anzahlBilder * 2);
+        }
+        bildSchritte[anzahlBilder] = schritte;
+        bildPositionen[anzahlBilder] = anfang;
+        anzahlBilder++;
+        schreibeZahl(SATZ_SCHLUESSELBILD);
+        schreibeZahl(schritte);
+        schreibeZahl(animator.panels.size());
+        for (int i=0; i<animator.panels.size(); i++) {
+            VisualListAnimator<ContentType>.VPanel<ContentType> vPan = animator.panels.get(i);
+            ArrayList<String> namen = vPan.gibRefNamenListe();
+            schreibeZahl(vPan.gibListenId());
+            schreibeZahl(namen.size());
+            for (int j=0; j<namen.size(); j++) {
+                schreibeText(namen.get(j), false);
+            }
+            schreibeText(vPan.gibText(), false);
+            schreibeZahl(zickzack(vPan.gibListPosition()));
+            schreibeZahl(zickzack(vPan.gibMark()));
+            VisualListAnimator<ContentType>.SpiegelListe<ContentType> spiegel = vPan.gibSpiegel();
+            schreibeZahl(spiegel.gibAnzahl());
+            for (int j=0; j<spiegel.gibAnzahl(); j++) {
+                schreibeInhalt(spiegel.gibInhalt(j));
+            }
+        }
+        bildSchritt = schritte;
+        bildEnde = gibStand();
+        bildGroesse = bildEnde - anfang;
+    }
+
+    private void schreibeIndex() {
+        Arrays.fill(texte, null);
+        long anfang = gibStand();
+        schreibeZahl(SATZ_INDEX);
+        schreibeZahl(schritte);
+        schreibeZahl(anzahlBilder);
+        for (int i=0; i<anzahlBilder; i++) {
+            schreibeZahl(bildSchritte[i] - (i == 0 ? 0 : bildSchritte[i-1]));
+            schreibeZahl(bildPositionen[i] - (i == 0 ? 0 : bildPositionen[i-1]));
+        }
+        schreibeZahl(benannt.cardinality());
+        for (int b=benannt.nextSetBit(0); b>=0; b=benannt.nextSetBit(b+1)) {
+            schreibeZahl(b);
+            schreibeText(animator.befehle.get(b).name, false);
+        }
+        if (puffer.length - stand < 8 + SPUR_ENDE.length) {
+            leere();
+        }
+        for (int i=56; i>=0; i-=8) {
+            puffer[stand++] = (byte) (anfang >>> i);
+        }
+        System.arraycopy(SPUR_ENDE, 0, puffer, stand, SPUR_ENDE.length);
+        stand += SPUR_ENDE.length;
+    }
+
+    // Dateiposition des naechsten Bytes
+    private long gibStand() {
+        return geschrieben + stand;
+    }
+
+    private void schreibeInhalt(Object pInhalt) {
+        if (pInhalt instanceof Integer) {
+            schreibeZahl((long) zickzack(((Integer) pInhalt).intValue()) << 1);
+        }
+        else {
+            schreibeText(pInhalt.toString(), true);
+        }
+    }
+
+    // als Inhalt wird der Text wie eine Zahl * 2 + 1 geschrieben (s. oben)
+    private void schreibeText(String pText, boolean pAlsInhalt) {
+        int fach = pText.hashCode() & (TEXT_FAECHER - 1);
+        boolean neu = !pText.equals(texte[fach]);
+        int wert = fach << 1 | (neu ? 1 : 0);
+        schreibeZahl(pAlsInhalt ? wert << 1 | 1 : wert);
+        if (!neu) {
+            return;
+        }
+        texte[fach] = pText;
+        byte[] bytes = pText.getBytes(StandardCharsets.UTF_8);
+        schreibeZahl(bytes.length);
+        if (bytes.length > puffer.length - stand) {
+            leere();
+        }
+        if (bytes.length > puffer.length) {
+            schreibeDirekt(ByteBuffer.wrap(bytes));
+            geschrieben += bytes.length;
+        }
+        else {
+            System.arraycopy(bytes, 0, puffer, stand, bytes.length);
+            stand += bytes.length;
+        }
+    }
+
+    private void schreibeZahl(int pZahl) {
+        if (puffer.length - stand < 5) {
+            leere();
+        }
+        while ((pZahl & ~0x7F) != 0) {
+            puffer[stand++] = (byte) ((pZahl & 0x7F) | 0x80);
+            pZahl >>>= 7;
+        }
+        puffer[stand++] = (byte) pZahl;
+    }
+
+    private void schreibeZahl(long pZahl) {
+        if (puffer.length - stand < 10) {
+            leere();
+        }
+        while ((pZahl & ~0x7FL) != 0) {
+            puffer[stand++] = (byte) ((pZahl & 0x7F) | 0x80);
+            pZahl >>>= 7;
+        }
+        puffer[stand++] = (byte) pZahl;
+    }
+
+    private int zickzack(int pZahl) {
+        return (pZahl << 1) ^ (pZahl >> 31);
+    }
+
+    private void leere() {
+        pufferHuelle.limit(stand).position(0);
+        schreibeDirekt(pufferHuelle);
+        geschrieben += stand;
+        stand = 0;
+    }
+
+    private void schreibeDirekt(ByteBuffer pDaten) {
+        try {
+            while (pDaten.hasRemaining()) {
+                kanal.write(pDaten);
+            }
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.Rectangle;
+import java.awt.Stroke;
+import java.util.Arrays;
+
+/**
+ * Aufgezeichnetes Bild des sichtbaren Ausschnitts (aktives Zeichnen): Der EDT zeichnet mit
+ * denselben Methoden wie paintComponent auf, der Zeichen-Thread spielt die Befehle spaeter
+ * auf einer GrafikFlaeche ab. Die Felder werden fuer jedes Bild wiederverwendet; alle
+ * aufgezeichneten Objekte (Farben, Striche, Texte, Beschriftungen) sind unveraenderlich.
+ */
+class Bildliste<ContentType> extends Zeichenflaeche<ContentType> {
+
+    private static final int FARBE = 0;
+    private static final int STRICH = 1;
+    private static final int DECKUNG = 2;
+    private static final int VERSCHIEBE = 3;
+    private static final int FUELLE = 4;
+    private static final int RECHTECK = 5;
+    private static final int LINIE = 6;
+    private static final int TEXT = 7;
+    private static final int KNOTEN = 8;
+    private static final int RAHMEN = 9;
+    private static final int ZEILE_ENDE = 10;
+
+    private byte[] befehle = new byte[256];
+    // je Befehl vier Zahlen (x, y, Breite, Hoehe bzw. zwei Punkte)
+    private int[] werte = new int[4 * 256];
+    private Object[] objekte = new Object[256];
+    private int anzahl;
+    // sichtbarer Ausschnitt im DrawPanel und Schrift beim Aufzeichnen
+    final Rectangle sichtbar = new Rectangle();
+    Font schrift;
+    // Verschiebung beim Aufzeichnen (fuer getClipBounds und hitClip)
+    private int verschiebungX;
+    private int verschiebungY;
+
+    public void beginne(Rectangle pSichtbar, Font pSchrift) {
+        // die Texte des letzten Bildes nicht festhalten
+        Arrays.fill(objekte, 0, anzahl, null);
+        anzahl = 0;
+        verschiebungX = 0;
+        verschiebungY = 0;
+        sichtbar.setBounds(pSichtbar);
+        schrift = pSchrift;
+    }
+
+    public void spieleAb(GrafikFlaeche<ContentType> g) {
+        for (int i=0; i<anzahl; i++) {
+            int w = 4 * i;
+            switch (befehle[i]) {
+                case FARBE:
+                    g.setColor((Color) objekte[i]);
+                    break;
+                case STRICH:
+                    g.setStroke((Stroke) objekte[i]);
+                    break;
+                case DECKUNG:
+                    g.setComposite((Composite) objekte[i]);
+                    break;
+                case VERSCHIEBE:
+                    g.translate(werte[w], werte[w+1]);
+                    break;
+                case FUELLE:
+                    g.fillRect(werte[w], werte[w+1], werte[w+2], werte[w+3]);
+                    break;
+                case RECHTECK:
+                    g.drawRect(werte[w], werte[w+1], werte[w+2], werte[w+3]);
+                    break;
+                case LINIE:
+                    g.drawLine(werte[w], werte[w+1], werte[w+2], werte[w+3]);
+                    break;
+                case TEXT:
+                    g.drawString((String) objekte[i], werte[w], werte[w+1]);
+                    break;
+                case KNOTEN:
+                    g.zeichneKnoten((String[]) objekte[i], werte[w]);
+                    break;
+                case RAHMEN:
+                    g.zeichneRahmen(werte[w+1] != 0, werte[w]);
+                    break;
+                default:
+                    // ZEILE_ENDE: die Erfassung steht wie alle Objekte im Object[] objekte
+                    @SuppressWarnings("unchecked")
+                    VisualListAnimator<ContentType>.ListenErfassung<ContentType> erf =
+                        (VisualListAnimator<ContentType>.ListenErfassung<ContentType>) objekte[i];
+                    g.beendeZeile(erf);
+                    break;
+            }
+        }
+        g.beendeBild();
+    }
+
+    private void fuegeAn(int pBefehl, int pA, int pB, int pC, int pD, Object pObjekt) {
+        if (anzahl == befehle.length) {
+            befehle = Arrays.copyOf(befehle, 2 * anzahl);
+            werte = Arrays.copyOf(werte, 8 * anzahl);
+            objekte = Arrays.copyOf(objekte, 2 * anzahl);
+        }
+        int w = 4 * anzahl;
+        befehle[anzahl] = (byte) pBefehl;
+        werte[w] = pA;
+        werte[w+1] = pB;
+        werte[w+2] = pC;
+        werte[w+3] = pD;
+        objekte[anzahl] = pObjekt;
+        anzahl++;
+    }
+
+    public void setColor(Color pFarbe) {
+        fuegeAn(FARBE, 0, 0, 0, 0, pFarbe);
+    }
+
+    public void setStroke(Stroke pStrich) {
+        fuegeAn(STRICH, 0, 0, 0, 0, pStrich);
+    }
+
+    public void setComposite(Composite pDeckung) {
+        fuegeAn(DECKUNG, 0, 0, 0, 0, pDeckung);
+    }
+
+    public void translate(int pX, int pY) {
+        verschiebungX += pX;
+        verschiebungY += pY;
+        fuegeAn(VERSCHIEBE, pX, pY, 0, 0, null);
+    }
+
+    public void fillRect(int pX, int pY, int pBreite, int pHoehe) {
+        fuegeAn(FUELLE, pX, pY, pBreite, pHoehe, null);
+    }
+
+    public void drawRect(int pX, int pY, int pBreite, int pHoehe) {
+        fuegeAn(RECHTECK, pX, pY, pBreite, pHoehe, null);
+    }
+
+    public void drawLine(int pX1, int pY1, int pX2, int pY2) {
+        fuegeAn(LINIE, pX1, pY1, pX2, pY2, null);
+    }
+
+    public void drawString(String pText, int pX, int pY) {
+        fuegeAn(TEXT, pX, pY, 0, 0, pText);
+    }
+
+    public Rectangle getClipBounds(Rectangle pPuffer) {
+        pPuffer.setBounds(sichtbar.x - verschiebungX, sichtbar.y - verschiebungY, sichtbar.width, sichtbar.height);
+        return pPuffer;
+    }
+
+    public boolean hitClip(int pX, int pY, int pBreite, int pHoehe) {
+        int x = pX + verschiebungX;
+        int y = pY + verschiebungY;
+        return pBreite > 0 && pHoehe > 0 && x < sichtbar.x + sichtbar.width && x + pBreite > sichtbar.x
+            && y < sichtbar.y + sichtbar.height && y + pHoehe > sichtbar.y;
+    }
+
+    public void zeichneKnoten(String[] pZeilen, int pX) {
+        fuegeAn(KNOTEN, pX, 0, 0, 0, pZeilen);
+    }
+
+    public void zeichneRahmen(boolean pAusgewaehlt, int pBreite) {
+        fuegeAn(RAHMEN, pBreite, pAusgewaehlt ? 1 : 0, 0, 0, null);
+    }
+
+    public void beendeZeile(VisualListAnimator<ContentType>.ListenErfassung<ContentType> pErfassung) {
+        fuegeAn(ZEILE_ENDE, 0, 0, 0, 0, pErfassung);
+    }
+
+    public void beendeBild() {
+    }
+}
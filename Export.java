@@ -0,0 +1,182 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Export einer Aufzeichnung als Bilder (s. VisualListAnimator.exportTrace). Jeder Kern zeichnet
+ * mit einem eigenen Export: einer Anzeige ohne Fenster, die die Aufzeichnung selbst abspielt,
+ * und dem Bild, in das sie jeden Schritt zeichnet.
+ */
+class Export {
+
+    // Schritte pro Auftrag eines Kerns und Anzeigedauer eines Schritts im GIF
+    private static final int AUFTRAG = 64;
+    private static final int BILDDAUER = 500;
+
+    private final VisualListAnimator<Object> anzeige;
+    private final BufferedImage bild;
+
+    private Export(VisualListAnimator<Object> pAnzeige, int pBreite, int pHoehe) {
+        anzeige = pAnzeige;
+        bild = new BufferedImage(pBreite, pHoehe, BufferedImage.TYPE_INT_RGB);
+    }
+
+    // s. VisualListAnimator.exportTrace
+    static void exportiere(String pTraceFile, String pTarget, int pWidth, int pHeight) {
+        final int breite = Math.max(1, pWidth);
+        final int hoehe = Math.max(1, pHeight);
+        final SpurLeser leser;
+        try {
+            leser = new SpurLeser(pTraceFile);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // liest nur das Inhaltsverzeichnis, gezeichnet wird in den Kopien der Kerne
+        final VisualListAnimator<Object> vorlage = new VisualListAnimator<Object>(leser, breite, hoehe);
+        vorlage.wiedergabe.oeffne();
+        final ThreadLocal<Export> zeichner = new ThreadLocal<Export>() {
+                protected Export initialValue() {
+                    VisualListAnimator<Object> kopie = new VisualListAnimator<Object>(new SpurLeser(leser), breite, hoehe);
+                    kopie.wiedergabe.uebernimmIndex(vorlage);
+                    return new Export(kopie, breite, hoehe);
+                }
+            };
+        final File ziel = new File(pTarget);
+        final boolean gif = pTarget.toLowerCase().endsWith(".gif");
+        long gesamt = vorlage.wiedergabe.gesamtSchritte;
+        final String dateiname = "step-%0" + Math.max(6, Long.toString(gesamt).length()) + "d.png";
+        ForkJoinPool kerne = new ForkJoinPool();
+        ImageWriter schreiber = null;
+        ImageOutputStream aus = null;
+        try {
+            if (gif) {
+                Files.deleteIfExists(ziel.toPath());
+                schreiber = ImageIO.getImageWritersByFormatName("gif").next();
+                aus = ImageIO.createImageOutputStream(ziel);
+                schreiber.setOutput(aus);
+                schreiber.prepareWriteSequence(null);
+            }
+            else if (!ziel.isDirectory() && !ziel.mkdirs()) {
+                throw new IOException(pTarget + " kann nicht angelegt werden");
+            }
+            // nur wenige Auftraege gleichzeitig, damit die fertigen GIF-Bilder den Speicher nicht fuellen
+            ArrayDeque<ForkJoinTask<BufferedImage[]>> laufend = new ArrayDeque<ForkJoinTask<BufferedImage[]>>();
+            long naechster = 0;
+            boolean erstes = true;
+            while (naechster < gesamt || !laufend.isEmpty()) {
+                while (naechster < gesamt && laufend.size() < 2 * kerne.getParallelism()) {
+                    final long von = naechster;
+                    final long bis = Math.min(gesamt, von + AUFTRAG);
+                    laufend.add(kerne.submit(new Callable<BufferedImage[]>() {
+                            public BufferedImage[] call() {
+                                return zeichner.get().zeichneSchritte(von, bis, gif ? null : ziel, dateiname);
+                            }
+                        }));
+                    naechster = bis;
+                }
+                BufferedImage[] bilder = laufend.poll().join();
+                if (gif) {
+                    for (BufferedImage bild : bilder) {
+                        schreiber.writeToSequence(new IIOImage(bild, null, erzeugeGifDaten(schreiber, bild, erstes)), null);
+                        erstes = false;
+                    }
+                }
+            }
+            if (gif) {
+                schreiber.endWriteSequence();
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            kerne.shutdownNow();
+            if (schreiber != null) {
+                schreiber.dispose();
+            }
+            if (aus != null) {
+                try {
+                    aus.close();
+                }
+                catch (IOException e) {
+                }
+            }
+        }
+    }
+
+    // auf einem Kern: Schritte pVon+1 bis pBis zeichnen. In ein Verzeichnis werden die Bilder
+    // direkt geschrieben, sonst als Bilder mit Farbtabelle fuer das GIF geliefert.
+    private BufferedImage[] zeichneSchritte(long pVon, long pBis, File pVerzeichnis, String pDateiname) {
+        Wiedergabe<Object> w = anzeige.wiedergabe;
+        // vorwaerts weiter, solange kein Schluesselbild naeher liegt, sonst von dort aus
+        int schluesselbild = w.gibSchluesselbild(pVon);
+        if (w.schritt > pVon || (schluesselbild >= 0 && w.schritt < w.bildSchritte[schluesselbild])) {
+            anzeige.wendeAn(w.ladeSchluesselbild(pVon));
+        }
+        while (w.schritt < pVon) {
+            w.wendeNaechstesAn();
+        }
+        BufferedImage[] bilder = pVerzeichnis == null ? new BufferedImage[(int) (pBis - pVon)] : null;
+        try {
+            for (int i=0; w.schritt < pBis; i++) {
+                w.wendeNaechstesAn();
+                anzeige.zeichneIn(bild);
+                if (pVerzeichnis != null) {
+                    ImageIO.write(bild, "png", new File(pVerzeichnis, String.format(pDateiname, w.schritt)));
+                }
+                else {
+                    bilder[i] = new BufferedImage(bild.getWidth(), bild.getHeight(), BufferedImage.TYPE_BYTE_INDEXED);
+                    Graphics2D g = bilder[i].createGraphics();
+                    g.drawImage(bild, 0, 0, null);
+                    g.dispose();
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bilder;
+    }
+
+    // GIF: Anzeigedauer jedes Bildes, beim ersten Bild zusaetzlich endlose Wiederholung
+    private static IIOMetadata erzeugeGifDaten(ImageWriter pSchreiber, BufferedImage pBild, boolean pErstes)
+            throws IOException {
+        IIOMetadata daten = pSchreiber.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(pBild), null);
+        String format = daten.getNativeMetadataFormatName();
+        IIOMetadataNode wurzel = new IIOMetadataNode(format);
+        IIOMetadataNode steuerung = new IIOMetadataNode("GraphicControlExtension");
+        steuerung.setAttribute("disposalMethod", "none");
+        steuerung.setAttribute("userInputFlag", "FALSE");
+        steuerung.setAttribute("transparentColorFlag", "FALSE");
+        steuerung.setAttribute("delayTime", Integer.toString(BILDDAUER / 10));
+        steuerung.setAttribute("transparentColorIndex", "0");
+        wurzel.appendChild(steuerung);
+        if (pErstes) {
+            IIOMetadataNode erweiterungen = new IIOMetadataNode("ApplicationExtensions");
+            IIOMetadataNode netscape = new IIOMetadataNode("ApplicationExtension");
+            netscape.setAttribute("applicationID", "NETSCAPE");
+            netscape.setAttribute("authenticationCode", "2.0");
+            netscape.setUserObject(new byte[] { 1, 0, 0 });
+            erweiterungen.appendChild(netscape);
+            wurzel.appendChild(erweiterungen);
+        }
+        daten.mergeTree(format, wurzel);
+        return daten;
+    }
+}
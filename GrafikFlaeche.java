@@ -0,0 +1,98 @@
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Stroke;
+
+/**
+ * Zeichnet sofort auf eine Graphics2D. Mit einem KachelSpeicher (nur aktives Zeichnen)
+ * werden die Kaesten normaler Knoten nicht einzeln gezeichnet, sondern als Bild kopiert.
+ */
+class GrafikFlaeche<ContentType> extends Zeichenflaeche<ContentType> {
+
+    // Anzeige, deren Zeilen gezeichnet werden
+    private final VisualListAnimator<ContentType> animator;
+    private final KachelSpeicher<ContentType> kacheln;
+    private Graphics2D g;
+    private long bildBeginn;
+    private long zeilenBeginn;
+
+    public GrafikFlaeche(VisualListAnimator<ContentType> pAnimator, KachelSpeicher<ContentType> pKacheln) {
+        animator = pAnimator;
+        kacheln = pKacheln;
+    }
+
+    public void setze(Graphics2D pG) {
+        g = pG;
+        bildBeginn = System.nanoTime();
+        zeilenBeginn = bildBeginn;
+    }
+
+    public void setColor(Color pFarbe) {
+        g.setColor(pFarbe);
+    }
+
+    public void setStroke(Stroke pStrich) {
+        g.setStroke(pStrich);
+    }
+
+    public void setComposite(Composite pDeckung) {
+        g.setComposite(pDeckung);
+    }
+
+    public void translate(int pX, int pY) {
+        g.translate(pX, pY);
+    }
+
+    public void fillRect(int pX, int pY, int pBreite, int pHoehe) {
+        g.fillRect(pX, pY, pBreite, pHoehe);
+    }
+
+    public void drawRect(int pX, int pY, int pBreite, int pHoehe) {
+        g.drawRect(pX, pY, pBreite, pHoehe);
+    }
+
+    public void drawLine(int pX1, int pY1, int pX2, int pY2) {
+        g.drawLine(pX1, pY1, pX2, pY2);
+    }
+
+    public void drawString(String pText, int pX, int pY) {
+        g.drawString(pText, pX, pY);
+    }
+
+    public Rectangle getClipBounds(Rectangle pPuffer) {
+        return g.getClipBounds(pPuffer);
+    }
+
+    public boolean hitClip(int pX, int pY, int pBreite, int pHoehe) {
+        return g.hitClip(pX, pY, pBreite, pHoehe);
+    }
+
+    public void zeichneKnoten(String[] pZeilen, int pX) {
+        if (kacheln == null) {
+            animator.zeichneKnotenSofort(this, pZeilen, pX, Color.BLACK, VisualListAnimator.STRICH_DUENN);
+            return;
+        }
+        kacheln.zeichne(g, pZeilen, pX);
+    }
+
+    public void zeichneRahmen(boolean pAusgewaehlt, int pBreite) {
+        VisualListAnimator<ContentType>.DrawPanel dp = animator.dp;
+        (pAusgewaehlt ? dp.auswahlRahmen : dp.rahmen).paintBorder(dp, g, 0, 0, pBreite, animator.dpHeight);
+    }
+
+    public void beendeZeile(VisualListAnimator<ContentType>.ListenErfassung<ContentType> pErfassung) {
+        if (animator.messwerte != null && pErfassung != null) {
+            long ende = System.nanoTime();
+            pErfassung.gibMessung().zeichnen.erfasse(ende - zeilenBeginn);
+            zeilenBeginn = ende;
+        }
+    }
+
+    public void beendeBild() {
+        Messwerte<ContentType> m = animator.messwerte;
+        if (m != null) {
+            m.zeichnen.erfasse(System.nanoTime() - bildBeginn);
+        }
+    }
+}
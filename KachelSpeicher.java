@@ -0,0 +1,89 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Vorgezeichnete Knoten (nur Zeichen-Thread): Der Kasten jeder Beschriftung wird einmal mit
+ * Rahmen und Text in ein undurchsichtiges Bild gezeichnet, danach wird nur noch dieses Bild
+ * kopiert und der Pfeil dazu gezeichnet. Passt der Text nicht in den Kasten, wird der Knoten
+ * wie bisher gezeichnet. Die Faecher werden ueber den Hashwert der Beschriftung gewaehlt; eine
+ * andere Beschriftung im selben Fach verdraengt die alte. Aendern sich Schrift oder
+ * Bildschirm, wird alles verworfen.
+ */
+class KachelSpeicher<ContentType> {
+
+    private static final int FAECHER = 256;
+
+    private final String[][] schluessel = new String[FAECHER][];
+    // null, wenn die Beschriftung nicht in den Kasten passt
+    private final BufferedImage[] kacheln = new BufferedImage[FAECHER];
+    // Anzeige, deren Knoten vorgezeichnet werden
+    private final VisualListAnimator<ContentType> animator;
+    private final GrafikFlaeche<ContentType> vorzeichnen;
+    private Font schrift;
+    private GraphicsConfiguration bildschirm;
+
+    public KachelSpeicher(VisualListAnimator<ContentType> pAnimator) {
+        animator = pAnimator;
+        vorzeichnen = new GrafikFlaeche<ContentType>(pAnimator, null);
+    }
+
+    public void zeichne(Graphics2D g, String[] pZeilen, int pX) {
+        if (!g.getFont().equals(schrift) || g.getDeviceConfiguration() != bildschirm) {
+            Arrays.fill(schluessel, null);
+            Arrays.fill(kacheln, null);
+            schrift = g.getFont();
+            bildschirm = g.getDeviceConfiguration();
+        }
+        int fach = Arrays.hashCode(pZeilen) & (FAECHER - 1);
+        if (schluessel[fach] != pZeilen && !Arrays.equals(schluessel[fach], pZeilen)) {
+            erzeuge(fach, g, pZeilen);
+        }
+        if (kacheln[fach] == null) {
+            vorzeichnen.setze(g);
+            animator.zeichneKnotenSofort(vorzeichnen, pZeilen, pX, Color.BLACK, VisualListAnimator.STRICH_DUENN);
+            vorzeichnen.setze(null);
+            return;
+        }
+        g.drawImage(kacheln[fach], pX-5, animator.startYCoord-15, null);
+        g.setStroke(VisualListAnimator.STRICH_DUENN);
+        g.setColor(Color.BLACK);
+        g.drawLine(pX+45, animator.startYCoord+10, pX+65, animator.startYCoord+10);
+        g.drawLine(pX+60, animator.startYCoord+5, pX+65, animator.startYCoord+10);
+        g.drawLine(pX+60, animator.startYCoord+15, pX+65, animator.startYCoord+10);
+    }
+
+    private void erzeuge(int pFach, Graphics2D pZiel, String[] pZeilen) {
+        schluessel[pFach] = pZeilen;
+        kacheln[pFach] = null;
+        // der Text muss ganz im Kasten (51 x 51 mit Rahmen) liegen
+        FontMetrics fm = pZiel.getFontMetrics();
+        if (fm.getMaxAscent() > 15 || (pZeilen.length - 1) * 15 + fm.getMaxDescent() > 35) {
+            return;
+        }
+        for (int i=0; i<pZeilen.length; i++) {
+            if (fm.stringWidth(pZeilen[i]) > 44) {
+                return;
+            }
+        }
+        BufferedImage kachel = pZiel.getDeviceConfiguration().createCompatibleImage(51, 51);
+        Graphics2D g = kachel.createGraphics();
+        try {
+            g.setRenderingHints(pZiel.getRenderingHints());
+            g.setFont(pZiel.getFont());
+            // die linke obere Ecke des Kastens liegt bei (0, 0)
+            g.translate(0, -(animator.startYCoord-15));
+            vorzeichnen.setze(g);
+            animator.zeichneKnotenSofort(vorzeichnen, pZeilen, 5, Color.BLACK, VisualListAnimator.STRICH_DUENN);
+        }
+        finally {
+            vorzeichnen.setze(null);
+            g.dispose();
+        }
+        kacheln[pFach] = kachel;
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * Die vier Sortierverfahren der Demos (Bubblesort, Insertionsort, Selectionsort und Quicksort)
+ * nebeneinander in einem gemeinsamen Fenster. Jedes Verfahren läuft in einem eigenen Thread auf
+ * einer eigenen Liste mit denselben Zahlen. Mit ">" führt jedes Verfahren genau einen Befehl aus
+ * (Gleichschritt); bei "Schritt: Auswahl" geht nur das Verfahren der angeklickten Liste weiter.
+ *
+ * Ab Java 21 können die Verfahren auch in virtuellen Threads laufen (Thread.ofVirtual().start(...)).
+ */
+public class LockstepSortDemo {
+
+    private final VisualListAnimator<Integer> v;
+
+    public LockstepSortDemo() {
+        v = new VisualListAnimator<Integer>();
+        v.setStepMode(VisualListAnimator.StepMode.ALL);
+
+        // die Listen werden vorab in fester Reihenfolge aufgenommen, damit jedes Verfahren seine Zeile behält
+        final List<Integer> bubble = new List<Integer>();
+        final List<Integer> insertion = new List<Integer>();
+        final List<Integer> selection = new List<Integer>();
+        final List<Integer> quick = new List<Integer>();
+        for (int i=0; i<10; i++) {
+            int zahl = (int)(Math.random()*100);
+            bubble.append(zahl);
+            insertion.append(zahl);
+            selection.append(zahl);
+            quick.append(zahl);
+        }
+        v.addList(bubble, "bubble.l");
+        v.addList(insertion, "insertion.l");
+        v.addList(selection, "selection.l");
+        v.addList(quick, "quick.liste");
+
+        new Thread(new Runnable() {
+                public void run() {
+                    bubbleSort(bubble);
+                }
+            }, "Bubblesort").start();
+        new Thread(new Runnable() {
+                public void run() {
+                    insertionSort(insertion);
+                }
+            }, "Insertionsort").start();
+        new Thread(new Runnable() {
+                public void run() {
+                    selectionSort(selection);
+                }
+            }, "Selectionsort").start();
+        new Thread(new Runnable() {
+                public void run() {
+                    quickSort(quick);
+                }
+            }, "Quicksort").start();
+    }
+
+    /**
+     * Nur die Verfahren, ohne Listen und Threads: Jedes Verfahren meldet seine Befehle an
+     * pAnimator, z.B. an eine Visualisierung, die nur aufzeichnet (s. VisualListAnimator(String)).
+     * So dienen die Verfahren auch als Last für Messungen (s. benchmarks).
+     *
+     * @param pAnimator Visualisierung, an die die Verfahren ihre Befehle melden
+     */
+    public LockstepSortDemo(VisualListAnimator<Integer> pAnimator) {
+        v = pAnimator;
+    }
+
+    private void swapWithPrevious(List<Integer> l, Integer links, Integer rechts) {
+        l.toFirst();                                                    v.animate(l, "TOFIRST", "Zum ersten Element der Liste <l> gehen");
+        while (l.hasAccess()) {
+            Integer akt = l.getContent();                               v.animate(l, "GETCONTENT", "Überprüfe, ob das Element das gemerkte Element <links> ist");
+            if (akt == links) {
+                l.setContent(rechts);                                   v.animate(l, "SETCONTENT", "Setze das Element <rechts> hier ein");
+                l.next();                                               v.animate(l, "NEXT", "Zum nächsten Element der Liste <l> gehen");
+                l.setContent(links);                                    v.animate(l, "SETCONTENT", "Setze das Element <links> hier ein");
+                                                                        v.animate(l, "UNMARK", null);
+                return;
+            }
+            l.next();                                                   v.animate(l, "NEXT", "Zum nächsten Element der Liste <l> gehen");
+        }
+    }
+
+    public void bubbleSort(List<Integer> l) {
+        int n = 0;
+        l.toFirst();                                                    v.animate(l, "TOFIRST", "Zum ersten Element der Liste <l> gehen");
+        while (l.hasAccess()) {
+            l.next();                                                   v.animate(l, "NEXT", "Zum nächsten Element der Liste <l> gehen");
+            n++;
+        }
+
+        Integer davor = null;
+        for (int i=0; i<n; i++) {
+            l.toFirst();                                                v.animate(l, "TOFIRST", "Zum ersten Element der Liste <l> gehen");
+            while (l.hasAccess()) {
+                davor = l.getContent();                                 v.animate(l, "GETCONTENT", null);
+                                                                        v.animate(l, "MARK", "Das zuletzt besuchte Element als <links> merken");
+                l.next();                                               v.animate(l, "NEXT", "Zum nächsten Element der Liste <l> gehen");
+                if (l.hasAccess() && davor > l.getContent()) {
+                                                                        v.animate(l, "GETCONTENT", "Tausche die beiden Elemente <links> und <rechts>");
+                    swapWithPrevious(l, davor, l.getContent());
+                }
+            }
+        }
+    }
+
+    public void insertionSort(List<Integer> l) {
+        List<Integer> tmp = new List<Integer>();                        v.addList(tmp, "insertion.tmp");
+
+        while (!l.isEmpty()) {
+            l.toFirst();                                                v.animate(l, "TOFIRST", "Zum ersten Element der Liste <l> gehen");
+            int akt = l.getContent();                                   v.animate(l, "GETCONTENT", "Das aktuelle Element als <akt> merken");
+            tmp.toFirst();                                              v.animate(tmp, "TOFIRST", "Zum ersten Element der Liste <tmp> gehen");
+            while (tmp.hasAccess() && tmp.getContent() < akt) {
+                                                                        v.animate(tmp, "GETCONTENT", "Solange das aktuelle Element kleiner als <akt> ist...");
+                tmp.next();                                             v.animate(tmp, "NEXT", "...in der Liste <tmp> weitergehen");
+            }
+            if (tmp.hasAccess()) {
+                tmp.insert(akt);                                        v.animate(tmp, "INSERT", "In die Liste <tmp> das <akt>-Element einfügen");
+            }
+            else {
+                tmp.append(akt);                                        v.animate(tmp, "APPEND", "An die Liste <tmp> das <akt>-Element anhängen");
+            }
+            l.remove();                                                 v.animate(l, "REMOVE", "Das erste Element der Liste <l> löschen");
+        }
+    }
+
+    public void selectionSort(List<Integer> l) {
+        List<Integer> tmp = new List<Integer>();                        v.addList(tmp, "selection.tmp");
+
+        while (!l.isEmpty()) {
+            l.toFirst();                                                v.animate(l, "TOFIRST", "Zum ersten Element der Liste <l> gehen");
+            int min = Integer.MAX_VALUE;
+            while (l.hasAccess()) {
+                if (l.getContent() < min) {                             v.animate(l, "GETCONTENT", "Wenn das aktuelle Element kleiner als das bisherige <min>-Element ist...");
+                    min = l.getContent();                               v.animate(l, "MARK", "... das aktuelle Element als <min>-Element speichern");
+                }
+                l.next();                                               v.animate(l, "NEXT", "Zum nächsten Element der Liste <l> gehen");
+            }
+            l.toFirst();                                                v.animate(l, "TOFIRST", "Zum ersten Element der Liste <l> gehen");
+            while ((l.hasAccess() == true) && (l.getContent() != min)) {    v.animate(l, "GETCONTENT", "Zum <min>-Element der Liste <l> gehen");
+                l.next();                                               v.animate(l, "NEXT", null);
+            }
+            tmp.append(l.getContent());                                 v.animate(tmp, "APPEND", "Aktuelles <min>-Element aus <l> an die Liste <tmp> anhängen");
+                                                                        v.animate(l, "UNMARK", null);
+            l.remove();                                                 v.animate(l, "REMOVE", "Aktuelles <min>-Element aus der Liste <l> entfernen");
+        }
+    }
+
+    public int laenge(List<Integer> liste) {
+        int tmp=0;
+        liste.toFirst();
+        while(liste.hasAccess())
+        {
+            liste.next();
+            tmp++;
+        }
+        return tmp;
+    }
+
+    public void quickSort(List<Integer> liste) {
+        if (laenge(liste) > 1) {
+                                                                v.addList(liste, "quick.liste");
+            List<Integer> kleiner = new List<Integer>();        v.addList(kleiner, "quick.kleiner");
+            List<Integer> groesser = new List<Integer>();       v.addList(groesser, "quick.groesser");
+            liste.toFirst();                                    v.animate(liste, "TOFIRST", "Zum ersten Element der Liste <liste>");
+            int pivot = liste.getContent();                     v.animate(liste, "GETCONTENT", "Das Pivot-Element auswählen und als <pivot> zwischenspeichern...");
+            liste.remove();                                     v.animate(liste, "REMOVE", "...und aus der Liste <liste> entfernen");
+            while(!liste.isEmpty())
+            {
+                int tmp = liste.getContent();                   v.animate(liste, "GETCONTENT", "Das aktuelle Element mit dem Pivot-Element vergleichen...");
+                if (tmp < pivot)
+                {
+                    kleiner.append(tmp);                        v.animate(kleiner, "APPEND", "...und zur Liste <kleiner> hinzufügen");
+                }
+                else
+                {
+                    groesser.append(tmp);                       v.animate(groesser, "APPEND", "...und zur Liste <groesser> hinzufügen");
+                }
+                liste.remove();                                 v.animate(liste, "REMOVE", "Aktuelles Element aus der Liste <liste> entfernen");
+            }
+            quickSort(kleiner);
+            quickSort(groesser);
+            liste.concat(kleiner);                              v.animate(liste, "CONCAT", "Anhängen der Liste mit den kleineren Elementen");
+            liste.append(pivot);                                v.animate(liste, "APPEND", "Hinzufügen des Pivot-Elements");
+            liste.concat(groesser);                             v.animate(liste, "CONCAT", "Anhängen der Liste mit den größeren Elementen");
+        }
+    }
+}
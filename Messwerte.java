@@ -0,0 +1,234 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Messwerte eines VisualListAnimator (s. setMetricsEnabled). Die Verteilungen je Befehl werden
+ * beim ersten Befehl mit diesem Opcode angelegt (Index = Opcode + 1, 0 = ohne Befehl), danach
+ * kommt das Messen ohne neue Objekte aus. Zugleich die JMX-Bean.
+ */
+class Messwerte<ContentType> implements MetricsMXBean {
+
+    // Nummer fuer den JMX-Namen, falls mehrere Visualisierungen messen
+    private static final AtomicInteger NAECHSTE_MESSUNG = new AtomicInteger(1);
+
+    /**
+     * Verteilung von Zeiten fuer die Messwerte: Anzahl, Summe, Maximum und Haeufigkeiten in Stufen,
+     * die sich jeweils verdoppeln (Stufe k = Zeiten mit k Binaerstellen). Erfasst wird von
+     * mehreren Threads gleichzeitig, ohne Sperre und ohne neue Objekte.
+     */
+    static class Verteilung {
+
+        private static final int ANZAHL = 0;
+        private static final int SUMME = 1;
+        private static final int MAXIMUM = 2;
+        private static final int STUFEN = 3;
+
+        private final AtomicLongArray werte = new AtomicLongArray(STUFEN + 64);
+
+        public void erfasse(long pNanos) {
+            if (pNanos < 0) {
+                pNanos = 0;
+            }
+            werte.incrementAndGet(ANZAHL);
+            werte.addAndGet(SUMME, pNanos);
+            werte.incrementAndGet(STUFEN + 64 - Long.numberOfLeadingZeros(pNanos));
+            long max;
+            while ((max = werte.get(MAXIMUM)) < pNanos && !werte.compareAndSet(MAXIMUM, max, pNanos)) {
+            }
+        }
+
+        public long gibAnzahl() {
+            return werte.get(ANZAHL);
+        }
+
+        public long gibSumme() {
+            return werte.get(SUMME);
+        }
+
+        public long gibMaximum() {
+            return werte.get(MAXIMUM);
+        }
+
+        // obere Grenze der Stufe, in der der Anteil pAnteil aller Messungen erreicht wird
+        public long gibPerzentil(double pAnteil) {
+            long anzahl = gibAnzahl();
+            if (anzahl == 0) {
+                return 0;
+            }
+            long ziel = (long) Math.ceil(pAnteil * anzahl);
+            long summe = 0;
+            for (int k=0; k<64; k++) {
+                summe += werte.get(STUFEN + k);
+                if (summe >= ziel) {
+                    long grenze = k == 0 ? 0 : k == 63 ? Long.MAX_VALUE : (1L << k) - 1;
+                    return Math.min(grenze, gibMaximum());
+                }
+            }
+            return gibMaximum();
+        }
+
+        public void leere() {
+            for (int i=0; i<werte.length(); i++) {
+                werte.set(i, 0);
+            }
+        }
+    }
+
+    // Messwerte einer Liste (s. ListenErfassung.gibMessung)
+    static class ListenMessung {
+        final Verteilung warten = new Verteilung();
+        final Verteilung anwenden = new Verteilung();
+        final Verteilung zeichnen = new Verteilung();
+
+        public void leere() {
+            warten.leere();
+            anwenden.leere();
+            zeichnen.leere();
+        }
+    }
+
+    // Anzeige, deren Listen und Befehle gemessen werden
+    private final VisualListAnimator<ContentType> animator;
+
+    final AtomicReferenceArray<Verteilung> erfassen = new AtomicReferenceArray<Verteilung>(256);
+    final AtomicReferenceArray<Verteilung> warten = new AtomicReferenceArray<Verteilung>(256);
+    final AtomicReferenceArray<Verteilung> anwenden = new AtomicReferenceArray<Verteilung>(256);
+    final Verteilung zeichnen = new Verteilung();
+    private final AtomicInteger hoechsteTiefe = new AtomicInteger();
+    final AtomicLong uebersprungen = new AtomicLong();
+    private ObjectName name;
+
+    Messwerte(VisualListAnimator<ContentType> pAnimator) {
+        animator = pAnimator;
+    }
+
+    // Opcodes ueber 254 (sehr viele eigene Befehle) teilen sich die letzte Verteilung
+    public Verteilung gibBefehl(AtomicReferenceArray<Verteilung> pArt, int pOpcode) {
+        int i = Math.min(pOpcode + 1, pArt.length() - 1);
+        Verteilung v = pArt.get(i);
+        if (v == null) {
+            pArt.compareAndSet(i, null, new Verteilung());
+            v = pArt.get(i);
+        }
+        return v;
+    }
+
+    public void merkeTiefe(int pTiefe) {
+        int max;
+        while ((max = hoechsteTiefe.get()) < pTiefe && !hoechsteTiefe.compareAndSet(max, pTiefe)) {
+        }
+    }
+
+    public void melde() {
+        try {
+            name = new ObjectName("VisualListAnimator:type=Metrics,name=" + NAECHSTE_MESSUNG.getAndIncrement());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        }
+        catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void meldeAb() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+        catch (JMException e) {
+            // bereits abgemeldet (z.B. von aussen ueber JMX)
+        }
+    }
+
+    public Metrics getMetrics() {
+        Metrics.LatencyStats[][] befehlsWerte = new Metrics.LatencyStats[][] {
+            zusammenfassen(erfassen), zusammenfassen(warten), zusammenfassen(anwenden) };
+        ArrayList<ArrayList<Metrics.LatencyStats>> listenWerte = new ArrayList<ArrayList<Metrics.LatencyStats>>();
+        for (int i=0; i<3; i++) {
+            listenWerte.add(new ArrayList<Metrics.LatencyStats>());
+        }
+        for (VisualListAnimator<ContentType>.ListenErfassung<ContentType> erf : animator.erfassungen.values()) {
+            ListenMessung lm = erf.messung;
+            if (lm == null) {
+                continue;
+            }
+            String namen;
+            erf.gibSperre().lock();
+            try {
+                namen = String.join(", ", erf.gibRefNamenListe());
+            }
+            finally {
+                erf.gibSperre().unlock();
+            }
+            Verteilung[] verteilungen = { lm.warten, lm.anwenden, lm.zeichnen };
+            for (int i=0; i<3; i++) {
+                if (verteilungen[i].gibAnzahl() > 0) {
+                    listenWerte.get(i).add(new Metrics.LatencyStats(namen, verteilungen[i]));
+                }
+            }
+        }
+        Metrics.LatencyStats[][] listen = new Metrics.LatencyStats[3][];
+        for (int i=0; i<3; i++) {
+            listen[i] = listenWerte.get(i).toArray(new Metrics.LatencyStats[0]);
+        }
+        return new Metrics(befehlsWerte, listen, new Metrics.LatencyStats("paintComponent", zeichnen),
+            getQueueDepth(), hoechsteTiefe.get(), uebersprungen.get());
+    }
+
+    private Metrics.LatencyStats[] zusammenfassen(AtomicReferenceArray<Verteilung> pArt) {
+        ArrayList<VisualListAnimator<ContentType>.Befehl> alle = animator.befehle;
+        ArrayList<Metrics.LatencyStats> ergebnis = new ArrayList<Metrics.LatencyStats>();
+        for (int i=0; i<pArt.length(); i++) {
+            Verteilung v = pArt.get(i);
+            if (v != null && v.gibAnzahl() > 0) {
+                String name = i == 0 ? "(ohne Befehl)" : i - 1 < alle.size() ? alle.get(i - 1).name : "(weitere)";
+                ergebnis.add(new Metrics.LatencyStats(name, v));
+            }
+        }
+        return ergebnis.toArray(new Metrics.LatencyStats[0]);
+    }
+
+    public long getCommandCount() {
+        long summe = 0;
+        for (int i=0; i<erfassen.length(); i++) {
+            Verteilung v = erfassen.get(i);
+            if (v != null) {
+                summe += v.gibAnzahl();
+            }
+        }
+        return summe;
+    }
+
+    public int getQueueDepth() {
+        return animator.warteschlange == null ? 0 : animator.warteschlange.gibAnzahl();
+    }
+
+    public long getSkippedFrames() {
+        return uebersprungen.get();
+    }
+
+    public void reset() {
+        AtomicReferenceArray<?>[] arten = { erfassen, warten, anwenden };
+        for (AtomicReferenceArray<?> art : arten) {
+            for (int i=0; i<art.length(); i++) {
+                Verteilung v = (Verteilung) art.get(i);
+                if (v != null) {
+                    v.leere();
+                }
+            }
+        }
+        zeichnen.leere();
+        hoechsteTiefe.set(0);
+        uebersprungen.set(0);
+        for (VisualListAnimator<ContentType>.ListenErfassung<ContentType> erf : animator.erfassungen.values()) {
+            if (erf.messung != null) {
+                erf.messung.leere();
+            }
+        }
+    }
+}
\ No newline at end of file
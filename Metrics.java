@@ -0,0 +1,106 @@
+/**
+ * Momentaufnahme der Messwerte eines VisualListAnimator (s. VisualListAnimator.setMetricsEnabled
+ * und getMetrics):
+ * 
+ * captureByCommand - animate bis zum Einreihen des Ereignisses, je Befehl (Thread des Aufrufers)
+ * waitByCommand    - anschließendes Warten auf ">" bzw. die Pause, je Befehl
+ * applyByCommand   - Übernahme in die Anzeige auf dem EDT, je angezeigtem Befehl; Zeigerbewegungen
+ *                    und Befehle ohne Änderung der Anzeige stehen unter "(ohne Befehl)"
+ * waitByList, applyByList, paintByList - dasselbe je Liste, paintByList ist das Zeichnen ihrer Zeile
+ * paint            - ein Aufruf von paintComponent (alle sichtbaren Zeilen)
+ * queueDepth       - derzeit wartende Ereignisse, maxQueueDepth der Höchststand
+ * skippedFrames    - Befehle, die nicht einzeln angezeigt wurden (gemeinsam übernommen bzw. ersetzt)
+ */
+public class Metrics {
+
+    /**
+     * Verteilung gemessener Zeiten in Nanosekunden, je Befehl bzw. je Liste. Die Perzentile sind
+     * obere Grenzen: Gemessen wird in Stufen, die sich jeweils verdoppeln.
+     */
+    public static class LatencyStats {
+
+        private final String name;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long medianNanos;
+        private final long p90Nanos;
+        private final long p99Nanos;
+
+        LatencyStats(String pName, Messwerte.Verteilung pVerteilung) {
+            name = pName;
+            count = pVerteilung.gibAnzahl();
+            totalNanos = pVerteilung.gibSumme();
+            maxNanos = pVerteilung.gibMaximum();
+            medianNanos = pVerteilung.gibPerzentil(0.5);
+            p90Nanos = pVerteilung.gibPerzentil(0.9);
+            p99Nanos = pVerteilung.gibPerzentil(0.99);
+        }
+
+        /** @return Befehl bzw. Referenznamen der Liste */
+        public String getName() { return name; }
+
+        /** @return Anzahl der Messungen */
+        public long getCount() { return count; }
+
+        /** @return Summe aller Messungen */
+        public long getTotalNanos() { return totalNanos; }
+
+        /** @return längste Messung */
+        public long getMaxNanos() { return maxNanos; }
+
+        /** @return höchstens so lange dauerte die Hälfte der Messungen */
+        public long getMedianNanos() { return medianNanos; }
+
+        /** @return höchstens so lange dauerten 90% der Messungen */
+        public long getP90Nanos() { return p90Nanos; }
+
+        /** @return höchstens so lange dauerten 99% der Messungen */
+        public long getP99Nanos() { return p99Nanos; }
+    }
+
+    private final LatencyStats[] captureByCommand;
+    private final LatencyStats[] waitByCommand;
+    private final LatencyStats[] applyByCommand;
+    private final LatencyStats[] waitByList;
+    private final LatencyStats[] applyByList;
+    private final LatencyStats[] paintByList;
+    private final LatencyStats paint;
+    private final int queueDepth;
+    private final int maxQueueDepth;
+    private final long skippedFrames;
+
+    Metrics(LatencyStats[][] pBefehle, LatencyStats[][] pListen, LatencyStats pPaint,
+            int pQueueDepth, int pMaxQueueDepth, long pSkippedFrames) {
+        captureByCommand = pBefehle[0];
+        waitByCommand = pBefehle[1];
+        applyByCommand = pBefehle[2];
+        waitByList = pListen[0];
+        applyByList = pListen[1];
+        paintByList = pListen[2];
+        paint = pPaint;
+        queueDepth = pQueueDepth;
+        maxQueueDepth = pMaxQueueDepth;
+        skippedFrames = pSkippedFrames;
+    }
+
+    public LatencyStats[] getCaptureByCommand() { return captureByCommand.clone(); }
+
+    public LatencyStats[] getWaitByCommand() { return waitByCommand.clone(); }
+
+    public LatencyStats[] getApplyByCommand() { return applyByCommand.clone(); }
+
+    public LatencyStats[] getWaitByList() { return waitByList.clone(); }
+
+    public LatencyStats[] getApplyByList() { return applyByList.clone(); }
+
+    public LatencyStats[] getPaintByList() { return paintByList.clone(); }
+
+    public LatencyStats getPaint() { return paint; }
+
+    public int getQueueDepth() { return queueDepth; }
+
+    public int getMaxQueueDepth() { return maxQueueDepth; }
+
+    public long getSkippedFrames() { return skippedFrames; }
+}
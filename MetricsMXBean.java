@@ -0,0 +1,21 @@
+/**
+ * JMX-Schnittstelle der Messwerte; angemeldet unter "VisualListAnimator:type=Metrics,name=..."
+ * (s. VisualListAnimator.setMetricsEnabled), z.B. in JConsole oder VisualVM zu sehen.
+ */
+public interface MetricsMXBean {
+
+    /** @return Momentaufnahme aller Messwerte */
+    Metrics getMetrics();
+
+    /** @return Anzahl der bisher erfassten Befehle */
+    long getCommandCount();
+
+    /** @return derzeit wartende Ereignisse */
+    int getQueueDepth();
+
+    /** @return Befehle, die nicht einzeln angezeigt wurden */
+    long getSkippedFrames();
+
+    /** Setzt alle Messwerte zurück. */
+    void reset();
+}
@@ -0,0 +1,300 @@
+import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Liste (Abitur NRW), die jede Änderung sofort meldet. Sie kann überall statt List verwendet
+ * werden. Wird sie mit addList in einen VisualListAnimator aufgenommen, zeigt dieser jede
+ * Änderung selbst an; animate muss für diese Liste nicht mehr aufgerufen werden.
+ *
+ * Die Liste kennt ihre Länge und den Index des aktuellen Elements, so dass jede Meldung ohne
+ * Durchlauf der Liste entsteht. Nur concat liest die angehängte Liste einmal durch, da deren
+ * Inhalte mitgemeldet werden.
+ *
+ * Beispiel:
+ *  ObservableList<Integer> list1 = new ObservableList<Integer>();
+ *  VisualListAnimator<Integer> vla = new VisualListAnimator<Integer>();
+ *  vla.addList(list1, "list1");
+ *  list1.append(42);   -> wird als APPEND angezeigt
+ *  list1.toFirst();    -> wird als TOFIRST angezeigt
+ *
+ * Die Knoten dürfen dabei nur über die Methoden der Liste verändert werden (bzw. durch concat
+ * einer anderen Liste, an die diese Liste angehängt wird).
+ */
+public class ObservableList<ContentType> extends List<ContentType> {
+
+    /**
+     * Empfänger der Meldungen einer ObservableList. Er wird auf dem Thread aufgerufen, der die
+     * Liste verändert, unmittelbar nach der Änderung.
+     */
+    public interface Listener<ContentType> {
+        void listChanged(Change<ContentType> pChange);
+    }
+
+    /**
+     * Eine Änderung: Befehl, betroffener Index, neue Inhalte sowie Länge und Index des
+     * aktuellen Elements nach der Änderung.
+     */
+    public static class Change<ContentType> {
+
+        private final ObservableList<ContentType> list;
+        private final VisualListAnimator.Command command;
+        private final int index;
+        private final Object[] contents;
+        private final int size;
+        private final int position;
+        private final List<ContentType> source;
+
+        private Change(ObservableList<ContentType> pList, VisualListAnimator.Command pCommand, int pIndex,
+                       Object[] pContents, List<ContentType> pSource) {
+            list = pList;
+            command = pCommand;
+            index = pIndex;
+            contents = pContents;
+            size = pList.anzahl;
+            position = pList.position;
+            source = pSource;
+        }
+
+        /**
+         * @return die geänderte Liste
+         */
+        public ObservableList<ContentType> getList() {
+            return list;
+        }
+
+        /**
+         * @return TOFIRST, NEXT, TOLAST, SETCONTENT, APPEND, INSERT, CONCAT oder REMOVE
+         */
+        public VisualListAnimator.Command getCommand() {
+            return command;
+        }
+
+        /**
+         * @return Index des ersetzten, eingefügten, ersten angehängten bzw. entfernten Elements,
+         *         bei TOFIRST, NEXT und TOLAST -1
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return die neuen Inhalte (bei CONCAT alle angehängten, sonst einer) oder null
+         */
+        public Object[] getContents() {
+            return contents;
+        }
+
+        /**
+         * @return Länge der Liste nach der Änderung
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * @return Index des aktuellen Elements nach der Änderung oder -1
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        /**
+         * @return bei CONCAT die angehängte, nun leere Liste, sonst null
+         */
+        public List<ContentType> getSource() {
+            return source;
+        }
+    }
+
+    private final CopyOnWriteArrayList<Listener<ContentType>> listeners = new CopyOnWriteArrayList<Listener<ContentType>>();
+    private int anzahl;
+    private int position = -1;
+    // append einer leeren Liste ruft insert auf, das dann nicht selbst meldet
+    private boolean imAnhaengen;
+
+    /**
+     * Eine leere Liste wird erzeugt.
+     */
+    public ObservableList() {
+        super();
+    }
+
+    /**
+     * Meldet alle folgenden Änderungen an pListener. Ist er bereits angemeldet, geschieht nichts.
+     *
+     * @param pListener Empfänger der Meldungen
+     */
+    public void addListener(Listener<ContentType> pListener) {
+        listeners.addIfAbsent(pListener);
+    }
+
+    /**
+     * @param pListener Empfänger, der keine Meldungen mehr erhalten soll
+     */
+    public void removeListener(Listener<ContentType> pListener) {
+        listeners.remove(pListener);
+    }
+
+    /**
+     * @return Länge der Liste; O(1)
+     */
+    public int size() {
+        pruefeGeleert();
+        return anzahl;
+    }
+
+    /**
+     * @return Index des aktuellen Elements oder -1, wenn es keins gibt; O(1)
+     */
+    public int getPosition() {
+        pruefeGeleert();
+        return position;
+    }
+
+    public void next() {
+        pruefeGeleert();
+        if (hasAccess()) {
+            super.next();
+            position = hasAccess() ? position + 1 : -1;
+            melde(VisualListAnimator.Command.NEXT, -1, null, null);
+        }
+    }
+
+    public void toFirst() {
+        pruefeGeleert();
+        if (!isEmpty()) {
+            super.toFirst();
+            position = 0;
+            melde(VisualListAnimator.Command.TOFIRST, -1, null, null);
+        }
+    }
+
+    public void toLast() {
+        pruefeGeleert();
+        if (!isEmpty()) {
+            super.toLast();
+            position = anzahl - 1;
+            melde(VisualListAnimator.Command.TOLAST, -1, null, null);
+        }
+    }
+
+    public void setContent(ContentType pContent) {
+        pruefeGeleert();
+        if (pContent != null && hasAccess()) {
+            super.setContent(pContent);
+            melde(VisualListAnimator.Command.SETCONTENT, position, new Object[] { pContent }, null);
+        }
+    }
+
+    public void insert(ContentType pContent) {
+        pruefeGeleert();
+        if (pContent == null) {
+            return;
+        }
+        if (hasAccess()) {
+            super.insert(pContent);
+            int index = position;
+            anzahl++;
+            position++;
+            melde(VisualListAnimator.Command.INSERT, index, new Object[] { pContent }, null);
+        }
+        else if (isEmpty()) {
+            super.insert(pContent);
+            anzahl = 1;
+            if (!imAnhaengen) {
+                melde(VisualListAnimator.Command.INSERT, 0, new Object[] { pContent }, null);
+            }
+        }
+    }
+
+    public void append(ContentType pContent) {
+        pruefeGeleert();
+        if (pContent == null) {
+            return;
+        }
+        int index = anzahl;
+        imAnhaengen = true;
+        try {
+            super.append(pContent);
+        }
+        finally {
+            imAnhaengen = false;
+        }
+        anzahl = index + 1;
+        melde(VisualListAnimator.Command.APPEND, index, new Object[] { pContent }, null);
+    }
+
+    public void concat(List<ContentType> pList) {
+        pruefeGeleert();
+        if (pList == this || pList == null || pList.isEmpty()) {
+            return;
+        }
+        // die Inhalte werden mitgemeldet, daher einmal durch die angehaengte Liste gehen
+        Object[] inhalte = null;
+        int anzahlAngehaengt;
+        if (!listeners.isEmpty()) {
+            ArrayList<Object> neu = new ArrayList<Object>();
+            List<ContentType> zeiger = new List<ContentType>();
+            zeiger.current = pList.first;
+            while (zeiger.hasAccess()) {
+                neu.add(zeiger.getContent());
+                zeiger.next();
+            }
+            inhalte = neu.toArray();
+            anzahlAngehaengt = inhalte.length;
+        }
+        else if (pList instanceof ObservableList) {
+            anzahlAngehaengt = ((ObservableList<ContentType>) pList).anzahl;
+        }
+        else {
+            anzahlAngehaengt = 0;
+            List<ContentType> zeiger = new List<ContentType>();
+            zeiger.current = pList.first;
+            while (zeiger.hasAccess()) {
+                anzahlAngehaengt++;
+                zeiger.next();
+            }
+        }
+        int index = anzahl;
+        super.concat(pList);
+        anzahl += anzahlAngehaengt;
+        // das Leeren der anderen Liste ist Teil dieser Meldung (getSource)
+        if (pList instanceof ObservableList) {
+            ObservableList<ContentType> andere = (ObservableList<ContentType>) pList;
+            andere.anzahl = 0;
+            andere.position = -1;
+        }
+        melde(VisualListAnimator.Command.CONCAT, index, inhalte, pList);
+    }
+
+    public void remove() {
+        pruefeGeleert();
+        if (hasAccess()) {
+            super.remove();
+            int index = position;
+            anzahl--;
+            if (position == anzahl) {
+                position = -1;
+            }
+            melde(VisualListAnimator.Command.REMOVE, index, null, null);
+        }
+    }
+
+    // concat einer anderen Liste leert diese Liste ueber ihre Attribute, ohne dass sie es bemerkt
+    private void pruefeGeleert() {
+        if (first == null) {
+            anzahl = 0;
+            position = -1;
+        }
+    }
+
+    private void melde(VisualListAnimator.Command pCommand, int pIndex, Object[] pInhalte, List<ContentType> pQuelle) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        Change<ContentType> aenderung = new Change<ContentType>(this, pCommand, pIndex, pInhalte, pQuelle);
+        for (Listener<ContentType> listener : listeners) {
+            listener.listChanged(aenderung);
+        }
+    }
+}
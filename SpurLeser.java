@@ -0,0 +1,114 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Liest eine Aufzeichnung aus in den Speicher eingeblendeten Abschnitten der Datei (je
+ * hoechstens 1 GiB, da ein MappedByteBuffer mit int adressiert wird). Gelesen wird erst
+ * beim Zugriff, das Oeffnen kostet daher unabhaengig von der Groesse der Datei fast nichts.
+ */
+class SpurLeser {
+
+    private static final int ABSCHNITT_BITS = 30;
+    private static final long ABSCHNITT_MASKE = (1L << ABSCHNITT_BITS) - 1;
+
+    private final MappedByteBuffer[] abschnitte;
+    private final long laenge;
+    // Dateiposition des naechsten Bytes
+    private long stand;
+
+    // weiterer Leser derselben Datei mit eigener Position, z.B. fuer einen anderen Thread
+    public SpurLeser(SpurLeser pVorlage) {
+        abschnitte = pVorlage.abschnitte;
+        laenge = pVorlage.laenge;
+        stand = pVorlage.stand;
+    }
+
+    public SpurLeser(String pDatei) throws IOException {
+        FileChannel kanal = FileChannel.open(Paths.get(pDatei), StandardOpenOption.READ);
+        try {
+            laenge = kanal.size();
+            abschnitte = new MappedByteBuffer[(int) ((laenge + ABSCHNITT_MASKE) >>> ABSCHNITT_BITS)];
+            for (int i=0; i<abschnitte.length; i++) {
+                long anfang = (long) i << ABSCHNITT_BITS;
+                abschnitte[i] = kanal.map(FileChannel.MapMode.READ_ONLY, anfang,
+                    Math.min(ABSCHNITT_MASKE + 1, laenge - anfang));
+            }
+        }
+        finally {
+            kanal.close(); // die Abschnitte bleiben trotzdem lesbar
+        }
+        boolean kennung = laenge > Aufzeichnung.SPUR_KENNUNG.length;
+        for (int i=0; kennung && i<Aufzeichnung.SPUR_KENNUNG.length; i++) {
+            kennung = liesByte() == Aufzeichnung.SPUR_KENNUNG[i];
+        }
+        if (!kennung) {
+            throw new IOException(pDatei + " ist keine Aufzeichnung");
+        }
+        if (liesByte() != Aufzeichnung.SPUR_VERSION) {
+            throw new IOException(pDatei + ": unbekannte Version der Aufzeichnung");
+        }
+    }
+
+    public long gibLaenge() {
+        return laenge;
+    }
+
+    public long gibStand() {
+        return stand;
+    }
+
+    public void setzeStand(long pStand) {
+        stand = pStand;
+    }
+
+    // Dateiposition von SATZ_INDEX oder -1, falls die Aufzeichnung nicht abgeschlossen wurde
+    public long gibIndexPosition() {
+        long ende = laenge - Aufzeichnung.SPUR_ENDE.length;
+        if (ende < Aufzeichnung.SPUR_KENNUNG.length + 1 + 8) {
+            return -1;
+        }
+        for (int i=0; i<Aufzeichnung.SPUR_ENDE.length; i++) {
+            if (gibByte(ende + i) != Aufzeichnung.SPUR_ENDE[i]) {
+                return -1;
+            }
+        }
+        long position = 0;
+        for (int i=0; i<8; i++) {
+            position = position << 8 | (gibByte(ende - 8 + i) & 0xFF);
+        }
+        return position;
+    }
+
+    public byte liesByte() {
+        return gibByte(stand++);
+    }
+
+    public long liesZahl() {
+        long zahl = 0;
+        int verschiebung = 0;
+        byte b;
+        do {
+            b = liesByte();
+            zahl |= (long) (b & 0x7F) << verschiebung;
+            verschiebung += 7;
+        } while (b < 0);
+        return zahl;
+    }
+
+    public int liesInt() {
+        return (int) liesZahl();
+    }
+
+    public void lies(byte[] pZiel) {
+        for (int i=0; i<pZiel.length; i++) {
+            pZiel[i] = liesByte();
+        }
+    }
+
+    private byte gibByte(long pPosition) {
+        return abschnitte[(int) (pPosition >>> ABSCHNITT_BITS)].get((int) (pPosition & ABSCHNITT_MASKE));
+    }
+}
@@ -8,6 +8,23 @@
  *   addlist
  *   removeList
  *   animate
+ *   registerCommand
+ *   addBreakpoint
+ *   runToBreakpoint
+ *   setMetricsEnabled
+ *   getMetrics
+ *   setQueuePolicy
+ *   setFrameRate
+ *   setStepsPerFrame
+ *   setTweenDuration
+ *   setFadeOutDuration
+ *   setCompactStorage
+ *   setZoomLevel
+ *   setActiveRendering
+ *   setHistorySize
+ *   close
+ *   playTrace
+ *   exportTrace
  * 
  * 
  * Verwendungsbeispiel:
@@ -51,11 +68,46 @@
  * 
  * Weitere Hinweise:
  * 
- *   Bei Append, Insert und Concat: Wenn null oder etwas Ungültiges übergeben wird, führt dieses 
- *   z.Zt. noch zu falschem Verhalten. Auch besitzt die Klasse keinen eigenen Garbage-Collector o.ä., 
- *   d.h. Listen könnten zwar theoretisch in der aufrufenden Klasse verschwunden sein 
- *   (z.B. durch rekursiven Aufruf), werden jedoch in der Visualisierung trotzdem noch angezeigt. 
- *   Dies lässt sich nur teilweise mit einem manuellen Aufruf von removeList umgehen.
+ *   Mit new VisualListAnimator<Integer>("lauf.vlat") entsteht eine Visualisierung ohne Fenster,
+ *   die alle Aufrufe von addList, removeList und animate nur in eine Datei aufzeichnet, z.B.
+ *   für automatische Tests auf Rechnern ohne Bildschirm. Am Ende muss close aufgerufen werden.
+ *   VisualListAnimator.playTrace("lauf.vlat") spielt die Aufzeichnung später in einem Fenster ab;
+ *   mit dem Schieberegler neben ">>" springt man dabei direkt zu einem beliebigen Schritt.
+ *   VisualListAnimator.exportTrace("lauf.vlat", "lauf.gif", 1280, 720) erzeugt daraus ohne
+ *   Fenster ein animiertes GIF bzw. eine Folge von PNG-Dateien, z.B. für Folien oder Videos.
+ *
+ *   Mit "<" wird der letzte angezeigte Schritt zurückgenommen, "<<" spielt rückwärts ab. Der
+ *   Code des Aufrufers läuft dabei nicht rückwärts: Er wartet, bis mit ">" bzw. ">>" alle
+ *   zurückgenommenen Schritte wieder angezeigt wurden (s. setHistorySize).
+ *
+ *   ">|" läuft ohne Pause und ohne zu zeichnen bis zum nächsten Haltepunkt (s. addBreakpoint),
+ *   z.B. um in langen Läufen schnell zu einem bestimmten Befehl zu gelangen.
+ *
+ *   Nach setMetricsEnabled(true) wird gemessen, wie lange animate, das Warten, die Anzeige und
+ *   das Zeichnen je Befehl und je Liste dauern (s. getMetrics, auch per JMX in JConsole).
+ *
+ *   Mit Strg + Mausrad wird die Anzeige verkleinert bzw. vergrößert (s. setZoomLevel). Ab der
+ *   ersten Verkleinerungsstufe wird jede Liste als Übersichtsstreifen gezeichnet, so dass auch
+ *   sehr lange Listen überblickt werden können.
+ *
+ *   Ruckelt die Animation bei vielen Listen, kann setActiveRendering(true) helfen: Dann zeichnet
+ *   ein eigener Thread jedes Bild vollständig in einen Hintergrundpuffer und zeigt es im Takt der
+ *   Bildwiederholrate an.
+ *
+ *   Wird statt List eine ObservableList verwendet, zeigt die Visualisierung jede Änderung der
+ *   Liste selbst an, animate ist für sie nicht nötig (s. ObservableList).
+ *
+ *   Statt nach jedem Befehl kann auch erst nach mehreren Änderungen vla.animate(list1, "Text")
+ *   aufgerufen werden: Die Änderungen seit dem letzten Aufruf werden dann selbst erkannt und als
+ *   Einfügen, Entfernen und Ersetzen einzelner Elemente angezeigt.
+ *
+ *   Bei Append, Insert und Concat: Wenn null oder etwas Ungültiges übergeben wird, führt dieses
+ *   z.Zt. noch zu falschem Verhalten.
+ *
+ *   Die Visualisierung hält die Listen nur schwach fest: Ist eine Liste in der aufrufenden Klasse
+ *   nicht mehr erreichbar (z.B. nach einem rekursiven Aufruf) und wurde sie vom Garbage-Collector
+ *   entfernt, verschwindet sie beim nächsten addList bzw. removeList auch aus der Anzeige
+ *   (s. setFadeOutDuration). Mit removeList kann eine Liste auch sofort entfernt werden.
  */
 import javax.swing.JFrame;
 import java.awt.event.ActionEvent;
@@ -64,41 +116,389 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import javax.swing.JPanel;
 import javax.swing.BorderFactory;
+import javax.swing.border.Border;
+import java.awt.Stroke;
 import java.awt.BorderLayout;
-import java.awt.GridLayout;
 import java.awt.FlowLayout;
 import java.awt.Color;
 import javax.swing.JScrollPane;
 import java.awt.Dimension;
 import java.awt.BasicStroke;
-import java.awt.Font;
 import javax.swing.JButton;
 import javax.swing.JSlider;
+import javax.swing.JComboBox;
 import java.util.Hashtable;
 import javax.swing.JLabel;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.awt.Toolkit;
+import java.awt.Rectangle;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.Map;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.awt.Point;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelListener;
+import javax.swing.JViewport;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.regex.Pattern;
+import java.awt.image.VolatileImage;
 
 /**
  * Die Klasse VisualListAnimator ist generisch und erwartet als ContentType denselben Typen 
  * den die Klasse List verwendet.
+ *
+ * addList, removeList und animate dürfen von mehreren Threads gleichzeitig aufgerufen werden,
+ * solange jede Liste zu einem Zeitpunkt nur von einem Thread verändert wird. Befehle für
+ * verschiedene Listen behindern sich dabei nicht gegenseitig.
  */
-public class VisualListAnimator<ContentType> extends JFrame {
+public class VisualListAnimator<ContentType> implements Closeable {
+
+    /**
+     * Verhalten von animate, wenn Befehle schneller erzeugt werden, als sie angezeigt werden koennen:
+     * 
+     * BLOCK          - jeder Befehl wird angezeigt, animate wartet auf ">" bzw. die Pause (Standard)
+     * COALESCE       - animate wartet nicht; alle bis zur naechsten Anzeige eingegangenen Befehle
+     *                  werden gemeinsam angezeigt, bei voller Warteschlange wartet animate
+     * DROP_TO_LATEST - wie COALESCE, bei voller Warteschlange ersetzt ein Befehl ohne Struktur-
+     *                  aenderung (z.B. NEXT, GETCONTENT) den zuletzt eingereihten Befehl derselben Liste
+     */
+    public enum QueuePolicy { BLOCK, COALESCE, DROP_TO_LATEST }
+
+    /**
+     * Wirkung von ">" im Einzelschritt-Modus, wenn mehrere Threads animate aufrufen:
+     * 
+     * SELECTED - der Thread, der die ausgewählte Liste (Mausklick auf ihre Zeile) zuletzt bearbeitet
+     *            hat, führt einen Befehl aus; ohne Auswahl der am längsten wartende Thread (Standard)
+     * ALL      - jeder Thread führt genau einen Befehl aus (Gleichschritt)
+     */
+    public enum StepMode { SELECTED, ALL }
+
+    /**
+     * Die vorhandenen Befehle für animate (s. dort). Gegenüber der Angabe als String
+     * entfällt das Auswerten des Befehlsnamens bei jedem Aufruf.
+     */
+    public enum Command { TOFIRST, NEXT, TOLAST, GETCONTENT, SETCONTENT, APPEND, INSERT, CONCAT, REMOVE, MARK, UNMARK }
+
+    /**
+     * Eigener Befehl, der mit registerCommand unter einem Namen angemeldet wird (z.B. SWAP oder MOVE).
+     * Wie bei den vorhandenen Befehlen wird die Liste vor dem Aufruf von animate verändert;
+     * die Visualisierung liest die Liste danach vollständig neu ein und ruft perform auf.
+     */
+    public interface CommandHandler<ContentType> {
+
+        /**
+         * Liefert die Positionen der Listen-Elemente, die hervorgehoben werden sollen.
+         *
+         * @param pList die bereits veränderte Liste (der aktuelle Zeiger darf nicht verändert werden)
+         * @param pPosition Position des aktuellen Elements (0 = erstes Element) oder -1
+         * @return hervorzuhebende Positionen oder null
+         */
+        int[] perform(List<ContentType> pList, int pPosition);
+    }
+
+    /**
+     * Bedingung an den Inhalt eines Listen-Elements für einen Haltepunkt (s. Breakpoint).
+     */
+    public interface ContentCondition<ContentType> {
+
+        /**
+         * @param pContent der neue Inhalt bzw. das aktuelle Element (nie null)
+         * @return true, wenn angehalten werden soll
+         */
+        boolean test(ContentType pContent);
+    }
+
+    /**
+     * Haltepunkt für ">|" (s. runToBreakpoint): Es wird angehalten, sobald ein Befehl alle
+     * angegebenen Bedingungen erfüllt; null steht für eine beliebige Angabe.
+     * 
+     * Beispiel (anhalten, sobald in die Liste "kleiner" eine Zahl über 50 eingefügt wird):
+     *  vla.addBreakpoint(new VisualListAnimator.Breakpoint<Integer>("APPEND", "kleiner", null,
+     *      new VisualListAnimator.ContentCondition<Integer>() {
+     *          public boolean test(Integer pContent) {
+     *              return pContent > 50;
+     *          }
+     *      }));
+     */
+    public static class Breakpoint<ContentType> {
+
+        private final String befehl;
+        private final String refName;
+        private final Pattern text;
+        private final ContentCondition<ContentType> inhalt;
+
+        /**
+         * @param pCommand Name des Befehls (z.B. "REMOVE" oder ein eigener Befehl) oder null
+         * @param pReferenceName einer der Referenznamen der Liste oder null
+         * @param pTextPattern regulärer Ausdruck, der im Erläuterungstext vorkommen muss, oder null
+         * @param pContent Bedingung an den neuen Inhalt (SETCONTENT, APPEND, INSERT, CONCAT: einer
+         *                 der angehängten) bzw. sonst an das aktuelle Element nach dem Befehl, oder null
+         */
+        public Breakpoint(String pCommand, String pReferenceName, String pTextPattern,
+                          ContentCondition<ContentType> pContent) {
+            befehl = pCommand;
+            refName = pReferenceName;
+            text = pTextPattern == null ? null : Pattern.compile(pTextPattern);
+            inhalt = pContent;
+        }
+
+        // Thread des Aufrufers, waehrend die Liste erfasst wird
+        @SuppressWarnings("unchecked")
+        private boolean trifft(String pBefehl, ArrayList<String> pRefNamen, String pText, Object[] pNeu,
+                               List<ContentType> pListe) {
+            if (befehl != null && !befehl.equals(pBefehl)) {
+                return false;
+            }
+            if (refName != null && !pRefNamen.contains(refName)) {
+                return false;
+            }
+            if (text != null && (pText == null || !text.matcher(pText).find())) {
+                return false;
+            }
+            if (inhalt == null) {
+                return true;
+            }
+            if (pNeu != null) {
+                for (Object o : pNeu) {
+                    if (o != null && inhalt.test((ContentType) o)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            return pListe != null && pListe.hasAccess() && inhalt.test(pListe.getContent());
+        }
+    }
 
-    private ArrayList<VPanel<ContentType>> panels;
-    private JPanel jp;
+    // Fenster der Anzeige; null bei einer Aufzeichnung ohne Fenster
+    private JFrame fenster;
+    // nur bei der Anzeige ohne Fenster fuer Tests (s. VisualListAnimator(int, int))
+    private boolean ohneFenster;
+    // nur ohne Fenster: nimmt alle Ereignisse statt der Warteschlange auf
+    private Aufzeichnung<ContentType> aufzeichnung;
+    // nur beim Abspielen einer Aufzeichnung (s. playTrace): Thread der Wiedergabe und Schieberegler
+    // zum Springen; schieberWirdGesetzt unterscheidet das Nachfuehren vom Ziehen durch den Benutzer
+    Wiedergabe<ContentType> wiedergabe;
+    JSlider schieber;
+    JLabel schieberStand;
+    boolean schieberWirdGesetzt = false;
+    // Messwerte (s. setMetricsEnabled); null = es wird nicht gemessen
+    volatile Messwerte<ContentType> messwerte;
+    // Nummer der naechsten neu aufgenommenen Liste (Threads der Aufrufer), beginnt bei 1
+    private final AtomicInteger naechsteListenId = new AtomicInteger(1);
+    // Erfassung (Threads der Aufrufer): Listen-Objekt (per Referenz, nicht per equals) -> Erfassung;
+    // die Listen werden nur schwach referenziert, eingesammelte Listen landen in verwaist.
+    // Gelesen wird ohne Sperre, geaendert nur unter erfassungsSperre. Die Befehle einer Liste
+    // werden unter der Sperre ihrer ListenErfassung erfasst und veroeffentlicht (s. erfasseBefehl).
+    private ListenTabelle erfassungNachListe;
+    private final ReferenceQueue<Object> verwaist = new ReferenceQueue<Object>();
+    private final ReentrantLock erfassungsSperre = new ReentrantLock();
+    // Referenzname -> zuletzt unter diesem Namen hinzugefuegte Liste (nur unter erfassungsSperre)
+    private HashMap<String, ListenErfassung<ContentType>> erfassungNachRefName;
+    // Nummer der Liste -> Erfassung, damit in der Reihenfolge der Aufnahme; ohne Sperre lesbar
+    ConcurrentSkipListMap<Integer, ListenErfassung<ContentType>> erfassungen;
+    // Anzeige (nur EDT): Reihenfolge der VPanels, Index = Zeile in der Anzeige
+    ArrayList<VPanel<ContentType>> panels;
+    // groesste Breite aller VPanels; wird erst bei Bedarf neu bestimmt, wenn das breiteste schrumpft
+    private int maxBreite;
+    private boolean maxBreiteVeraltet = false;
+    // Befehlstabelle: Index = Opcode; vorhandene Befehle haben den Opcode Command.ordinal(),
+    // eigene Befehle folgen dahinter. Beide Tabellen werden bei registerCommand ersetzt, nie veraendert.
+    volatile ArrayList<Befehl> befehle;
+    private volatile HashMap<String, Befehl> befehlNachName;
+    // animate(List, String): nicht in der Befehlstabelle, veroeffentlicht Ereignisse der vorhandenen Befehle
+    private final Befehl abgleich = new AbgleichBefehl();
+    // vollstaendiges Neueinlesen beim Abgleich; erst bei Bedarf als eigener Befehl angemeldet
+    private EigenerBefehl neuEinlesen;
+    // Verschieben eines Knotens beim Abgleich; ebenso erst bei Bedarf angemeldet
+    private VerschiebeBefehl verschieben;
+    // empfaengt die Meldungen aller aufgenommenen ObservableLists
+    private final ObservableList.Listener<ContentType> beobachter = new ObservableList.Listener<ContentType>() {
+            public void listChanged(ObservableList.Change<ContentType> pChange) {
+                ListenErfassung<ContentType> erfassung = erfassungNachListe.gib(pChange.getList());
+                if (erfassung != null) {
+                    erfasseBefehl(erfassung, new GemeldeterBefehl(pChange), null);
+                }
+            }
+        };
+    // einziger Verbraucher der Warteschlange ist der EDT
+    BefehlsWarteschlange warteschlange;
+    private Object[] entnommen;
+    private final AtomicBoolean verarbeitungGeplant = new AtomicBoolean(false);
+    private final Runnable verarbeiter = new Runnable() {
+            public void run() {
+                verarbeiteWarteschlange();
+            }
+        };
+    private volatile QueuePolicy queuePolicy = QueuePolicy.BLOCK;
+    // Vorspulen (Schieberegler ganz auf "Schnell"): Anzeige nur noch im festen Bildtakt
+    // zentraler Takt mit fester Rate; jeder Takt wird auf dem EDT ausgefuehrt
+    private ScheduledExecutorService taktgeber;
+    private final AtomicBoolean taktGeplant = new AtomicBoolean(false);
+    private final Runnable takt = new Runnable() {
+            public void run() {
+                taktGeplant.set(false);
+                verarbeiteTakt();
+            }
+        };
+    private long letzteVorspulAnzeige;
+    private volatile long bildPeriodeNanos = 1000000000L / 30;
+    private volatile int schritteProBild = 0;
+    // Zeitpunkt des naechsten Befehls im animierten Modus (Threads der Aufrufer)
+    private final AtomicLong naechsterSchritt = new AtomicLong();
+    // beim Vorspulen: Befehle seit dem letzten Bild; naechstesBild nur unter bildTakt
+    private final AtomicInteger schritteImBild = new AtomicInteger();
+    private final ReentrantLock bildTakt = new ReentrantLock();
+    private long naechstesBild;
+    private boolean anzeigeVeraltet = false;
+    // Breite eines VPanels oder Anzahl der VPanels hat sich geaendert -> Groesse des DrawPanels und ggf. des Fensters
+    private boolean layoutVeraltet = false;
+    // VPanels mit einem noch nicht gezeichneten Schadensbereich (nur EDT)
+    private ArrayList<VPanel<ContentType>> beschaedigt = new ArrayList<VPanel<ContentType>>();
+    // Uebergaenge (Verschieben von Knoten, Gleiten des Zeigers, Einblenden) - nur EDT
+    private volatile long uebergangNanos = 300000000L;
+    private ArrayList<VPanel<ContentType>> imUebergang = new ArrayList<VPanel<ContentType>>();
+    // eingesammelte Listen, die noch ausgeblendet werden (nur EDT)
+    private volatile long ausblendNanos = 0;
+    private ArrayList<VPanel<ContentType>> imAusblenden = new ArrayList<VPanel<ContentType>>();
+    // Verlauf fuer "<" und "<<" (nur EDT): Ringpuffer der zuletzt angewendeten Ereignisse. Die ersten
+    // verlaufPosition Eintraege sind angewendet; solange dahinter zurueckgenommene liegen, warten
+    // neue Ereignisse in der Warteschlange
+    private Object[] verlauf = new Object[1000];
+    private int verlaufKopf;
+    private int verlaufAnzahl;
+    private int verlaufPosition;
+    // Anzahl der im Verlauf abgelegten Inhalte (s. VERLAUF_INHALTE)
+    private long verlaufInhalte;
+    private boolean rueckwaerts = false;
+    private long naechsterVerlaufSchritt;
+    // kompakte Ablage: Inhalte werden schon beim Erfassen zu Beschriftungen (bzw. bleiben Zahlen)
+    private volatile boolean kompakt = false;
+    // Zwischenspeicher fester Groesse (nur EDT), damit gleiche Beschriftungen nur einmal abgelegt
+    // werden; direkt adressiert ueber den Hashwert, verdraengte Eintraege gehen nur dem Speicher verloren
+    private String[] beschriftungText = new String[4096];
+    private String[][] beschriftungZeilen = new String[4096][];
+    private int[] zahlSchluessel = new int[4096];
+    private String[][] zahlZeilen = new String[4096][];
+    // von Befehl.wendeAn gesetzt: geaenderter Bereich (inkl. null) und Versatz, von dem aus
+    // die Knoten zur neuen Position gleiten (0 = kein Gleiten)
+    private int verschobenAb;
+    private int verschobenBis;
+    private int versatz;
+    // einziges Swing-Bauteil fuer alle Listen; zeichnet nur die VPanels im sichtbaren Ausschnitt
+    DrawPanel dp;
+    // nur bei setActiveRendering(true): zeichnet die Bilder statt Swing (s. AktivesZeichnen)
+    private volatile AktivesZeichnen<ContentType> aktivesZeichnen;
+    // Detailstufe (nur EDT): 0 = Knoten mit Pfeilen, ab 1 Uebersichtsstreifen, jede Stufe halbiert
+    // die Breite eines Elements
+    private int zoomStufe = 0;
+    private double pixelProElement = 70;
     private JPanel navigation;
     private JButton play;
     private JButton pause;
     private JButton next;
+    private JButton back;
+    private JButton rewind;
     private JSlider slider;
-    private boolean isAnimated = false;
-    private final Object lock = new Object();
-    private boolean buttonPressed = false;    
-    private String aktBefehl = "";
+    private volatile boolean isAnimated = false;
+    // ">|": die Befehle laufen ohne Pause und ohne Zeichnen bis zum naechsten Haltepunkt
+    private JButton bisHalt;
+    private volatile boolean bisHaltepunkt = false;
+    private volatile ArrayList<Breakpoint<ContentType>> haltepunkte = new ArrayList<Breakpoint<ContentType>>();
+    // nur EDT: waehrend ">|" wird das Modell ohne Zeichnen, Layout und Uebergaenge gefuehrt
+    private boolean zeichnenAusgesetzt = false;
+    private long letzteUebernahme;
+    private volatile int sliderWert = 50;
+    // Einzelschritt-Modus: ">" gibt wartende Threads der Aufrufer frei (s. StepMode)
+    private final SchrittTor schrittTor = new SchrittTor();
+    private volatile StepMode schrittModus = StepMode.SELECTED;
+    private JComboBox<String> schrittAuswahl;
+    // nur EDT: per Mausklick ausgewaehlte Zeile
+    private VPanel<ContentType> ausgewaehlt;
+    private int aktBefehl = KEIN_BEFEHL;
     private VPanel aktiveVPan;
-    private int startYCoord = 60;
-    private int dpHeight = 170;            
+    int startYCoord = 60;
+    int dpHeight = 170;            
+
+    // Opcodes, die beim Zeichnen abgefragt werden
+    static final int KEIN_BEFEHL = -1;
+    private static final int BEFEHL_GETCONTENT = Command.GETCONTENT.ordinal();
+    private static final int BEFEHL_SETCONTENT = Command.SETCONTENT.ordinal();
+    private static final int BEFEHL_APPEND = Command.APPEND.ordinal();
+    private static final int BEFEHL_INSERT = Command.INSERT.ordinal();
+    private static final int BEFEHL_CONCAT = Command.CONCAT.ordinal();
+    static final int ERSTER_EIGENER_BEFEHL = Command.values().length;
+    // Arten von Ereignissen
+    private static final int ART_BEFEHL = 0;
+    static final int ART_ADDLIST = 1;
+    private static final int ART_ADDREF = 2;
+    static final int ART_REMOVELIST = 3;
+    static final int ART_VERWAIST = 4;
+    static final int ART_ZUSTAND = 5;
+    // Detailstufen und Groesse der Bloecke, ueber die die Uebersicht Werte zusammenfasst
+    private static final int MAX_ZOOMSTUFE = 24;
+    private static final int UEBERSICHT_BLOCK = 64;
+    // hoechstens so viele Inhalte haelt der Verlauf fest, aeltere Schritte werden vorher vergessen
+    private static final int VERLAUF_INHALTE = 1 << 22;
+    // animate(List, String): ab so vielen eingefuegten bzw. entfernten Elementen wird die Liste
+    // nicht mehr abgeglichen, sondern vollstaendig neu eingelesen (der Abgleich braucht O(d^2) Speicher)
+    private static final int ABGLEICH_GRENZE = 1000;
+    // Name des Verschiebens in einer Aufzeichnung (s. VerschiebeBefehl)
+    private static final String VERSCHIEBEN = "(Verschieben)";
+    // ">|": nach so langem Stillstand ohne neue Befehle wird der erreichte Stand gezeichnet
+    private static final long STILLSTAND_NANOS = 500000000L;
+    // Stufen fuer das Ausblenden eingesammelter Listen
+    private static final Composite[] STUFEN_AUSBLENDEN = erzeugeAusblendStufen();
+
+    // Zeichenmittel werden einmalig erzeugt und beim Zeichnen nur noch gesetzt
+    static final BasicStroke STRICH_DUENN = new BasicStroke(1);
+    private static final BasicStroke STRICH_PFEIL = new BasicStroke(3);
+    private static final BasicStroke STRICH_DICK = new BasicStroke(4);
+    private static final Color FARBE_CURRENT = new Color(0f, 0f, 1f, 1.0f);
+    private static final Color FARBE_ZUGRIFF = new Color(1f, 1f, 0f, 1.0f);
+    private static final Color FARBE_NEU = new Color(0f, 1f, 0f, 1.0f);
+    private static final Color FARBE_ANGEHAENGT = new Color(0f, 1f, 0f, 0.5f);
+    private static final Color FARBE_MARKIERUNG = new Color(1f, 0f, 1f, 1.0f);
+    // Uebersicht: Elemente ohne Zahlenwert bzw. Zahlenwerte von klein (blau) bis gross (rot)
+    private static final Color FARBE_DICHTE = new Color(0.6f, 0.6f, 0.6f, 1.0f);
+    private static final Color[] FARBEN_WERT = erzeugeWertFarben();
+    // Hervorhebungen werden waehrend eines Uebergangs in Stufen eingeblendet
+    private static final Color[] STUFEN_ZUGRIFF = erzeugeStufen(FARBE_ZUGRIFF);
+    private static final Color[] STUFEN_NEU = erzeugeStufen(FARBE_NEU);
+    private static final Color[] STUFEN_ANGEHAENGT = erzeugeStufen(FARBE_ANGEHAENGT);
 
     /**
      * Eine neue Instanz der Klasse VisualListAnimator wird erstellt. 
@@ -109,62 +509,124 @@ public class VisualListAnimator<ContentType> extends JFrame {
      * animate - Anzeige und grafische Animation einer Aktion
      */
     public VisualListAnimator() {     
-        panels = new ArrayList<VPanel<ContentType>>();
-        setTitle("Visual List");
-        setLocation(0, 0);        
-        setDefaultCloseOperation(EXIT_ON_CLOSE);
+        erzeugeModell();
+        fenster = new JFrame("Visual List");
+        fenster.setLocation(0, 0);        
+        fenster.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
-        jp = new JPanel();
-        jp.setLayout(new GridLayout(1,1));
-        JScrollPane jsp = new JScrollPane(jp);
+        dp = new DrawPanel();
+        final JScrollPane jsp = new JScrollPane(dp);
+        // Strg + Mausrad zoomt um die Mausposition, sonst wird wie gewohnt gescrollt
+        dp.addMouseWheelListener(new MouseWheelListener() {
+                public void mouseWheelMoved(MouseWheelEvent e) {
+                    if (e.isControlDown()) {
+                        setzeZoom(zoomStufe + e.getWheelRotation(), e.getX());
+                    }
+                    else {
+                        jsp.dispatchEvent(SwingUtilities.convertMouseEvent(dp, e, jsp));
+                    }
+                }
+            });
+        // Klick auf eine Zeile waehlt deren Liste fuer ">" aus, ein zweiter Klick hebt die Auswahl auf
+        dp.addMouseListener(new MouseAdapter() {
+                public void mousePressed(MouseEvent e) {
+                    int zeile = e.getY() / dpHeight;
+                    VPanel<ContentType> vPan = zeile < panels.size() ? panels.get(zeile) : null;
+                    waehleAus(vPan == ausgewaehlt ? null : vPan);
+                }
+            });
         jsp.getHorizontalScrollBar().setUnitIncrement(8);
         jsp.getVerticalScrollBar().setUnitIncrement(8);
         jsp.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_ALWAYS);
         jsp.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
-        add(jsp, BorderLayout.CENTER);        
+        fenster.add(jsp, BorderLayout.CENTER);        
 
         navigation = new JPanel(new FlowLayout(FlowLayout.LEFT));
         navigation.add(new JLabel("  "));
+        rewind = new JButton("<<");
+        back = new JButton("<");
         pause = new JButton("||");
         pause.setForeground(Color.BLUE);
         next = new JButton(">");
         play = new JButton(">>");
 
-        pause.addActionListener(new ActionListener() {                        
+        rewind.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent e) {
+                    play.setForeground(Color.BLACK);
+                    pause.setForeground(Color.BLACK);
+                    rewind.setForeground(Color.BLUE);
+                    bisHalt.setForeground(Color.BLACK);
+                    isAnimated = false;
+                    bisHaltepunkt = false;
+                    rueckwaerts = true;
+                }
+            });
+
+        // der Aufrufer wartet weiter, bis ">" bzw. ">>" den Verlauf wieder aufgeholt hat
+        back.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent e) {
+                    play.setForeground(Color.BLACK);
+                    rewind.setForeground(Color.BLACK);
+                    pause.setForeground(Color.BLUE);
+                    bisHalt.setForeground(Color.BLACK);
+                    isAnimated = false;
+                    bisHaltepunkt = false;
+                    rueckwaerts = false;
+                    geheZurueck();
+                }
+            });
+
+        pause.addActionListener(new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
                     play.setForeground(Color.BLACK);
-                    pause.setForeground(Color.BLUE);  
+                    rewind.setForeground(Color.BLACK);
+                    pause.setForeground(Color.BLUE);
+                    bisHalt.setForeground(Color.BLACK);
                     isAnimated = false;
-                    synchronized (lock) {
-                        buttonPressed = true;                                
-                        lock.notify();
-                    }                  
+                    bisHaltepunkt = false;
+                    rueckwaerts = false;
                 }
             });
 
         next.addActionListener(new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
-                    synchronized (lock) {
-                        buttonPressed = true;                                
-                        lock.notify();
-                    }                  
+                    if (bisHaltepunkt) { // wie "||", erst das naechste ">" fuehrt einen Schritt aus
+                        bisHaltepunkt = false;
+                        return;
+                    }
+                    if (imRueckblick()) {
+                        wiederhole();
+                        return;
+                    }
+                    schrittTor.gibFrei(schrittModus, ausgewaehlt == null ? null : ausgewaehlt.gibErfassung().gibProduzent());
                 }
             });
 
         play.addActionListener(new ActionListener() {
                 public void actionPerformed(ActionEvent e) {
                     play.setForeground(Color.BLUE);
-                    pause.setForeground(Color.BLACK);  
+                    rewind.setForeground(Color.BLACK);
+                    pause.setForeground(Color.BLACK);
+                    bisHalt.setForeground(Color.BLACK);
                     isAnimated = true;
-                    synchronized (lock) {
-                        buttonPressed = true;                                
-                        lock.notify();
-                    } 
+                    bisHaltepunkt = false;
+                    rueckwaerts = false;
+                    schrittTor.weckeAlle();
+                }
+            });
+
+        bisHalt = new JButton(">|");
+        bisHalt.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent e) {
+                    laufeBisHaltepunkt();
                 }
             });
+        navigation.add(rewind);
+        navigation.add(back);
         navigation.add(pause);
         navigation.add(next);
-        navigation.add(play);                
+        navigation.add(play);
+        navigation.add(bisHalt);
         slider = new JSlider();                
         slider.setMinimum(0);
         slider.setMaximum(100);
@@ -178,12 +640,229 @@ public class VisualListAnimator<ContentType> extends JFrame {
         labelTable.put(Integer.valueOf(100), new JLabel("Schnell") );
         slider.setLabelTable(labelTable);
         slider.setPaintLabels(true); 
+        // der Wert wird vom Thread des Aufrufers gelesen, daher als volatile Kopie
+        slider.addChangeListener(new ChangeListener() {
+                public void stateChanged(ChangeEvent e) {
+                    sliderWert = slider.getValue();
+                }
+            });
         navigation.add(slider);
-        add(navigation, BorderLayout.NORTH);
-        setSize(getBestWindowWidth(),getBestWindowHeight());
-        setVisible(true);
+        schrittAuswahl = new JComboBox<String>(new String[] { "Schritt: Auswahl", "Schritt: alle" });
+        schrittAuswahl.addActionListener(new ActionListener() {
+                public void actionPerformed(ActionEvent e) {
+                    schrittModus = StepMode.values()[schrittAuswahl.getSelectedIndex()];
+                }
+            });
+        navigation.add(schrittAuswahl);
+        fenster.add(navigation, BorderLayout.NORTH);
+        taktgeber = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "VisualListAnimator-Takt");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        // feste Rate statt fester Pause, damit sich keine Verzoegerungen aufsummieren
+        taktgeber.scheduleAtFixedRate(new Runnable() {
+                public void run() {
+                    if (taktGeplant.compareAndSet(false, true)) {
+                        SwingUtilities.invokeLater(takt);
+                    }
+                }
+            }, 0, 1000000000L / 60, TimeUnit.NANOSECONDS);
+        Dimension bildschirm = Toolkit.getDefaultToolkit().getScreenSize();
+        fenster.setSize(getBestWindowWidth(bildschirm),getBestWindowHeight(bildschirm));
+        fenster.setVisible(true);
     }   
 
+    /**
+     * Erzeugt eine Visualisierung ohne Fenster, die nichts anzeigt, sondern alle Aufrufe von
+     * addList, removeList und animate in die angegebene Datei aufzeichnet (z.B. für Tests auf
+     * Rechnern ohne Bildschirm). Es werden keine AWT-Bauteile erzeugt und animate wartet nie.
+     * Die Aufzeichnung wird mit close abgeschlossen, spätestens beim Beenden des Programms,
+     * und kann danach mit playTrace abgespielt werden.
+     *
+     * Beispiel:
+     *  VisualListAnimator<Integer> vla = new VisualListAnimator<Integer>("sortieren.vlat");
+     *  vla.addList(list1, "list1");
+     *  ...
+     *  vla.close();
+     *
+     * @param pTraceFile Name der Datei, in die aufgezeichnet wird (wird ggf. überschrieben)
+     * @throws UncheckedIOException falls die Datei nicht angelegt werden kann
+     */
+    public VisualListAnimator(String pTraceFile) {
+        erzeugeModell();
+        try {
+            aufzeichnung = new Aufzeichnung<ContentType>(this, FileChannel.open(Paths.get(pTraceFile),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Spielt eine mit VisualListAnimator(String) erstellte Aufzeichnung in einem Fenster ab.
+     * Wie bei animate wird mit "||", ">" und ">>" schrittweise bzw. animiert abgespielt; mit dem
+     * Schieberegler daneben springt die Anzeige zu einem beliebigen Schritt. Die Datei wird dazu
+     * nicht eingelesen, sondern in den Speicher eingeblendet, so dass auch Aufzeichnungen von
+     * mehreren Gigabyte sofort geöffnet sind. Ein Sprung beginnt beim letzten vollständigen
+     * Zwischenstand davor und wendet nur die wenigen Schritte danach an.
+     *
+     * Beispiel:
+     *  VisualListAnimator.playTrace("sortieren.vlat");
+     *
+     * @param pTraceFile Name der Datei mit der Aufzeichnung
+     * @return die Visualisierung, die die Aufzeichnung abspielt (z.B. für close)
+     * @throws UncheckedIOException falls die Datei nicht gelesen werden kann oder keine Aufzeichnung ist
+     */
+    public static VisualListAnimator<Object> playTrace(String pTraceFile) {
+        SpurLeser leser;
+        try {
+            leser = new SpurLeser(pTraceFile);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        VisualListAnimator<Object> vla = new VisualListAnimator<Object>();
+        // die Aufzeichnung enthaelt ohnehin nur Beschriftungen und Zahlen
+        vla.setCompactStorage(true);
+        vla.starteWiedergabe(leser);
+        return vla;
+    }
+
+    /**
+     * Exportiert eine mit VisualListAnimator(String) erstellte Aufzeichnung ohne Fenster als
+     * Folge von Bildern: ein Bild nach jedem Schritt, so wie die Anzeige den Schritt am Ende
+     * zeigt. Endet pTarget auf ".gif", entsteht ein animiertes GIF mit einer halben Sekunde
+     * pro Schritt, sonst werden in das Verzeichnis pTarget die Dateien step-000001.png usw.
+     * geschrieben. Was nicht in pWidth x pHeight Pixel passt, wird wie im Fenster abgeschnitten.
+     *
+     * Die Schritte werden auf allen Prozessorkernen gleichzeitig gezeichnet; jeder Kern beginnt
+     * dazu beim letzten Zwischenstand der Aufzeichnung vor seinen Schritten. Der Export dauert
+     * daher nicht so lange wie die Animation, sondern nur so lange wie das Zeichnen.
+     *
+     * Beispiel:
+     *  VisualListAnimator.exportTrace("sortieren.vlat", "sortieren.gif", 1280, 720);
+     *
+     * @param pTraceFile Name der Datei mit der Aufzeichnung
+     * @param pTarget Name der GIF-Datei bzw. des Verzeichnisses für die PNG-Dateien
+     * @param pWidth Breite der Bilder in Pixeln
+     * @param pHeight Höhe der Bilder in Pixeln
+     * @throws UncheckedIOException falls die Aufzeichnung nicht gelesen oder die Bilder nicht
+     *         geschrieben werden können
+     */
+    public static void exportTrace(String pTraceFile, String pTarget, int pWidth, int pHeight) {
+        Export.exportiere(pTraceFile, pTarget, pWidth, pHeight);
+    }
+
+    // Anzeige ohne Fenster fuer Tests auf Rechnern ohne Bildschirm: Modell, DrawPanel und
+    // Schadensbereiche wie im Fenster, aber ohne JFrame, Bedienelemente und Takt. Die Befehle
+    // werden wie im Fenster auf dem EDT uebernommen, animate wartet dabei nicht (COALESCE).
+    private VisualListAnimator(int pBreite, int pHoehe) {
+        erzeugeModell();
+        ohneFenster = true;
+        queuePolicy = QueuePolicy.COALESCE;
+        dp = new DrawPanel();
+        dp.setSize(pBreite, pHoehe);
+    }
+
+    // Zeichner ohne Fenster fuer den Export (s. Export): spielt die Aufzeichnung selbst ab und
+    // zeichnet mit zeichneIn. Ohne Fenster gibt es weder Uebergaenge noch Schadensbereiche.
+    VisualListAnimator(SpurLeser pLeser, int pBreite, int pHoehe) {
+        erzeugeModell();
+        kompakt = true;
+        dp = new DrawPanel();
+        dp.setSize(pBreite, pHoehe);
+        wiedergabe = new Wiedergabe<ContentType>(this, pLeser);
+    }
+
+    // Export: den aktuellen Stand wie paintComponent in pBild zeichnen
+    void zeichneIn(BufferedImage pBild) {
+        Graphics2D g = pBild.createGraphics();
+        g.setClip(0, 0, pBild.getWidth(), pBild.getHeight());
+        g.setFont(dp.getFont());
+        g.setColor(dp.getForeground());
+        dp.paintComponent(g);
+        g.dispose();
+    }
+
+    private void starteWiedergabe(SpurLeser pLeser) {
+        wiedergabe = new Wiedergabe<ContentType>(this, pLeser);
+        SwingUtilities.invokeLater(new Runnable() {
+                public void run() {
+                    schieber = new JSlider(0, 0, 0);
+                    schieber.setEnabled(false);
+                    schieber.setPreferredSize(new Dimension(300, schieber.getPreferredSize().height));
+                    schieber.addChangeListener(new ChangeListener() {
+                            public void stateChanged(ChangeEvent e) {
+                                if (!schieberWirdGesetzt) {
+                                    wiedergabe.springeZu(schieber.getValue());
+                                }
+                            }
+                        });
+                    schieberStand = new JLabel();
+                    // direkt hinter ">>"
+                    int stelle = navigation.getComponentZOrder(play) + 1;
+                    navigation.add(schieber, stelle);
+                    navigation.add(schieberStand, stelle + 1);
+                    navigation.revalidate();
+                    wiedergabe.starte();
+                }
+            });
+    }
+
+    private void erzeugeModell() {
+        erfassungNachListe = new ListenTabelle();
+        erfassungNachRefName = new HashMap<String, ListenErfassung<ContentType>>();
+        erfassungen = new ConcurrentSkipListMap<Integer, ListenErfassung<ContentType>>();
+        panels = new ArrayList<VPanel<ContentType>>();
+        warteschlange = new BefehlsWarteschlange(1024);
+        entnommen = new Object[1024];
+        registriereStandardBefehle();
+    }
+
+    /**
+     * Liefert das Fenster der Anzeige, z.B. um dessen Größe oder Position zu ändern.
+     *
+     * @return das Fenster oder null bei einer Aufzeichnung ohne Fenster
+     */
+    public JFrame getWindow() {
+        return fenster;
+    }
+
+    /**
+     * Schließt die Aufzeichnung ab (s. VisualListAnimator(String)) bzw. schließt das Fenster.
+     * Danach darf die Visualisierung nicht mehr verwendet werden.
+     *
+     * @throws UncheckedIOException falls die Aufzeichnung nicht geschrieben werden kann
+     */
+    public void close() {
+        setMetricsEnabled(false);
+        for (ListenErfassung<ContentType> erf : erfassungen.values()) {
+            meldeAb(erf);
+        }
+        if (aufzeichnung != null) {
+            aufzeichnung.schliesse();
+        }
+        else {
+            if (wiedergabe != null) {
+                wiedergabe.beende();
+            }
+            if (ohneFenster) {
+                return;
+            }
+            taktgeber.shutdown();
+            SwingUtilities.invokeLater(new Runnable() {
+                    public void run() {
+                        schalteAktivesZeichnen(false);
+                        fenster.dispose();
+                    }
+                });
+        }
+    }
+
     /**
      * Die im Parameter übergebene Referenz auf eine Liste wird unter dem als String 
      * übergebenem Referenznamen der Visualisierung hinzugefügt. 
@@ -207,34 +886,59 @@ public class VisualListAnimator<ContentType> extends JFrame {
      * @param pReferenceName Referenzname der Liste als String
      */
     public void addList(List<ContentType> pList, String pReferenceName) {
-
-        boolean gefunden = false;
-        int count = -1;
-        for (int i=0; i<panels.size(); i++) {
-            if (panels.get(i).gibOriginalList().equals(pList)) {
-                gefunden = true;
-                count = i;
-            }
+        entferneVerwaiste();
+        // Aenderungen einer ObservableList werden ohne animate angezeigt (s. GemeldeterBefehl)
+        if (pList instanceof ObservableList) {
+            ((ObservableList<ContentType>) pList).addListener(beobachter);
         }
 
-        // falls es eine neue Originalliste ist
-        if (!gefunden) {
-            VPanel<ContentType> neu = new VPanel<ContentType>();
-            neu.setzeOriginalList(pList);
-            neu.addRefName(pReferenceName);
-            panels.add(neu);
-            jp.setLayout(new GridLayout(panels.size(),1));
-            for (int i=0; i<panels.size(); i++) {
-                jp.add(panels.get(i)); 
-            }            
-        }
-        else { // dann nur die neue Referenz hinzufügen
-            panels.get(count).addRefName(pReferenceName);
-            aktiveVPan = panels.get(count);
+        while (true) {
+            ListenErfassung<ContentType> vorhanden = erfassungNachListe.gib(pList);
+
+            // falls es eine neue Originalliste ist; kopiert wird ausserhalb der Sperre
+            if (vorhanden == null) {
+                ListenErfassung<ContentType> neu = new ListenErfassung<ContentType>(pList);
+                erfassungsSperre.lock();
+                try {
+                    if (erfassungNachListe.gib(pList) == null) {
+                        neu.addRefName(pReferenceName);
+                        erfassungNachRefName.put(pReferenceName, neu);
+                        // erst veroeffentlichen, dann eintragen: animate findet die Liste erst nach ADDLIST
+                        veroeffentliche(new Ereignis(ART_ADDLIST, neu, KEIN_BEFEHL, pReferenceName, null, 0,
+                                neu.entnehmeAnfangsInhalte(), neu.gibPosition(), neu.gibMark(), 0, null, true, null));
+                        erfassungen.put(neu.gibId(), neu);
+                        erfassungNachListe.fuegeEin(neu);
+                        return;
+                    }
+                }
+                finally {
+                    erfassungsSperre.unlock();
+                }
+                // ein anderer Thread hat dieselbe Liste inzwischen aufgenommen
+                neu.gibReferenz().clear();
+                continue;
+            }
+            erfassungsSperre.lock();
+            try {
+                // dann nur die neue Referenz hinzufügen, sofern die Liste nicht inzwischen entfernt wurde
+                if (erfassungen.get(vorhanden.gibId()) == vorhanden) {
+                    vorhanden.gibSperre().lock();
+                    try {
+                        vorhanden.addRefName(pReferenceName);
+                        erfassungNachRefName.put(pReferenceName, vorhanden);
+                        veroeffentliche(new Ereignis(ART_ADDREF, vorhanden, KEIN_BEFEHL, pReferenceName, null, 0, null,
+                                vorhanden.gibPosition(), vorhanden.gibMark(), 0, null, true, null));
+                    }
+                    finally {
+                        vorhanden.gibSperre().unlock();
+                    }
+                    return;
+                }
+            }
+            finally {
+                erfassungsSperre.unlock();
+            }
         }
-        
-        setSize(getBestWindowWidth(), getBestWindowHeight());
-        revalidate();
     }
 
     /**
@@ -244,23 +948,113 @@ public class VisualListAnimator<ContentType> extends JFrame {
      * @param pList zu entfernende Liste
      */
     public void removeList(List<ContentType> pList) {
-        VPanel tmp = null;        
-        for (int i=0; i<panels.size(); i++) {
-            if (panels.get(i).gibOriginalList().equals(pList)) {                
-                tmp = panels.get(i);
+        entferneVerwaiste();
+        erfassungsSperre.lock();
+        try {
+            ListenErfassung<ContentType> tmp = erfassungNachListe.gib(pList);
+
+            if (tmp != null) {
+                erfassungNachListe.entferne(tmp);
+                entferneErfassung(tmp, ART_REMOVELIST);
             }
         }
+        finally {
+            erfassungsSperre.unlock();
+        }
+    }
 
-        if (tmp != null) {
-            panels.remove(tmp);
-            jp.removeAll();
-            jp.setLayout(new GridLayout(panels.size(),1));
-            for (int i=0; i<panels.size(); i++) {
-                jp.add(panels.get(i)); 
-            }            
-            revalidate();
+    /**
+     * Die Liste, die zuletzt unter dem übergebenen Referenznamen hinzugefügt wurde,
+     * wird aus der Visualisierung entfernt.
+     * 
+     * Beispiel:
+     *  removeList("kleiner");
+     * 
+     * @param pReferenceName Referenzname der zu entfernenden Liste (als String)
+     */
+    public void removeList(String pReferenceName) {
+        entferneVerwaiste();
+        erfassungsSperre.lock();
+        try {
+            ListenErfassung<ContentType> tmp = erfassungNachRefName.get(pReferenceName);
+
+            if (tmp != null) {
+                erfassungNachListe.entferne(tmp);
+                entferneErfassung(tmp, ART_REMOVELIST);
+            }
+        }
+        finally {
+            erfassungsSperre.unlock();
+        }
+    }
+
+    // Thread des Aufrufers: Erfassungen der inzwischen eingesammelten Listen austragen.
+    // Wird nur bei addList/removeList aufgerufen, animate bleibt unberuehrt. Alle gefundenen
+    // Listen werden mit einem einzigen Ereignis entfernt. Die Sperre der Erfassungen wird dabei
+    // nicht gebraucht: fuer eine eingesammelte Liste kann kein Befehl mehr laufen.
+    private void entferneVerwaiste() {
+        Reference<?> ref = verwaist.poll();
+        if (ref == null) {
+            return;
+        }
+        erfassungsSperre.lock();
+        try {
+            ArrayList<Object> tote = null;
+            do {
+                @SuppressWarnings("unchecked")
+                ListenErfassung<ContentType> erf = (ListenErfassung<ContentType>) ((ListenReferenz<?>) ref).gibErfassung();
+                if (erfassungen.get(erf.gibId()) == erf) {
+                    erfassungNachListe.entferne(erf);
+                    trageAus(erf);
+                    if (tote == null) {
+                        tote = new ArrayList<Object>();
+                    }
+                    tote.add(erf);
+                }
+            } while ((ref = verwaist.poll()) != null);
+            if (tote != null) {
+                veroeffentliche(new Ereignis(ART_VERWAIST, null, KEIN_BEFEHL, null, null, 0, null, -1, -1, 0,
+                        tote.toArray(), true, null));
+            }
+        }
+        finally {
+            erfassungsSperre.unlock();
+        }
+    }
+
+    // unter erfassungsSperre; die Sperre der Erfassung wartet einen laufenden Befehl ab,
+    // danach liefert beginneBefehl false
+    private void entferneErfassung(ListenErfassung<ContentType> pErfassung, int pArt) {
+        pErfassung.gibSperre().lock();
+        try {
+            meldeAb(pErfassung);
+            trageAus(pErfassung);
+            veroeffentliche(new Ereignis(pArt, pErfassung, KEIN_BEFEHL, null, null, 0, null, -1, -1, 0,
+                    null, true, null));
+        }
+        finally {
+            pErfassung.gibSperre().unlock();
+        }
+    }
+
+    // eine ObservableList meldet ihre Aenderungen nicht mehr (s. addList); vor trageAus, das die Referenz loescht
+    private void meldeAb(ListenErfassung<ContentType> pErfassung) {
+        List<ContentType> original = pErfassung.gibOriginal();
+        if (original instanceof ObservableList) {
+            ((ObservableList<ContentType>) original).removeListener(beobachter);
+        }
+    }
+
+    private void trageAus(ListenErfassung<ContentType> pErfassung) {
+        pErfassung.gibReferenz().clear();
+        erfassungen.remove(pErfassung.gibId());
+        // nur die Namen austragen, die nicht schon auf eine neuere Liste zeigen
+        for (String name : pErfassung.gibRefNamenListe()) {
+            if (erfassungNachRefName.get(name) == pErfassung) {
+                erfassungNachRefName.remove(name);
+            }
         }
-    }    
+    }
 
     /**
      * Die mittels der Methode addList zuerst übergebene Liste wird mit dem (als String) 
@@ -281,6 +1075,8 @@ public class VisualListAnimator<ContentType> extends JFrame {
      * MARK   (versieht das aktuelle Listen-Element mit einer dauerhaften Spezialmarkierung)
      * UNMARK (hebt alle Markierungen wieder auf)
      * 
+     * sowie alle mit registerCommand angemeldeten Befehle; unbekannte Befehle zeigen nur den Erklärtext an.
+     * 
      * Beispiel:
      *  animate(list1, "TOFIRST", "Zum ersten Element gehen");
      * 
@@ -288,9 +1084,25 @@ public class VisualListAnimator<ContentType> extends JFrame {
      * @param pExplanationText ein Text mit einer Erläuterung (als String)
      */
     public void animate(String pCommand, String pExplanationText) {
-        if (panels.size() > 0) {
-            aktiveVPan = panels.get(0);
-            update_GUI(0, pCommand, pExplanationText);            
+        Map.Entry<Integer, ListenErfassung<ContentType>> erste = erfassungen.firstEntry();
+        if (erste != null) {
+            erfasseBefehl(erste.getValue(), befehlNachName.get(pCommand), pExplanationText);
+        }
+    }
+
+    /**
+     * Wie animate(String, String), der Befehl wird jedoch direkt angegeben.
+     *
+     * Beispiel:
+     *  animate(VisualListAnimator.Command.TOFIRST, "Zum ersten Element gehen");
+     *
+     * @param pCommand einer der möglichen Befehle
+     * @param pExplanationText ein Text mit einer Erläuterung (als String)
+     */
+    public void animate(Command pCommand, String pExplanationText) {
+        Map.Entry<Integer, ListenErfassung<ContentType>> erste = erfassungen.firstEntry();
+        if (erste != null) {
+            erfasseBefehl(erste.getValue(), befehle.get(pCommand.ordinal()), pExplanationText);
         }
     }
 
@@ -313,6 +1125,8 @@ public class VisualListAnimator<ContentType> extends JFrame {
      * MARK   (versieht das aktuelle Listen-Element mit einer dauerhaften Spezialmarkierung)
      * UNMARK (hebt alle Markierungen wieder auf)
      * 
+     * sowie alle mit registerCommand angemeldeten Befehle; unbekannte Befehle zeigen nur den Erklärtext an.
+     * 
      * Beispiel:
      *  animate(list1, "TOFIRST", "Zum ersten Element gehen");
      * 
@@ -321,383 +1135,3779 @@ public class VisualListAnimator<ContentType> extends JFrame {
      * @param pExplanationText ein Text mit einer Erläuterung (als String)
      */
     public void animate(List<ContentType> pList, String pCommand, String pExplanationText) {
-        int count = -1;
-        for (int i=0; i<panels.size(); i++) {
-            if (panels.get(i).gibOriginalList().equals(pList)) {
-                count = i;
-            }
+        ListenErfassung<ContentType> erfassung = erfassungNachListe.gib(pList);
+        if (erfassung != null) {
+            erfasseBefehl(erfassung, befehlNachName.get(pCommand), pExplanationText);
         }
-        if (count != -1) {
-            aktiveVPan = panels.get(count);
-            update_GUI(count, pCommand, pExplanationText);            
-        }
-    }    
-
-    private int getSliderValue() {
-        return slider.getMaximum() - slider.getValue();
     }
 
-    private int getBestWindowWidth() {
-        int max = 0;
-        for (int i=0; i<panels.size(); i++) {
-            if (panels.get(i).gibAnzElem() > max) {
-                max = panels.get(i).gibAnzElem();
-            }
-        }        
-        int prefWidth = max * 70 + 150 + 20;
-        int width = (int)Toolkit.getDefaultToolkit().getScreenSize().getWidth();
-        if (prefWidth > width) {
-            prefWidth = width;
-        }        
-        if (prefWidth < 640) {
-            prefWidth = 640;
+    /**
+     * Wie animate(List, String, String), der Befehl wird jedoch direkt angegeben.
+     *
+     * Beispiel:
+     *  animate(list1, VisualListAnimator.Command.APPEND, "Hinzufügen der Zahl 42");
+     *
+     * @param pList die Liste, für die eine Änderung angezeigt werden soll
+     * @param pCommand einer der möglichen Befehle
+     * @param pExplanationText ein Text mit einer Erläuterung (als String)
+     */
+    public void animate(List<ContentType> pList, Command pCommand, String pExplanationText) {
+        ListenErfassung<ContentType> erfassung = erfassungNachListe.gib(pList);
+        if (erfassung != null) {
+            erfasseBefehl(erfassung, befehle.get(pCommand.ordinal()), pExplanationText);
         }
-        return prefWidth;    
     }
 
-    private int getBestWindowHeight() {        
-        int prefHeight = panels.size() * dpHeight + 60 + navigation.getHeight();
-        int height = (int)Toolkit.getDefaultToolkit().getScreenSize().getHeight();
-        if (prefHeight > height) {
-            prefHeight = height;
-        }        
-        if (panels.size() == 0) {
-            prefHeight = 290;
+    /**
+     * Wie animate(List, String, String), jedoch ohne Befehl: Die Anzeige wird mit der Liste
+     * abgeglichen. Alle Änderungen seit dem letzten Abgleich werden selbst erkannt (die Knoten
+     * werden dabei an ihrer Identität wiedererkannt) und als Einfügen, Anhängen, Entfernen,
+     * Verschieben und Ersetzen einzelner Elemente angezeigt, jede Änderung als eigener Schritt wie
+     * bei einzelnen Aufrufen von animate; danach steht der Zeiger wie in der Liste. Die Liste
+     * und ihr aktuelles Element bleiben unverändert.
+     * 
+     * Beim ersten Abgleich einer Liste, nach einem anderen Befehl, der ihre Inhalte verändert,
+     * und bei sehr vielen Änderungen wird die Liste stattdessen vollständig neu eingelesen.
+     * 
+     * Beispiel:
+     *  list1.toFirst();
+     *  list1.insert(7);
+     *  list1.next();
+     *  list1.remove();
+     *  animate(list1, "Einfügen vor dem ersten und Entfernen des zweiten Elements");
+     * 
+     * @param pList die Liste, deren Änderungen angezeigt werden sollen
+     * @param pExplanationText ein Text mit einer Erläuterung (als String)
+     */
+    public void animate(List<ContentType> pList, String pExplanationText) {
+        ListenErfassung<ContentType> erfassung = erfassungNachListe.gib(pList);
+        if (erfassung != null) {
+            erfasseBefehl(erfassung, abgleich, pExplanationText);
         }
-        return prefHeight;    
     }
 
-    private void update_GUI(int vPNum, String pBefehl, String pText) {
-        aktBefehl = "";        
+    /**
+     * Meldet einen eigenen Befehl an, der danach wie die vorhandenen Befehle mit animate
+     * verwendet werden kann. Nach der Ausführung wird die gesamte Liste neu eingelesen und
+     * die von pHandler gelieferten Elemente werden hervorgehoben. Ein bereits angemeldeter
+     * Befehl gleichen Namens wird ersetzt.
+     *
+     * Beispiel (Vertauschen des aktuellen Elements mit seinem Nachfolger):
+     *  vla.registerCommand("SWAP", new VisualListAnimator.CommandHandler<Integer>() {
+     *      public int[] perform(List<Integer> pList, int pPosition) {
+     *          return new int[] { pPosition, pPosition + 1 };
+     *      }
+     *  });
+     *  ...
+     *  vla.animate(list1, "SWAP", "Vertauschen mit dem Nachfolger");
+     *
+     * @param pName Name des Befehls (als String)
+     * @param pHandler liefert die hervorzuhebenden Elemente
+     */
+    public synchronized void registerCommand(String pName, CommandHandler<ContentType> pHandler) {
+        registriere(new EigenerBefehl(befehle.size(), pName, pHandler));
+    }
 
-        if (pBefehl.equals("TOFIRST")) {
-            if (!panels.get(vPNum).gibList().isEmpty()) {
-                panels.get(vPNum).setzeListPosition(0);                
-                panels.get(vPNum).gibList().toFirst();
-            }
-        }
-        else if (pBefehl.equals("NEXT")) {
-            if (panels.get(vPNum).gibListPosition() == panels.get(vPNum).gibAnzElem()) {
-                panels.get(vPNum).setzeListPosition(-1);
-            }
-            else if (!panels.get(vPNum).gibList().isEmpty() && panels.get(vPNum).gibListPosition() != -1) {
-                panels.get(vPNum).setzeListPosition(panels.get(vPNum).gibListPosition() + 1);
-                panels.get(vPNum).gibList().next();
-            }
+    /**
+     * Legt fest, wie sich animate verhält, wenn Befehle schneller erzeugt werden, als sie
+     * angezeigt werden können (s. QueuePolicy). Standard ist BLOCK, d.h. jeder Befehl wird
+     * einzeln angezeigt und animate wartet auf ">" bzw. die eingestellte Pause.
+     * 
+     * Beispiel:
+     *  setQueuePolicy(VisualListAnimator.QueuePolicy.COALESCE);
+     * 
+     * @param pPolicy BLOCK, COALESCE oder DROP_TO_LATEST
+     */
+    public void setQueuePolicy(QueuePolicy pPolicy) {
+        queuePolicy = pPolicy;
+    }
 
+    /**
+     * Legt fest, welche Threads ">" im Einzelschritt-Modus weiterlaufen lässt, wenn mehrere
+     * Threads animate aufrufen (s. StepMode). Standard ist SELECTED; ohne ausgewählte Liste
+     * führt dann der am längsten wartende Thread seinen nächsten Befehl aus.
+     *
+     * Beispiel:
+     *  setStepMode(VisualListAnimator.StepMode.ALL);
+     *
+     * @param pMode SELECTED oder ALL
+     */
+    public void setStepMode(final StepMode pMode) {
+        schrittModus = pMode;
+        if (fenster == null) {
+            return;
         }
-        else if (pBefehl.equals("TOLAST")) {
-            if (!panels.get(vPNum).gibList().isEmpty()) {
-                panels.get(vPNum).setzeListPosition(panels.get(vPNum).gibAnzElem()-1);
-                panels.get(vPNum).gibList().toLast();
-            }
-        }
-        else if (pBefehl.equals("SETCONTENT")) {
-            if (panels.get(vPNum).gibListPosition() != -1) {
-                panels.get(vPNum).gibList().setContent(panels.get(vPNum).gibOriginalList().getContent());
-                aktBefehl = "SETCONTENT";
-            }
-        }        
-        else if (pBefehl.equals("APPEND")) {
-            // letztes Element aus der Originalliste anfügen und Original-Zeiger zurücksetzen
-            panels.get(vPNum).gibOriginalList().toLast();
-            panels.get(vPNum).gibList().append(panels.get(vPNum).gibOriginalList().getContent());
-            panels.get(vPNum).resetOriginalListPointer();
-            panels.get(vPNum).setzeAnzElem(panels.get(vPNum).gibAnzElem() + 1);                        
-            panels.get(vPNum).gibDP().resizeDP();
-            aktBefehl = "APPEND";
-        }        
-        else if (pBefehl.equals("CONCAT")) {
-            // neue tiefe Kopie erzeugen
-            panels.get(vPNum).setzeAnzElemAlt(panels.get(vPNum).gibAnzElem());
-            panels.get(vPNum).setzeList(new List<ContentType>());
-            panels.get(vPNum).gibOriginalList().toFirst();
-            panels.get(vPNum).setzeAnzElem(0);            
-            while (panels.get(vPNum).gibOriginalList().hasAccess()) {
-                panels.get(vPNum).gibList().append(panels.get(vPNum).gibOriginalList().getContent());
-                panels.get(vPNum).gibOriginalList().next();
-                panels.get(vPNum).setzeAnzElem(panels.get(vPNum).gibAnzElem() + 1);
-            }
-            panels.get(vPNum).resetOriginalListPointer();                        
-            panels.get(vPNum).gibDP().resizeDP();
-            aktBefehl = "CONCAT";
-
-            // nach einem CONCAT kann eine andere Liste nun leer sein, was überprüft werden muss
-            for (int i=0; i<panels.size(); i++) {
-                List<ContentType> orig = panels.get(i).gibOriginalList();
-                if (orig.isEmpty()) {// && panels.get(i).gibListPosition() != -1 && panels.get(i).gibAnzElem() != 0) {
-                    panels.get(i).setzeAnzElem(0);
-                    panels.get(i).setzeList(new List<ContentType>());
-                    panels.get(i).setzeListPosition(-1);
-                }
-            }            
-        }
-        else if (pBefehl.equals("REMOVE")) {
-            if (!panels.get(vPNum).gibList().isEmpty() && panels.get(vPNum).gibListPosition() != -1) {
-                panels.get(vPNum).gibList().remove();            
-                panels.get(vPNum).setzeAnzElem(panels.get(vPNum).gibAnzElem() - 1);
-                panels.get(vPNum).gibDP().resizeDP();
-                aktBefehl = "REMOVE";
-            }
-        }
-        else if (pBefehl.equals("GETCONTENT")) {
-            if (panels.get(vPNum).gibListPosition() != -1) {
-                aktBefehl = "GETCONTENT";
-            }            
-        } 
-        else if (pBefehl.equals("INSERT")) {
-            // falls Liste leer -> Element einfügen, listPosition bleibt -1
-            if (panels.get(vPNum).gibList().isEmpty()) {
-                panels.get(vPNum).gibOriginalList().toFirst();
-                panels.get(vPNum).gibList().append(panels.get(vPNum).gibOriginalList().getContent());            
-                panels.get(vPNum).resetOriginalListPointer();
-                panels.get(vPNum).setzeAnzElem(panels.get(vPNum).gibAnzElem() + 1);                
-                panels.get(vPNum).gibDP().resizeDP();
-                aktBefehl = "INSERT";
-            }
-            // Liste nicht leer und hasAccess == true -> Element einfügen, listPosition bleibt wie sie ist
-            else if (!panels.get(vPNum).gibList().isEmpty() && panels.get(vPNum).gibListPosition() != -1) {
-                panels.get(vPNum).gibOriginalList().toFirst();
-                for (int i=0; i<panels.get(vPNum).gibListPosition(); i++) {
-                    panels.get(vPNum).gibOriginalList().next();
-                }
-                panels.get(vPNum).gibList().insert(panels.get(vPNum).gibOriginalList().getContent());            
-                panels.get(vPNum).resetOriginalListPointer();
-                panels.get(vPNum).gibOriginalList().next();
-                panels.get(vPNum).gibList().next();
-                panels.get(vPNum).setzeListPosition(panels.get(vPNum).gibListPosition() + 1);                
-                panels.get(vPNum).setzeAnzElem(panels.get(vPNum).gibAnzElem() + 1);                
-                panels.get(vPNum).gibDP().resizeDP();
-                aktBefehl = "INSERT";
-            }
-        }    
-        else if (pBefehl.equals("MARK")) {
-            if (panels.get(vPNum).gibListPosition() != -1) {
-                aktBefehl = "MARK";
-            }            
-        }
-        else if (pBefehl.equals("UNMARK")) {            
-            aktBefehl = "UNMARK";            
-        }
-
-        if (pText != null) {
-            panels.get(vPNum).setzeText(pText);
-        }
-
-        setSize(getBestWindowWidth(), getBestWindowHeight());
-        repaint();
-
-        // warten
-        try {
-            if (isAnimated) {            
-                Thread.sleep(getSliderValue()*20);            
-            }
-            else {
-                synchronized (lock) {
-                    while (!buttonPressed) {
-                        lock.wait();
-                    }
-                    buttonPressed = false;
+        SwingUtilities.invokeLater(new Runnable() {
+                public void run() {
+                    schrittAuswahl.setSelectedIndex(pMode.ordinal());
                 }
-            }
+            });
+    }
+
+    /**
+     * Fügt einen Haltepunkt hinzu (s. Breakpoint und runToBreakpoint).
+     *
+     * @param pBreakpoint der Haltepunkt
+     */
+    public synchronized void addBreakpoint(Breakpoint<ContentType> pBreakpoint) {
+        ArrayList<Breakpoint<ContentType>> neu = new ArrayList<Breakpoint<ContentType>>(haltepunkte);
+        neu.add(pBreakpoint);
+        haltepunkte = neu;
+    }
+
+    /**
+     * Entfernt einen mit addBreakpoint hinzugefügten Haltepunkt.
+     *
+     * @param pBreakpoint der Haltepunkt
+     */
+    public synchronized void removeBreakpoint(Breakpoint<ContentType> pBreakpoint) {
+        ArrayList<Breakpoint<ContentType>> neu = new ArrayList<Breakpoint<ContentType>>(haltepunkte);
+        neu.remove(pBreakpoint);
+        haltepunkte = neu;
+    }
+
+    /**
+     * Wirkt wie ">|": Die folgenden Befehle werden ohne Pause übernommen, ohne dass gezeichnet
+     * wird, bis ein Befehl einen Haltepunkt erfüllt (s. addBreakpoint). Dieser Befehl wird wieder
+     * angezeigt, danach geht es im Einzelschritt-Modus weiter. Ohne Haltepunkt wird bis zum Ende
+     * gelaufen; steht das Programm länger still, wird zwischendurch der erreichte Stand gezeigt.
+     * Angehalten wird nur bei der QueuePolicy BLOCK.
+     */
+    public void runToBreakpoint() {
+        if (fenster == null) {
+            return;
+        }
+        SwingUtilities.invokeLater(new Runnable() {
+                public void run() {
+                    laufeBisHaltepunkt();
+                }
+            });
+    }
+
+    /**
+     * Schaltet die Messung ein bzw. aus (Standard: aus). Gemessen werden die Dauer von animate,
+     * das Warten auf ">" bzw. die Pause, die Übernahme in die Anzeige und das Zeichnen, jeweils je
+     * Befehl bzw. je Liste, sowie die Länge der Warteschlange (s. Metrics). Die Messwerte stehen
+     * mit getMetrics und per JMX (s. MetricsMXBean) zur Verfügung. Das Messen selbst legt keine
+     * Objekte an und beeinflusst die gemessenen Zeiten daher kaum. Beim Einschalten beginnt die
+     * Messung von vorn, close schaltet sie aus.
+     *
+     * @param pEnabled true = messen
+     */
+    public synchronized void setMetricsEnabled(boolean pEnabled) {
+        Messwerte<ContentType> alt = messwerte;
+        if (alt != null) {
+            messwerte = null;
+            alt.meldeAb();
+        }
+        if (pEnabled) {
+            Messwerte<ContentType> neu = new Messwerte<ContentType>(this);
+            neu.melde();
+            messwerte = neu;
+        }
+    }
+
+    /**
+     * Liefert eine Momentaufnahme der Messwerte, z.B. für Tests.
+     *
+     * @return die Messwerte oder null, wenn nicht gemessen wird (s. setMetricsEnabled)
+     */
+    public Metrics getMetrics() {
+        Messwerte<ContentType> m = messwerte;
+        return m == null ? null : m.getMetrics();
+    }
+
+    /**
+     * Steht der Schieberegler ganz auf "Schnell" und läuft die Animation (">>"), wird vorgespult:
+     * Die Befehle werden ohne Pause übernommen und die Anzeige wird nur noch mit der hier
+     * angegebenen Bildrate aktualisiert (Standard: 30 Bilder pro Sekunde).
+     *
+     * @param pFramesPerSecond Anzahl der Bilder pro Sekunde beim Vorspulen (1 bis 60)
+     */
+    public void setFrameRate(int pFramesPerSecond) {
+        bildPeriodeNanos = 1000000000L / Math.max(1, Math.min(60, pFramesPerSecond));
+    }
+
+    /**
+     * Legt fest, wie viele Befehle beim Vorspulen höchstens pro angezeigtem Bild übernommen
+     * werden. Bei 0 (Standard) wird nicht gebremst, d.h. animate kehrt sofort zurück und die
+     * Anzeige zeigt im Bildtakt jeweils den neuesten Stand.
+     *
+     * Beispiel:
+     *  setStepsPerFrame(5) -> bei 30 Bildern pro Sekunde höchstens 150 Befehle pro Sekunde
+     *
+     * @param pStepsPerFrame Befehle pro Bild oder 0 für unbegrenzt
+     */
+    public void setStepsPerFrame(int pStepsPerFrame) {
+        schritteProBild = Math.max(0, pStepsPerFrame);
+    }
+
+    /**
+     * Legt fest, wie lange Knoten bei INSERT, REMOVE, APPEND und CONCAT zu ihrer neuen Position
+     * gleiten und der Zeiger zum neuen aktuellen Element wandert (Standard: 300 ms).
+     * Ist die Pause zwischen zwei Befehlen kürzer, wird der Übergang entsprechend verkürzt,
+     * beim Vorspulen entfällt er. Bei 0 springt die Anzeige wie bisher direkt zum neuen Zustand.
+     *
+     * @param pMillis Dauer eines Übergangs in Millisekunden
+     */
+    public void setTweenDuration(int pMillis) {
+        uebergangNanos = Math.max(0, pMillis) * 1000000L;
+    }
+
+    /**
+     * Legt fest, wie lange eine vom Garbage-Collector eingesammelte Liste ausgeblendet wird,
+     * bevor sie aus der Anzeige verschwindet (Standard: 0, d.h. sie verschwindet sofort).
+     * Mit removeList entfernte Listen verschwinden immer sofort.
+     *
+     * @param pMillis Dauer des Ausblendens in Millisekunden
+     */
+    public void setFadeOutDuration(int pMillis) {
+        ausblendNanos = Math.max(0, pMillis) * 1000000L;
+    }
+
+    /**
+     * Legt fest, ob für danach hinzugefügte Listen nur noch die Beschriftungen der Elemente
+     * (toString()) gespeichert werden statt der Elemente selbst (Standard: false).
+     * Gleiche Beschriftungen werden dabei nur einmal abgelegt, Zahlen (Integer) belegen nur
+     * vier Byte pro Element. So lassen sich auch Listen mit Millionen von Elementen darstellen,
+     * und die Visualisierung hält keine Objekte der Liste fest.
+     *
+     * Die Beschriftung wird beim Aufruf von animate bzw. addList bestimmt. Ändert sich ein
+     * Objekt später, ohne dass SETCONTENT aufgerufen wird, bleibt die alte Beschriftung stehen.
+     *
+     * @param pCompact true für die kompakte Speicherung
+     */
+    public void setCompactStorage(boolean pCompact) {
+        kompakt = pCompact;
+    }
+
+    /**
+     * Legt fest, wie viele Schritte mit "<" bzw. "<<" zurückgenommen werden können
+     * (Standard: 1000). Ältere Schritte werden vergessen, ebenso wenn sie zusammen mehr als
+     * etwa vier Millionen Elemente festhalten (z.B. eigene Befehle auf sehr langen Listen).
+     * Bei 0 entfällt der Verlauf. Wer einen ganzen Lauf zurückverfolgen möchte, zeichnet ihn
+     * auf und spielt ihn mit playTrace ab.
+     *
+     * @param pSteps Anzahl der Schritte
+     */
+    public void setHistorySize(final int pSteps) {
+        if (fenster == null) {
+            return;
+        }
+        SwingUtilities.invokeLater(new Runnable() {
+                public void run() {
+                    holeAuf();
+                    leereVerlauf();
+                    verlauf = new Object[Math.max(0, pSteps)];
+                }
+            });
+    }
+
+    /**
+     * Legt die Vergrößerungsstufe der Anzeige fest (Standard: 0). Bei 0 werden die Knoten mit
+     * Inhalt und Pfeilen gezeichnet, ab Stufe 1 wird jede Liste als Übersichtsstreifen gezeichnet,
+     * wobei jede Stufe die Breite eines Elements halbiert. Enthält eine Liste Zahlen, zeigt der
+     * Streifen deren Werte farbig an (blau = klein, rot = groß), sonst grau. Aktuelles Element
+     * und Markierung bleiben hervorgehoben. In der Anzeige geht das auch mit Strg + Mausrad.
+     *
+     * @param pLevel Stufe von 0 bis 24
+     */
+    public void setZoomLevel(final int pLevel) {
+        if (fenster == null) {
+            return;
+        }
+        SwingUtilities.invokeLater(new Runnable() {
+                public void run() {
+                    setzeZoom(pLevel, dp.getVisibleRect().x);
+                }
+            });
+    }
+
+    // EDT: Detailstufe wechseln; das Element an pAnkerX (Koordinate im DrawPanel) bleibt an seiner Stelle
+    private void setzeZoom(int pStufe, int pAnkerX) {
+        int stufe = Math.max(0, Math.min(MAX_ZOOMSTUFE, pStufe));
+        if (stufe == zoomStufe) {
+            return;
+        }
+        double element = Math.max(0, pAnkerX - 50) / pixelProElement;
+        int imFenster = pAnkerX - dp.getVisibleRect().x;
+        zoomStufe = stufe;
+        pixelProElement = 70.0 / (1 << stufe);
+        for (int i=0; i<panels.size(); i++) {
+            passeBreiteAn(panels.get(i));
+        }
+        layoutVeraltet = true;
+        anzeigeVeraltet = true;
+        zeigeAn();
+        if (dp.getParent() instanceof JViewport) {
+            // die neue Groesse sofort uebernehmen, damit die Position nicht begrenzt wird
+            fenster.validate();
+            JViewport sicht = (JViewport) dp.getParent();
+            int x = (int) Math.round(50 + element * pixelProElement) - imFenster;
+            x = Math.max(0, Math.min(x, dp.getWidth() - sicht.getWidth()));
+            sicht.setViewPosition(new Point(x, sicht.getViewPosition().y));
+        }
+        dp.repaint();
+    }
+
+    /**
+     * Schaltet das aktive Zeichnen ein bzw. aus (Standard: aus). Statt jede geänderte Stelle
+     * von Swing neu zeichnen zu lassen, bereitet der Swing-Thread dann nur noch im Takt der
+     * Animation ein Bild des sichtbaren Ausschnitts vor. Ein eigener Thread zeichnet es in einen
+     * Hintergrundpuffer (VolatileImage, wenn möglich auf der Grafikkarte) und zeigt es erst
+     * vollständig und im Takt der Bildwiederholrate an, so dass keine halben Bilder entstehen.
+     * Die Knoten werden dabei nur einmal vorgezeichnet und danach als fertige Bilder kopiert.
+     * Ohne Grafikkarte (z.B. unter Linux ohne Beschleunigung) wird in den Hauptspeicher
+     * gezeichnet. Ohne Fenster (Aufzeichnung) hat der Aufruf keine Wirkung.
+     *
+     * @param pActive true = aktives Zeichnen, false = Zeichnen durch Swing
+     */
+    public void setActiveRendering(final boolean pActive) {
+        if (fenster == null) {
+            return;
+        }
+        SwingUtilities.invokeLater(new Runnable() {
+                public void run() {
+                    schalteAktivesZeichnen(pActive);
+                }
+            });
+    }
+
+    // EDT: Zeichen-Thread starten bzw. beenden
+    private void schalteAktivesZeichnen(boolean pAktiv) {
+        AktivesZeichnen<ContentType> alt = aktivesZeichnen;
+        if (pAktiv == (alt != null)) {
+            return;
+        }
+        if (pAktiv) {
+            AktivesZeichnen<ContentType> neu = new AktivesZeichnen<ContentType>(this);
+            aktivesZeichnen = neu;
+            neu.starte();
+        }
+        else {
+            aktivesZeichnen = null;
+            alt.beende();
+        }
+        dp.repaint();
+    }
+
+    private boolean istVorspulen() {
+        return isAnimated && sliderWert == 100;
+    }
+
+    private int getSliderValue() {
+        return 100 - sliderWert;
+    }
+
+    private int getBestWindowWidth(Dimension pBildschirm) {
+        int prefWidth = gibMaxBreite() + 20;
+        int width = pBildschirm.width;
+        if (prefWidth > width) {
+            prefWidth = width;
+        }
+        if (prefWidth < 640) {
+            prefWidth = 640;
+        }
+        return prefWidth;    
+    }
+
+    private int gibMaxBreite() {
+        if (maxBreiteVeraltet) {
+            maxBreiteVeraltet = false;
+            maxBreite = 0;
+            for (int i=0; i<panels.size(); i++) {
+                maxBreite = Math.max(maxBreite, panels.get(i).gibBreite());
+            }
+        }
+        return maxBreite;
+    }
+
+    // EDT: neue Breite eines VPanels uebernehmen; liefert true, wenn sich die Breite geaendert hat
+    private boolean passeBreiteAn(VPanel<ContentType> vPan) {
+        int alt = vPan.gibBreite();
+        int neu = (int) Math.min(Integer.MAX_VALUE / 4, Math.ceil(vPan.gibAnzElem() * pixelProElement) + 150);
+        if (alt == neu) {
+            return false;
+        }
+        vPan.setzeBreite(neu);
+        if (neu >= maxBreite) {
+            maxBreite = neu;
+        }
+        else if (alt == maxBreite) {
+            maxBreiteVeraltet = true;
+        }
+        return true;
+    }
+
+    private int getBestWindowHeight(Dimension pBildschirm) {
+        int prefHeight = panels.size() * dpHeight + 60 + navigation.getHeight();
+        int height = pBildschirm.height;
+        if (prefHeight > height) {
+            prefHeight = height;
+        }
+        if (panels.size() == 0) {
+            prefHeight = 290;
+        }
+        return prefHeight;    
+    }
+
+    // Thread des Aufrufers: Befehl auf die Erfassung anwenden und als Ereignis veroeffentlichen.
+    // Gesperrt wird nur die Erfassung dieser Liste, so bleiben ihre Ereignisse in der Reihenfolge
+    // der Befehle; Threads, die verschiedene Listen bearbeiten, warten nicht aufeinander.
+    private void erfasseBefehl(ListenErfassung<ContentType> erf, Befehl pBefehl, String pText) {
+        Messwerte<ContentType> m = messwerte;
+        long beginn = m == null ? 0 : System.nanoTime();
+        erf.gibSperre().lock();
+        try {
+            erf.warteAufAbgleich();
+            // vom CONCAT eines anderen Threads geleert, der die Sperre noch nicht bekommen hat
+            leereNachConcat(erf);
+            // waehrend des Befehls wird die Originalliste stark referenziert
+            if (!erf.beginneBefehl()) {
+                return;
+            }
+            try {
+                Ereignis e;
+                if (pBefehl != null) {
+                    e = pBefehl.erfasse(erf, pText);
+                    if (e == null) { // waehrend der Schritte eines Abgleichs entfernt
+                        return;
+                    }
+                    // nach anderen Aenderungen der Inhalte stimmt der Stand fuer animate(List, String) nicht mehr
+                    if (e.strukturell && pBefehl != abgleich) {
+                        erf.vergissAbgleich();
+                    }
+                }
+                else { // unbekannter Befehl: nur den Text anzeigen
+                    e = erzeugeEreignis(erf, KEIN_BEFEHL, pText, -1, null, erf.gibAnzahl(), false);
+                }
+                // vor dem Veroeffentlichen, solange die Inhalte noch nicht beschriftet sind
+                if (bisHaltepunkt && trifftHaltepunkt(erf, pBefehl, e)) {
+                    bisHaltepunkt = false;
+                }
+                veroeffentliche(e);
+            }
+            finally {
+                erf.beendeBefehl();
+            }
+            erf.setzeProduzent(schrittTor.gibWartenden());
+        }
+        finally {
+            erf.gibSperre().unlock();
+        }
+
+        int opcode = pBefehl == null ? KEIN_BEFEHL : pBefehl.opcode;
+        if (opcode == BEFEHL_CONCAT) {
+            // erst jetzt, damit nie zwei Sperren zugleich gehalten werden
+            for (ListenErfassung<ContentType> andere : erfassungen.values()) {
+                if (!andere.istGeleert()) {
+                    continue;
+                }
+                andere.gibSperre().lock();
+                try {
+                    andere.warteAufAbgleich();
+                    leereNachConcat(andere);
+                }
+                finally {
+                    andere.gibSperre().unlock();
+                }
+            }
+        }
+        if (m != null) {
+            long erfasst = System.nanoTime();
+            m.gibBefehl(m.erfassen, opcode).erfasse(erfasst - beginn);
+            beginn = erfasst;
+        }
+        if (queuePolicy == QueuePolicy.BLOCK && aufzeichnung == null) {
+            warte();
+        }
+        if (m != null) {
+            long dauer = System.nanoTime() - beginn;
+            m.gibBefehl(m.warten, opcode).erfasse(dauer);
+            erf.gibMessung().warten.erfasse(dauer);
+        }
+    }
+
+    // unter der Sperre der Erfassung: eine von CONCAT vorgemerkte Liste leeren und das wie ein
+    // vollstaendiges Neueinlesen ohne Inhalte anzeigen. Das uebernimmt der Thread des CONCAT nach
+    // Freigabe seiner Sperre oder, falls er schneller ist, der naechste Befehl dieser Liste.
+    private void leereNachConcat(ListenErfassung<ContentType> erf) {
+        if (!erf.nimmGeleert() || erf.gibAnzahl() == 0 || erf.gibReferenz().get() == null) {
+            return;
+        }
+        int anzahlVorher = erf.gibAnzahl();
+        erf.leeren();
+        veroeffentliche(new Ereignis(ART_BEFEHL, erf, gibNeuEinlesen().opcode, null, null, 0, new Object[0],
+            erf.gibPosition(), erf.gibMark(), anzahlVorher, null, true, null));
+    }
+
+    // Thread des Aufrufers, unter der Sperre der Erfassung: Zwischenschritt eines Befehls (s.
+    // AbgleichBefehl) wie einen eigenen Befehl veroeffentlichen und abwarten. Gewartet wird wie in
+    // erfasseBefehl ohne die Sperre, sonst haengen addList und removeList der anderen Threads;
+    // andere Befehle dieser Liste warten bis zum Ende des Abgleichs (s. warteAufAbgleich).
+    // Liefert false, wenn die Liste waehrenddessen entfernt wurde.
+    private boolean veroeffentlicheSchritt(ListenErfassung<ContentType> erf, Ereignis e) {
+        if (bisHaltepunkt && trifftHaltepunkt(erf, null, e)) {
+            bisHaltepunkt = false;
+        }
+        veroeffentliche(e);
+        erf.setzeProduzent(schrittTor.gibWartenden());
+        Messwerte<ContentType> m = messwerte;
+        long beginn = m == null ? 0 : System.nanoTime();
+        if (queuePolicy == QueuePolicy.BLOCK && aufzeichnung == null) {
+            erf.setzeAbgleichOffen(true);
+            erf.gibSperre().unlock();
+            try {
+                warte();
+            }
+            finally {
+                erf.gibSperre().lock();
+            }
+        }
+        if (m != null) {
+            long dauer = System.nanoTime() - beginn;
+            m.gibBefehl(m.warten, e.befehl).erfasse(dauer);
+            erf.gibMessung().warten.erfasse(dauer);
+        }
+        return erf.gibReferenz().get() != null;
+    }
+
+    // Thread des Aufrufers, unter der Sperre der Erfassung
+    private boolean trifftHaltepunkt(ListenErfassung<ContentType> erf, Befehl pBefehl, Ereignis e) {
+        ArrayList<Breakpoint<ContentType>> alle = haltepunkte;
+        if (alle.isEmpty()) {
+            return false;
+        }
+        String name = pBefehl == null ? null : pBefehl.name;
+        if (name == null && e.befehl != KEIN_BEFEHL) { // animate(List, String)
+            name = befehle.get(e.befehl).name;
+        }
+        boolean neueInhalte = e.befehl == Command.SETCONTENT.ordinal() || e.befehl == Command.APPEND.ordinal()
+            || e.befehl == Command.INSERT.ordinal() || e.befehl == Command.CONCAT.ordinal();
+        for (Breakpoint<ContentType> b : alle) {
+            if (b.trifft(name, erf.gibRefNamenListe(), e.text, neueInhalte ? e.inhalte : null, erf.gibOriginal())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Ereignis erzeugeEreignis(ListenErfassung<ContentType> erf, int pBefehl, String pText, int pIndex,
+                                     Object[] pInhalte, int pAnzahlVorher, boolean pStrukturell) {
+        return new Ereignis(ART_BEFEHL, erf, pBefehl, null, pText, pIndex, pInhalte, erf.gibPosition(),
+            erf.gibMark(), pAnzahlVorher, null, pStrukturell, null);
+    }
+
+    // wie registriere, jedoch nicht ueber einen Namen erreichbar; in einer Aufzeichnung wie ein eigener Befehl
+    private synchronized EigenerBefehl gibNeuEinlesen() {
+        if (neuEinlesen == null) {
+            ArrayList<Befehl> neueBefehle = new ArrayList<Befehl>(befehle);
+            neuEinlesen = new EigenerBefehl(neueBefehle.size(), "(Abgleich)", null);
+            neueBefehle.add(neuEinlesen);
+            befehle = neueBefehle;
+        }
+        return neuEinlesen;
+    }
+
+    private synchronized VerschiebeBefehl gibVerschieben() {
+        if (verschieben == null) {
+            ArrayList<Befehl> neueBefehle = new ArrayList<Befehl>(befehle);
+            verschieben = new VerschiebeBefehl(neueBefehle.size());
+            neueBefehle.add(verschieben);
+            befehle = neueBefehle;
+        }
+        return verschieben;
+    }
+
+    // Wiedergabe: eigener Befehl aus einer Aufzeichnung, nur das Verschieben braucht ein eigenes wendeAn
+    Befehl erzeugeGelesenenBefehl(int pOpcode, String pName) {
+        if (VERSCHIEBEN.equals(pName)) {
+            return new VerschiebeBefehl(pOpcode);
+        }
+        return new EigenerBefehl(pOpcode, pName, null);
+    }
+
+    synchronized void registriere(Befehl pBefehl) {
+        ArrayList<Befehl> neueBefehle = new ArrayList<Befehl>(befehle);
+        neueBefehle.add(pBefehl);
+        HashMap<String, Befehl> neueNamen = new HashMap<String, Befehl>(befehlNachName);
+        neueNamen.put(pBefehl.name, pBefehl);
+        befehle = neueBefehle;
+        befehlNachName = neueNamen;
+    }
+
+    // die Reihenfolge muss der von Command entsprechen (Opcode = ordinal())
+    private void registriereStandardBefehle() {
+        befehle = new ArrayList<Befehl>();
+        befehlNachName = new HashMap<String, Befehl>();
+        registriere(new Befehl(Command.TOFIRST) {
+                public Ereignis erfasse(ListenErfassung<ContentType> erf, String pText) {
+                    erf.toFirst();
+                    return erzeugeEreignis(erf, KEIN_BEFEHL, pText, -1, null, erf.gibAnzahl(), false);
+                }
+            });
+        registriere(new Befehl(Command.NEXT) {
+                public Ereignis erfasse(ListenErfassung<ContentType> erf, String pText) {
+                    erf.next();
+                    return erzeugeEreignis(erf, KEIN_BEFEHL, pText, -1, null, erf.gibAnzahl(), false);
+                }
+            });
+        registriere(new Befehl(Command.TOLAST) {
+                public Ereignis erfasse(ListenErfassung<ContentType> erf, String pText) {
+                    erf.toLast();
+                    return erzeugeEreignis(erf, KEIN_BEFEHL, pText, -1, null, erf.gibAnzahl(), false);
+                }
+            });
+        registriere(new Befehl(Command.GETCONTENT) {
+                public Ereignis erfasse(ListenErfassung<ContentType> erf, String pText) {
+                    int anzeige = erf.gibPosition() != -1 ? opcode : KEIN_BEFEHL;
+                    return erzeugeEreignis(erf, anzeige, pText, -1, null, erf.gibAnzahl(), false);
+                }
+            });
+        registriere(new Befehl(Command.SETCONTENT) {
+                public Ereignis erfasse(ListenErfassung<ContentType> erf, String pText) {
+                    int positionVorher = erf.gibPosition();
+                    Object neu = erf.setContent();
+                    if (neu == null) {
+                        return erzeugeEreignis(erf, KEIN_BEFEHL, pText, -1, null, erf.gibAnzahl(), false);
+                    }
+                    return erzeugeEreignis(erf, opcode, pText, positionVorher, new Object[] { neu },
+                        erf.gibAnzahl(), true);
+                }
+
+                public void wendeAn(VPanel<ContentType> vPan, Ereignis e) {
+                    vPan.gibSpiegel().setze(e.index, e.inhalte[0]);
+                    verschiebe(e.index, e.index + 1, 0);
+                }
+
+                public void merke(VPanel<ContentType> vPan, Ereignis e, Rueckschritt r) {
+                    r.inhalt = vPan.gibSpiegel().gibInhalt(e.index);
+                    r.gewicht = 1;
+                }
+
+                public void nimmZurueck(VPanel<ContentType> vPan, Ereignis e, Rueckschritt r) {
+                    vPan.gibSpiegel().setze(e.index, r.inhalt);
+                }
+            });
+        registriere(new Befehl(Command.APPEND) {
+                public Ereignis erfasse(ListenErfassung<ContentType> erf, String pText) {
+                    int anzahlVorher = erf.gibAnzahl();
+                    Object neu = erf.append();
+                    if (neu == null) {
+                        return erzeugeEreignis(erf, KEIN_BEFEHL, pText, -1, null, anzahlVorher, false);
+                    }
+                    return erzeugeEreignis(erf, opcode, pText, anzahlVorher, new Object[] { neu }, anzahlVorher, true);
+                }
+
+                public void wendeAn(VPanel<ContentType> vPan, Ereignis e) {
+                    vPan.gibSpiegel().haengeAn(e.inhalte[0]);
+                    verschiebe(e.index, e.index + 2, 70);
+                }
+
+                public void nimmZurueck(VPanel<ContentType> vPan, Ereignis e, Rueckschritt r) {
+                    vPan.gibSpiegel().entferneLetztes();
+                }
+            });
+        registriere(new Befehl(Command.INSERT) {
+                public Ereignis erfasse(ListenErfassung<ContentType> erf, String pText) {
+                    int anzahlVorher = erf.gibAnzahl();
+                    int positionVorher = erf.gibPosition();
+                    Object neu = erf.insert();
+                    if (neu == null) {
+                        return erzeugeEreignis(erf, KEIN_BEFEHL, pText, -1, null, anzahlVorher, false);
+                    }
+                    int index = positionVorher == -1 ? 0 : positionVorher;
+                    return erzeugeEreignis(erf, opcode, pText, index, new Object[] { neu }, anzahlVorher, true);
+                }
+
+                public void wendeAn(VPanel<ContentType> vPan, Ereignis e) {
+                    vPan.gibSpiegel().fuegeEin(e.index, e.inhalte[0]);
+                    verschiebe(e.index + 1, vPan.gibAnzElem() + 1, -70);
+                }
+
+                public void nimmZurueck(VPanel<ContentType> vPan, Ereignis e, Rueckschritt r) {
+                    vPan.gibSpiegel().entferne(e.index);
+                }
+            });
+        registriere(new Befehl(Command.CONCAT) {
+                public Ereignis erfasse(ListenErfassung<ContentType> erf, String pText) {
+                    int anzahlVorher = erf.gibAnzahl();
+                    // nur der angehaengte Teil wird kopiert
+                    Object[] inhalte = erf.concat();
+
+                    // nach einem CONCAT kann eine andere Liste nun leer sein, was überprüft werden muss;
+                    // geleert wird erst nach Freigabe dieser Sperre (s. leereNachConcat), hier nur vorgemerkt
+                    for (ListenErfassung<ContentType> andere : erfassungen.values()) {
+                        List<ContentType> original = andere.gibOriginal();
+                        if (andere != erf && original != null && original.isEmpty() && andere.gibAnzahl() != 0) {
+                            andere.merkeGeleert();
+                        }
+                    }
+                    return new Ereignis(ART_BEFEHL, erf, opcode, null, pText, anzahlVorher, inhalte,
+                        erf.gibPosition(), erf.gibMark(), anzahlVorher, null, true, null);
+                }
+
+                public void wendeAn(VPanel<ContentType> vPan, Ereignis e) {
+                    vPan.setzeAnzElemAlt(e.anzahlVorher);
+                    vPan.gibSpiegel().haengeAn(e.inhalte);
+                    verschiebe(e.anzahlVorher, vPan.gibAnzElem() + 1, 70);
+                }
+
+                public void nimmZurueck(VPanel<ContentType> vPan, Ereignis e, Rueckschritt r) {
+                    for (int i=0; i<e.inhalte.length; i++) {
+                        vPan.gibSpiegel().entferneLetztes();
+                    }
+                }
+            });
+        registriere(new Befehl(Command.REMOVE) {
+                public Ereignis erfasse(ListenErfassung<ContentType> erf, String pText) {
+                    int anzahlVorher = erf.gibAnzahl();
+                    int positionVorher = erf.gibPosition();
+                    if (!erf.remove()) {
+                        return erzeugeEreignis(erf, KEIN_BEFEHL, pText, -1, null, anzahlVorher, false);
+                    }
+                    return erzeugeEreignis(erf, opcode, pText, positionVorher, null, anzahlVorher, true);
+                }
+
+                public void wendeAn(VPanel<ContentType> vPan, Ereignis e) {
+                    vPan.gibSpiegel().entferne(e.index);
+                    verschiebe(e.index, vPan.gibAnzElem() + 1, 70);
+                }
+
+                public void merke(VPanel<ContentType> vPan, Ereignis e, Rueckschritt r) {
+                    r.inhalt = vPan.gibSpiegel().gibInhalt(e.index);
+                    r.gewicht = 1;
+                }
+
+                public void nimmZurueck(VPanel<ContentType> vPan, Ereignis e, Rueckschritt r) {
+                    vPan.gibSpiegel().fuegeEin(e.index, r.inhalt);
+                }
+            });
+        registriere(new Befehl(Command.MARK) {
+                public Ereignis erfasse(ListenErfassung<ContentType> erf, String pText) {
+                    int anzeige = KEIN_BEFEHL;
+                    if (erf.gibPosition() != -1) {
+                        erf.setzeMark(erf.gibPosition());
+                        anzeige = opcode;
+                    }
+                    return erzeugeEreignis(erf, anzeige, pText, -1, null, erf.gibAnzahl(), false);
+                }
+            });
+        registriere(new Befehl(Command.UNMARK) {
+                public Ereignis erfasse(ListenErfassung<ContentType> erf, String pText) {
+                    erf.setzeMark(-1);
+                    return erzeugeEreignis(erf, opcode, pText, -1, null, erf.gibAnzahl(), false);
+                }
+            });
+    }
+
+    // EDT: Bereich [pAb, pBis) gleitet beim naechsten Uebergang um pVersatz Pixel versetzt herein
+    private void verschiebe(int pAb, int pBis, int pVersatz) {
+        verschobenAb = pAb;
+        verschobenBis = pBis;
+        versatz = pVersatz;
+    }
+
+    // Thread des Aufrufers: Inhalte durch ihre Beschriftung ersetzen, Zahlen bleiben erhalten.
+    // Das Ereignis ist noch nicht veroeffentlicht, sein Feld darf daher noch geaendert werden.
+    void beschrifte(Object[] pInhalte) {
+        for (int i=0; i<pInhalte.length; i++) {
+            if (pInhalte[i] != null && !(pInhalte[i] instanceof Integer)) {
+                pInhalte[i] = pInhalte[i].toString();
+            }
+        }
+    }
+
+    // EDT: Zeilen einer Beschriftung, gleiche Texte teilen sich dabei ein Array
+    private String[] zerlegeBeschriftung(String pText) {
+        int fach = pText.hashCode() & (beschriftungText.length - 1);
+        if (!pText.equals(beschriftungText[fach])) {
+            beschriftungText[fach] = pText;
+            beschriftungZeilen[fach] = pText.split(":");
+        }
+        return beschriftungZeilen[fach];
+    }
+
+    // EDT: Zeilen der Beschriftung einer Zahl
+    private String[] gibZahlBeschriftung(int pZahl) {
+        int fach = pZahl & (zahlSchluessel.length - 1);
+        if (zahlZeilen[fach] == null || zahlSchluessel[fach] != pZahl) {
+            zahlSchluessel[fach] = pZahl;
+            zahlZeilen[fach] = new String[] { Integer.toString(pZahl) };
+        }
+        return zahlZeilen[fach];
+    }
+
+    void veroeffentliche(Ereignis pEreignis) {
+        if (aufzeichnung != null) {
+            aufzeichnung.schreibe(pEreignis);
+            return;
+        }
+        if (kompakt && pEreignis.inhalte != null) {
+            beschrifte(pEreignis.inhalte);
+        }
+        int stand;
+        try {
+            stand = warteschlange.einreihen(pEreignis, queuePolicy == QueuePolicy.DROP_TO_LATEST);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        Messwerte<ContentType> m = messwerte;
+        if (m != null) {
+            m.merkeTiefe(stand);
+        }
+        // beim Vorspulen uebernimmt der Bildtakt; nur eine halb volle Warteschlange wird vorher geleert
+        if (istVorspulen() && stand < entnommen.length / 2) {
+            return;
+        }
+        // hoechstens ein ausstehender Verarbeitungsauftrag auf dem EDT
+        if (verarbeitungGeplant.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(verarbeiter);
+        }
+    }
+
+    void warte() {
+        try {
+            if (bisHaltepunkt) {
+                return;
+            }
+            if (istVorspulen()) {
+                begrenzeSchritteProBild();
+            }
+            else if (isAnimated) {            
+                warteBisNaechsterSchritt(getSliderValue()*20*1000000L);
+            }
+            else {
+                schrittTor.warte();
+            }
+        }
+        catch (InterruptedException e) {
+            // der Aufrufer soll die Unterbrechung selbst bemerken koennen
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Pause bis zu einem festen Zeitpunkt statt Thread.sleep, damit die Rechenzeit
+    // zwischen zwei Befehlen die Abstaende nicht verlaengert
+    // mehrere Aufrufer teilen sich den Takt: jeder reserviert sich seinen eigenen Zeitpunkt
+    private void warteBisNaechsterSchritt(long pPause) {
+        long jetzt = System.nanoTime();
+        long vorher;
+        long schritt;
+        do {
+            vorher = naechsterSchritt.get();
+            // z.B. nach einer Pause im Einzelschritt-Modus neu beginnen
+            schritt = (vorher < jetzt - pPause ? jetzt : vorher) + pPause;
+        } while (!naechsterSchritt.compareAndSet(vorher, schritt));
+        long rest;
+        while ((rest = schritt - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(rest);
+        }
+    }
+
+    // beim Vorspulen: nach schritteProBild Befehlen bis zum naechsten Bild warten
+    private void begrenzeSchritteProBild() {
+        int grenze = schritteProBild;
+        if (grenze == 0) {
+            return;
+        }
+        if (schritteImBild.incrementAndGet() < grenze) {
+            return;
+        }
+        // an der Bildgrenze warten alle Aufrufer gemeinsam auf das naechste Bild
+        bildTakt.lock();
+        try {
+            if (schritteImBild.get() < grenze) { // ein anderer Thread hat bereits gewartet
+                return;
+            }
+            long jetzt = System.nanoTime();
+            if (naechstesBild > jetzt) {
+                LockSupport.parkNanos(naechstesBild - jetzt);
+            }
+            naechstesBild = Math.max(naechstesBild, jetzt) + bildPeriodeNanos;
+            schritteImBild.set(0);
+        }
+        finally {
+            bildTakt.unlock();
+        }
+    }
+
+    // EDT: alle anstehenden Ereignisse in das Anzeigemodell uebernehmen; angezeigt wird sofort
+    // bzw. beim Vorspulen erst mit dem naechsten Bild
+    private void verarbeiteWarteschlange() {
+        verarbeitungGeplant.set(false);
+        // Haltepunkt erreicht (bzw. anderer Knopf): der Befehl am Haltepunkt wird wieder gezeichnet
+        if (zeichnenAusgesetzt && !bisHaltepunkt) {
+            zeichneWieder();
+        }
+        if (imRueckblick()) {
+            return;
+        }
+        int anz = warteschlange.entnehmeAlle(entnommen);
+        Messwerte<ContentType> m = messwerte;
+        for (int i=0; i<anz; i++) {
+            // Object[], da sich Ereignis als innere Klasse nicht als Array anlegen laesst
+            @SuppressWarnings("unchecked")
+            Ereignis e = (Ereignis) entnommen[i];
+            entnommen[i] = null;
+            if (m == null) {
+                uebernimm(e);
+                continue;
+            }
+            long beginn = System.nanoTime();
+            uebernimm(e);
+            long dauer = System.nanoTime() - beginn;
+            m.gibBefehl(m.anwenden, e.art == ART_BEFEHL ? e.befehl : KEIN_BEFEHL).erfasse(dauer);
+            if (e.liste != null) {
+                e.liste.gibMessung().anwenden.erfasse(dauer);
+            }
+        }
+        if (anz > 0) {
+            anzeigeVeraltet = true;
+            letzteUebernahme = System.nanoTime();
+            // nur das letzte der gemeinsam uebernommenen Ereignisse bekommt ein eigenes Bild
+            if (m != null) {
+                m.uebersprungen.addAndGet(anz - 1);
+            }
+        }
+        if (!istVorspulen()) {
+            zeigeAn();
+        }
+    }
+
+    // EDT, 60 mal pro Sekunde: Vorspul-Bilder anzeigen und laufende Uebergaenge neu zeichnen
+    private void verarbeiteTakt() {
+        long jetzt = System.nanoTime();
+        if (rueckwaerts || (isAnimated && imRueckblick())) {
+            spieleVerlauf(jetzt);
+        }
+        if (istVorspulen()) {
+            if (jetzt - letzteVorspulAnzeige >= bildPeriodeNanos) {
+                letzteVorspulAnzeige = jetzt;
+                verarbeiteWarteschlange();
+                zeigeAn();
+            }
+        }
+        else {
+            verarbeiteWarteschlange();
+        }
+        // ">|" ohne erreichten Haltepunkt: steht das Programm still, den erreichten Stand zeigen
+        if (zeichnenAusgesetzt && anzeigeVeraltet && jetzt - letzteUebernahme > STILLSTAND_NANOS) {
+            zeichnenAusgesetzt = false;
+            zeichneAlles();
+            zeichnenAusgesetzt = true;
+        }
+        for (int i=imUebergang.size()-1; i>=0; i--) {
+            VPanel<ContentType> vPan = imUebergang.get(i);
+            // nach dem Ende noch einmal zeichnen, damit der Endzustand sicher angezeigt wird
+            if (!vPan.uebergangLaeuft(jetzt)) {
+                imUebergang.remove(i);
+                vPan.setzeImUebergang(false);
+            }
+            beschaedige(vPan, vPan.gibBefehlsBereich());
+        }
+        ArrayList<VPanel<ContentType>> ausgeblendet = null;
+        for (int i=imAusblenden.size()-1; i>=0; i--) {
+            VPanel<ContentType> vPan = imAusblenden.get(i);
+            if (jetzt >= vPan.gibAusblendEnde()) {
+                imAusblenden.remove(i);
+                if (ausgeblendet == null) {
+                    ausgeblendet = new ArrayList<VPanel<ContentType>>();
+                }
+                ausgeblendet.add(vPan);
+            }
+            else {
+                beschaedigeAlles(vPan);
+            }
+        }
+        if (ausgeblendet != null) {
+            entferneZeilen(ausgeblendet);
+            layoutVeraltet = true;
+            anzeigeVeraltet = true;
+        }
+        if (anzeigeVeraltet && !istVorspulen()) {
+            zeigeAn();
+        }
+        zeichneBeschaedigte();
+        AktivesZeichnen<ContentType> aktiv = aktivesZeichnen;
+        if (aktiv != null) {
+            aktiv.zeichneAuf();
+        }
+        if (schieber != null) {
+            wiedergabe.zeigeStand();
+        }
+    }
+
+    private long gibUebergangsDauer() {
+        if (istVorspulen() || !zeichnet()) {
+            return 0;
+        }
+        if (isAnimated) {
+            return Math.min(uebergangNanos, getSliderValue()*20*1000000L);
+        }
+        return uebergangNanos;
+    }
+
+    // EDT: Layout nur bei geaenderten Groessen, sonst nur die beschaedigten Bereiche neu zeichnen
+    private void zeigeAn() {
+        if (anzeigeVeraltet && !zeichnenAusgesetzt) {
+            anzeigeVeraltet = false;
+            if (layoutVeraltet) {
+                layoutVeraltet = false;
+                if (fenster != null) {
+                    Dimension bildschirm = Toolkit.getDefaultToolkit().getScreenSize();
+                    int breite = getBestWindowWidth(bildschirm);
+                    int hoehe = getBestWindowHeight(bildschirm);
+                    if (breite != fenster.getWidth() || hoehe != fenster.getHeight()) {
+                        fenster.setSize(breite, hoehe);
+                    }
+                }
+                // nur die Groesse des einen DrawPanels aendert sich, die VPanels sind keine Bauteile
+                dp.setPreferredSize(new Dimension(gibMaxBreite(), panels.size() * dpHeight));
+                dp.revalidate();
+            }
+            zeichneBeschaedigte();
+        }
+    }
+
+    private void zeichneBeschaedigte() {
+        for (int i=0; i<beschaedigt.size(); i++) {
+            VPanel<ContentType> vPan = beschaedigt.get(i);
+            Rectangle schaden = vPan.gibSchaden();
+            dp.repaint(schaden.x, vPan.gibZeile() * dpHeight + schaden.y, schaden.width, schaden.height);
+            schaden.setBounds(0, 0, 0, 0);
+        }
+        beschaedigt.clear();
+    }
+
+    // EDT: ">|" beginnen; der Verlauf wird ohne Zeichnen aufgeholt
+    private void laufeBisHaltepunkt() {
+        play.setForeground(Color.BLACK);
+        rewind.setForeground(Color.BLACK);
+        pause.setForeground(Color.BLACK);
+        bisHalt.setForeground(Color.BLUE);
+        isAnimated = false;
+        rueckwaerts = false;
+        zeichnenAusgesetzt = true;
+        letzteUebernahme = System.nanoTime();
+        holeAuf();
+        bisHaltepunkt = true;
+        schrittTor.weckeAlle();
+    }
+
+    // EDT: nach ">|" wieder wie gewohnt zeichnen
+    private void zeichneWieder() {
+        zeichnenAusgesetzt = false;
+        if (!isAnimated) {
+            pause.setForeground(Color.BLUE);
+        }
+        bisHalt.setForeground(Color.BLACK);
+        zeichneAlles();
+    }
+
+    // EDT: Groessen und alle Zeilen neu, da waehrend ">|" keine Schadensbereiche gesammelt werden
+    private void zeichneAlles() {
+        layoutVeraltet = true;
+        anzeigeVeraltet = true;
+        zeigeAn();
+        dp.repaint();
+    }
+
+    // ohne Fenster bzw. waehrend ">|" wird das Modell gefuehrt, aber nicht gezeichnet
+    private boolean zeichnet() {
+        return (fenster != null || ohneFenster) && !zeichnenAusgesetzt;
+    }
+
+    // ohne Fenster fuehrt die Aufzeichnung das Modell nur fuer ihre Schluesselbilder mit
+    private void beschaedige(VPanel<ContentType> vPan, Rectangle pBereich) {
+        if (pBereich.isEmpty() || !zeichnet()) {
+            return;
+        }
+        Rectangle schaden = vPan.gibSchaden();
+        if (schaden.isEmpty()) {
+            schaden.setBounds(pBereich);
+            beschaedigt.add(vPan);
+        }
+        else {
+            schaden.add(pBereich);
+        }
+    }
+
+    private void beschaedigeAlles(VPanel<ContentType> vPan) {
+        if (!zeichnet()) {
+            return;
+        }
+        vPan.gibBefehlsBereich().setBounds(0, 0, Math.max(dp.getWidth(), vPan.gibBreite()), dpHeight);
+        beschaedige(vPan, vPan.gibBefehlsBereich());
+    }
+
+    // Knoten pVon bis pBis (beide inkl., in beliebiger Reihenfolge) samt Rahmen, Zeigern und Pfeil
+    private void erweitereUmKnoten(VPanel<ContentType> vPan, Rectangle pBereich, int pVon, int pBis) {
+        int links = vPan.gibX(Math.max(0, Math.min(pVon, pBis)), 1f) - 7;
+        int rechts = vPan.gibX(Math.max(pVon, pBis), 1f) + 67;
+        erweitere(pBereich, links, startYCoord-17, rechts, startYCoord+63);
+    }
+
+    private void erweitere(Rectangle pBereich, int pLinks, int pOben, int pRechts, int pUnten) {
+        if (pBereich.isEmpty()) {
+            pBereich.setBounds(pLinks, pOben, pRechts - pLinks, pUnten - pOben);
+        }
+        else {
+            pBereich.add(pLinks, pOben);
+            pBereich.add(pRechts, pUnten);
+        }
+    }
+
+    // EDT: Zeile fuer ">" auswaehlen (s. StepMode.SELECTED), null hebt die Auswahl auf
+    private void waehleAus(VPanel<ContentType> vPan) {
+        VPanel<ContentType> vorher = ausgewaehlt;
+        ausgewaehlt = vPan;
+        if (vorher != null) {
+            dp.repaint(0, vorher.gibZeile() * dpHeight, dp.getWidth(), dpHeight);
+        }
+        if (vPan != null) {
+            dp.repaint(0, vPan.gibZeile() * dpHeight, dp.getWidth(), dpHeight);
+        }
+    }
+
+    private void entferneZeile(VPanel<ContentType> vPan) {
+        int zeile = vPan.gibZeile();
+        panels.remove(zeile);
+        for (int i=zeile; i<panels.size(); i++) {
+            panels.get(i).setzeZeile(i);
+        }
+        if (vPan.gibBreite() == maxBreite) {
+            maxBreiteVeraltet = true;
+        }
+        if (aktiveVPan == vPan) {
+            aktiveVPan = null;
+        }
+        if (ausgewaehlt == vPan) {
+            ausgewaehlt = null;
+        }
+        // die folgenden Zeilen ruecken nach oben
+        if (zeichnet()) {
+            dp.repaint(0, zeile * dpHeight, dp.getWidth(), (panels.size() + 1 - zeile) * dpHeight);
+        }
+    }
+
+    // EDT: mehrere Zeilen in einem Durchgang entfernen und die uebrigen nachruecken; O(Anzahl Zeilen)
+    private void entferneZeilen(ArrayList<VPanel<ContentType>> pWeg) {
+        int alteAnzahl = panels.size();
+        int ersteZeile = alteAnzahl;
+        for (VPanel<ContentType> vPan : pWeg) {
+            ersteZeile = Math.min(ersteZeile, vPan.gibZeile());
+            vPan.setzeZeile(-1);
+            if (vPan.gibBreite() == maxBreite) {
+                maxBreiteVeraltet = true;
+            }
+            if (aktiveVPan == vPan) {
+                aktiveVPan = null;
+            }
+        }
+        int j = ersteZeile;
+        for (int i=ersteZeile; i<alteAnzahl; i++) {
+            VPanel<ContentType> vPan = panels.get(i);
+            if (vPan.gibZeile() != -1) {
+                vPan.setzeZeile(j);
+                panels.set(j++, vPan);
+            }
+        }
+        panels.subList(j, alteAnzahl).clear();
+        if (zeichnet()) {
+            dp.repaint(0, ersteZeile * dpHeight, dp.getWidth(), (alteAnzahl - ersteZeile) * dpHeight);
+        }
+    }
+
+    // EDT: Ereignis anwenden und fuer "<" im Verlauf ablegen
+    private void uebernimm(Ereignis e) {
+        Rueckschritt r = verlauf.length > 0 ? merkeRueckschritt(e) : null;
+        wendeAn(e);
+        if (r != null) {
+            if (e.art == ART_ADDLIST) {
+                r.vPan = e.liste.gibVPanel();
+            }
+            speichere(r);
+        }
+    }
+
+    // EDT, vor wendeAn: alles festhalten, was das Ereignis im Anzeigemodell ueberschreibt
+    private Rueckschritt merkeRueckschritt(Ereignis e) {
+        if (e.art == ART_ZUSTAND) {
+            return null; // nach einem Sprung beginnt der Verlauf neu
+        }
+        @SuppressWarnings("unchecked")
+        Rueckschritt r = new Rueckschritt(e, aktBefehl, (VPanel<ContentType>) aktiveVPan);
+        if (e.art == ART_REMOVELIST || e.art == ART_VERWAIST) {
+            Object[] listen = e.art == ART_REMOVELIST ? new Object[] { e.liste } : e.geleerte;
+            r.zeilenPanels = new ArrayList<VPanel<ContentType>>();
+            for (Object o : listen) {
+                @SuppressWarnings("unchecked")
+                VPanel<ContentType> vPan = ((ListenErfassung<ContentType>) o).gibVPanel();
+                if (istAngezeigt(vPan)) {
+                    r.zeilenPanels.add(vPan);
+                }
+            }
+            // aufsteigend wieder einfuegen, dann stimmen die alten Zeilennummern
+            Collections.sort(r.zeilenPanels, new Comparator<VPanel<ContentType>>() {
+                    public int compare(VPanel<ContentType> a, VPanel<ContentType> b) {
+                        return Integer.compare(a.gibZeile(), b.gibZeile());
+                    }
+                });
+            r.zeilen = new int[r.zeilenPanels.size()];
+            for (int i=0; i<r.zeilen.length; i++) {
+                r.zeilen[i] = r.zeilenPanels.get(i).gibZeile();
+            }
+        }
+        else if (e.art != ART_ADDLIST) {
+            VPanel<ContentType> vPan = e.liste.gibVPanel();
+            r.vPan = vPan;
+            r.position = vPan.gibListPosition();
+            r.mark = vPan.gibMark();
+            r.text = vPan.gibText();
+            r.hervorhebung = vPan.gibHervorhebung();
+            r.anzElemAlt = vPan.gibAnzElemAlt();
+            if (e.art == ART_BEFEHL && e.befehl != KEIN_BEFEHL) {
+                befehle.get(e.befehl).merke(vPan, e, r);
+            }
+        }
+        return r;
+    }
+
+    private void speichere(Rueckschritt r) {
+        if (verlaufAnzahl == verlauf.length) {
+            vergissAeltesten();
+        }
+        verlauf[(verlaufKopf + verlaufAnzahl) % verlauf.length] = r;
+        verlaufAnzahl++;
+        verlaufPosition++;
+        verlaufInhalte += r.gewicht;
+        while (verlaufInhalte > VERLAUF_INHALTE && verlaufAnzahl > 1) {
+            vergissAeltesten();
+        }
+    }
+
+    // verlauf ist ein Object[]: Rueckschritt laesst sich als innere Klasse nicht als Array anlegen
+    @SuppressWarnings("unchecked")
+    private Rueckschritt gibRueckschritt(int pIndex) {
+        return (Rueckschritt) verlauf[pIndex % verlauf.length];
+    }
+
+    private void vergissAeltesten() {
+        verlaufInhalte -= gibRueckschritt(verlaufKopf).gewicht;
+        verlauf[verlaufKopf] = null;
+        verlaufKopf = (verlaufKopf + 1) % verlauf.length;
+        verlaufAnzahl--;
+        verlaufPosition--;
+    }
+
+    private void leereVerlauf() {
+        Arrays.fill(verlauf, null);
+        verlaufKopf = 0;
+        verlaufAnzahl = 0;
+        verlaufPosition = 0;
+        verlaufInhalte = 0;
+        rueckwaerts = false;
+    }
+
+    // true, solange zurueckgenommene Schritte noch nicht wieder angezeigt werden
+    private boolean imRueckblick() {
+        return verlaufPosition < verlaufAnzahl;
+    }
+
+    // EDT: den zuletzt angezeigten Schritt zuruecknehmen; false am Anfang des Verlaufs
+    private boolean geheZurueck() {
+        if (verlaufPosition == 0) {
+            return false;
+        }
+        verlaufPosition--;
+        nimmZurueck(gibRueckschritt(verlaufKopf + verlaufPosition));
+        anzeigeVeraltet = true;
+        zeigeAn();
+        return true;
+    }
+
+    // EDT: den naechsten zurueckgenommenen Schritt erneut anwenden, ohne den Aufrufer weiterlaufen zu lassen
+    private void wiederhole() {
+        Rueckschritt r = gibRueckschritt(verlaufKopf + verlaufPosition);
+        verlaufPosition++;
+        if (r.ereignis.art == ART_ADDLIST) {
+            // dasselbe VPanel, damit die uebrigen Eintraege des Verlaufs darauf verweisen
+            fuegeZeileEin(r.vPan, panels.size());
+        }
+        else {
+            wendeAn(r.ereignis);
+        }
+        anzeigeVeraltet = true;
+        if (!istVorspulen()) {
+            zeigeAn();
+        }
+    }
+
+    void holeAuf() {
+        while (imRueckblick()) {
+            wiederhole();
+        }
+    }
+
+    // EDT, mit jedem Takt: im Tempo des Schiebereglers rueckwaerts bzw. nach "<" wieder vorwaerts
+    // durch den Verlauf gehen; beim Vorspulen wird der Verlauf sofort aufgeholt
+    private void spieleVerlauf(long pJetzt) {
+        if (!rueckwaerts && istVorspulen()) {
+            holeAuf();
+            return;
+        }
+        if (pJetzt < naechsterVerlaufSchritt) {
+            return;
+        }
+        naechsterVerlaufSchritt = pJetzt + getSliderValue()*20*1000000L;
+        if (!rueckwaerts) {
+            wiederhole();
+        }
+        else if (!geheZurueck()) {
+            // am Anfang des Verlaufs angekommen
+            rueckwaerts = false;
+            rewind.setForeground(Color.BLACK);
+            pause.setForeground(Color.BLUE);
+        }
+    }
+
+    // EDT: Gegenstueck zu wendeAn; kostet so viel wie das Anwenden selbst und fuehrt keinen Code
+    // des Aufrufers aus. Die Eintraege werden in umgekehrter Reihenfolge zurueckgenommen.
+    private void nimmZurueck(Rueckschritt r) {
+        Ereignis e = r.ereignis;
+        if (aktiveVPan != null) {
+            @SuppressWarnings("unchecked")
+            VPanel<ContentType> vorher = (VPanel<ContentType>) aktiveVPan;
+            beschaedigeAlles(vorher);
+        }
+        if (e.art == ART_ADDLIST) {
+            entferneZeile(r.vPan);
+            layoutVeraltet = true;
+        }
+        else if (e.art == ART_ADDREF) {
+            r.vPan.entferneLetztenRefName(e.name);
+            beschaedigeAlles(r.vPan);
+        }
+        else if (e.art == ART_REMOVELIST || e.art == ART_VERWAIST) {
+            for (int i=0; i<r.zeilen.length; i++) {
+                VPanel<ContentType> vPan = r.zeilenPanels.get(i);
+                if (vPan.gibAusblendEnde() != 0) {
+                    imAusblenden.remove(vPan);
+                    vPan.setzeAusblenden(0, 0);
+                }
+                if (!istAngezeigt(vPan)) {
+                    fuegeZeileEin(vPan, r.zeilen[i]);
+                }
+                beschaedigeAlles(vPan);
+            }
+        }
+        else {
+            VPanel<ContentType> vPan = r.vPan;
+            if (e.befehl != KEIN_BEFEHL) {
+                befehle.get(e.befehl).nimmZurueck(vPan, e, r);
+            }
+            vPan.gibSpiegel().setzePosition(r.position);
+            vPan.setzeMark(r.mark);
+            vPan.setzeText(r.text);
+            vPan.setzeHervorhebung(r.hervorhebung);
+            vPan.setzeAnzElemAlt(r.anzElemAlt);
+            // ein laufender Uebergang passt nicht mehr zu den Indizes
+            vPan.starteUebergang(0, 0, 0, 0, 0, 0);
+            layoutVeraltet |= passeBreiteAn(vPan);
+            beschaedigeAlles(vPan);
+        }
+        aktBefehl = r.aktBefehl;
+        aktiveVPan = r.aktiveVPan != null && istAngezeigt(r.aktiveVPan) ? r.aktiveVPan : null;
+    }
+
+    private boolean istAngezeigt(VPanel<ContentType> vPan) {
+        int zeile = vPan.gibZeile();
+        return zeile >= 0 && zeile < panels.size() && panels.get(zeile) == vPan;
+    }
+
+    // EDT: Gegenstueck zu entferneZeile
+    private void fuegeZeileEin(VPanel<ContentType> vPan, int pZeile) {
+        panels.add(pZeile, vPan);
+        for (int i=pZeile; i<panels.size(); i++) {
+            panels.get(i).setzeZeile(i);
+        }
+        // die Breite kann aus einer anderen Detailstufe stammen
+        passeBreiteAn(vPan);
+        maxBreite = Math.max(maxBreite, vPan.gibBreite());
+        if (zeichnet()) {
+            dp.repaint(0, pZeile * dpHeight, dp.getWidth(), (panels.size() - pZeile) * dpHeight);
+        }
+        layoutVeraltet = true;
+    }
+
+    void wendeAn(Ereignis e) {
+        if (e.art == ART_ADDLIST) {
+            VPanel<ContentType> neu = new VPanel<ContentType>();
+            neu.gibSpiegel().haengeAn(e.inhalte);
+            neu.gibSpiegel().setzePosition(e.position);
+            neu.setzeMark(e.mark);
+            neu.addRefName(e.name);
+            neu.setzeErfassung(e.liste);
+            e.liste.setzeVPanel(neu);
+            // O(1): die neue Zeile kommt unten hinzu, die uebrigen bleiben unveraendert
+            neu.setzeZeile(panels.size());
+            panels.add(neu);
+            passeBreiteAn(neu);
+            beschaedigeAlles(neu);
+            layoutVeraltet = true;
+            return;
+        }
+        if (e.art == ART_ZUSTAND) {
+            uebernimmZustand(e.geleerte);
+            return;
+        }
+        if (e.art == ART_VERWAIST) {
+            ArrayList<VPanel<ContentType>> weg= new ArrayList<VPanel<ContentType>>();
+            for (Object o : e.geleerte) {
+                @SuppressWarnings("unchecked")
+                VPanel<ContentType> tot = ((ListenErfassung<ContentType>) o).gibVPanel();
+                if (ausblendNanos > 0 && zeichnet()) {
+                    tot.setzeAusblenden(System.nanoTime(), ausblendNanos);
+                    imAusblenden.add(tot);
+                }
+                else {
+                    weg.add(tot);
+                }
+            }
+            if (!weg.isEmpty()) {
+                entferneZeilen(weg);
+                layoutVeraltet = true;
+            }
+            return;
+        }
+        VPanel<ContentType> vPan = e.liste.gibVPanel();
+        if (e.art == ART_ADDREF) {
+            vPan.addRefName(e.name);
+            aktiveVPan = vPan;
+            beschaedigeAlles(vPan);
+            return;
+        }
+        if (e.art == ART_REMOVELIST) {
+            if (vPan.gibAusblendEnde() != 0) {
+                imAusblenden.remove(vPan);
+            }
+            entferneZeile(vPan);
+            layoutVeraltet = true;
+            return;
+        }
+
+        // die Hervorhebungen des vorherigen Befehls verschwinden
+        if (aktiveVPan != null) {
+            @SuppressWarnings("unchecked")
+            VPanel<ContentType> vorher = (VPanel<ContentType>) aktiveVPan;
+            beschaedige(vorher, vorher.gibBefehlsBereich());
+        }
+
+        SpiegelListe<ContentType> spiegel = vPan.gibSpiegel();
+        int zeigerVorher = vPan.gibListPosition() == -1 ? vPan.gibAnzElem() : vPan.gibListPosition();
+        int cursorVorher = vPan.gibX(zeigerVorher, 1f);
+        int markVorher = vPan.gibMark();
+        verschiebe(0, 0, 0);
+        if (e.befehl != KEIN_BEFEHL) {
+            befehle.get(e.befehl).wendeAn(vPan, e);
+        }
+        spiegel.setzePosition(e.position);
+        vPan.setzeMark(e.mark);
+
+        // Schadensbereich: Weg des Zeigers, alte und neue Markierung, geaenderte Knoten, Text
+        Rectangle bereich = vPan.gibBefehlsBereich();
+        bereich.setBounds(0, 0, 0, 0);
+        erweitereUmKnoten(vPan, bereich, zeigerVorher, e.position == -1 ? vPan.gibAnzElem() : e.position);
+        if (markVorher != -1) {
+            erweitereUmKnoten(vPan, bereich, markVorher, markVorher);
+        }
+        if (e.mark != -1) {
+            erweitereUmKnoten(vPan, bereich, e.mark, e.mark);
+        }
+        if (verschobenBis > verschobenAb) {
+            // ein Knoten links davon fuer INSERT, rechts davon fuer den Startpunkt des Gleitens
+            erweitereUmKnoten(vPan, bereich, verschobenAb - 1, verschobenBis);
+        }
+        int textBreite = vPan.gibTextBreite();
+        if (e.text != null && !e.text.equals(vPan.gibText())) {
+            vPan.setzeText(e.text);
+            textBreite = Math.max(textBreite, vPan.gibTextBreite());
+        }
+        if (textBreite > 0) {
+            erweitere(bereich, 33, startYCoord+75, 37+textBreite, startYCoord+95);
+        }
+        beschaedige(vPan, bereich);
+        if (zoomStufe > 0 && spiegel.merkeWertebereich()) {
+            // neue Farbskala der Uebersicht
+            beschaedigeAlles(vPan);
+        }
+
+        if (e.strukturell) {
+            layoutVeraltet |= passeBreiteAn(vPan);
+        }
+        aktBefehl = e.befehl;
+        aktiveVPan = vPan;
+
+        long dauer = gibUebergangsDauer();
+        if (dauer > 0) {
+            vPan.starteUebergang(System.nanoTime(), dauer, verschobenAb, verschobenBis, versatz, cursorVorher);
+            if (!vPan.istImUebergang()) {
+                vPan.setzeImUebergang(true);
+                imUebergang.add(vPan);
+            }
+        }
+    }
+
+    // EDT, nur beim Abspielen: nach einem Sprung das gesamte Modell durch ein Schluesselbild ersetzen
+    private void uebernimmZustand(Object[] pSchnappschuesse) {
+        leereVerlauf();
+        panels.clear();
+        beschaedigt.clear();
+        imUebergang.clear();
+        imAusblenden.clear();
+        aktiveVPan = null;
+        ausgewaehlt = null;
+        aktBefehl = KEIN_BEFEHL;
+        maxBreite = 0;
+        maxBreiteVeraltet = false;
+        for (Object o : pSchnappschuesse) {
+            // ein Schluesselbild ist ein Object[] von Schnappschuessen (s. liesSchluesselbild)
+            @SuppressWarnings("unchecked")
+            Schnappschuss s = (Schnappschuss) o;
+            VPanel<ContentType> neu = new VPanel<ContentType>();
+            neu.gibSpiegel().haengeAn(s.inhalte);
+            neu.gibSpiegel().setzePosition(s.position);
+            neu.setzeMark(s.mark);
+            for (String name : s.namen) {
+                neu.addRefName(name);
+            }
+            neu.setzeText(s.text);
+            neu.setzeErfassung(s.liste);
+            s.liste.setzeVPanel(neu);
+            neu.setzeZeile(panels.size());
+            panels.add(neu);
+            passeBreiteAn(neu);
+        }
+        layoutVeraltet = true;
+        dp.repaint();
+    }
+
+    private static Color[] erzeugeStufen(Color pFarbe) {
+        Color[] stufen = new Color[11];
+        for (int i=0; i<stufen.length; i++) {
+            stufen[i] = new Color(pFarbe.getRed(), pFarbe.getGreen(), pFarbe.getBlue(), pFarbe.getAlpha() * i / 10);
+        }
+        return stufen;
+    }
+
+    private static Color[] erzeugeWertFarben() {
+        Color[] farben = new Color[64];
+        for (int i=0; i<farben.length; i++) {
+            farben[i] = Color.getHSBColor(0.66f * (farben.length - 1 - i) / (farben.length - 1), 0.8f, 0.95f);
+        }
+        return farben;
+    }
+
+    private static Composite[] erzeugeAusblendStufen() {
+        Composite[] stufen = new Composite[11];
+        for (int i=0; i<stufen.length; i++) {
+            stufen[i] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, i / 10f);
+        }
+        return stufen;
+    }
+
+    private static Color gibStufe(Color[] pStufen, float pFortschritt) {
+        return pStufen[Math.round(pFortschritt * (pStufen.length - 1))];
+    }
+
+    /**
+     * Unveraenderliche Beschreibung eines Befehls, wie er vom Thread des Aufrufers erfasst
+     * wurde. Alle Inhalte sind bereits aus der Originalliste gelesen, der EDT muss die
+     * Originalliste daher nie ansehen.
+     */
+    class Ereignis {
+
+        final int art;
+        final ListenErfassung<ContentType> liste;
+        // Opcode des anzuwendenden und hervorzuhebenden Befehls oder KEIN_BEFEHL
+        final int befehl;
+        // Referenzname bei ADDLIST/ADDREF
+        final String name;
+        final String text;
+        final int index;
+        final Object[] inhalte;
+        final int position;
+        final int mark;
+        final int anzahlVorher;
+        // bei VERWAIST die eingesammelten Listen, bei ZUSTAND die Schnappschuesse aller Listen
+        // (liste ist dann null)
+        final Object[] geleerte;
+        final boolean strukturell;
+        final int[] hervorhebung;
+
+        public Ereignis(int pArt, ListenErfassung<ContentType> pListe, int pBefehl, String pName, String pText,
+                        int pIndex, Object[] pInhalte, int pPosition, int pMark, int pAnzahlVorher,
+                        Object[] pGeleerte, boolean pStrukturell, int[] pHervorhebung) {
+            art = pArt;
+            liste = pListe;
+            befehl = pBefehl;
+            name = pName;
+            text = pText;
+            index = pIndex;
+            inhalte = pInhalte;
+            position = pPosition;
+            mark = pMark;
+            anzahlVorher = pAnzahlVorher;
+            geleerte = pGeleerte;
+            strukturell = pStrukturell;
+            hervorhebung = pHervorhebung;
+        }
+
+        // beim Ersetzen durch ein neueres Ereignis bleibt ein vorheriger Erklaertext erhalten
+        public Ereignis mitTextVon(Ereignis pAlt) {
+            if (text != null || pAlt.text == null) {
+                return this;
+            }
+            return new Ereignis(art, liste, befehl, name, pAlt.text, index, inhalte, position, mark,
+                anzahlVorher, geleerte, strukturell, hervorhebung);
+        }
+    }
+
+    /**
+     * Eintrag des Verlaufs (nur EDT): das angewendete Ereignis und was es im Anzeigemodell
+     * ueberschrieben hat. Zuruecknehmen und erneutes Anwenden kommen damit ohne den Code des
+     * Aufrufers aus; nur bei eigenen Befehlen werden alle Inhalte kopiert.
+     */
+    private class Rueckschritt {
+
+        private final Ereignis ereignis;
+        private final int aktBefehl;
+        private final VPanel<ContentType> aktiveVPan;
+        // betroffene Liste und ihr Zustand vor dem Ereignis
+        private VPanel<ContentType> vPan;
+        private int position;
+        private int mark;
+        private String text;
+        private int[] hervorhebung;
+        private int anzElemAlt;
+        // von Befehl.merke abgelegt: ueberschriebenes bzw. entferntes Element oder alle Elemente
+        private Object inhalt;
+        private Object[] inhalte;
+        // REMOVELIST, VERWAIST: entfernte Zeilen, aufsteigend
+        private ArrayList<VPanel<ContentType>> zeilenPanels;
+        private int[] zeilen;
+        // Anzahl der abgelegten Inhalte (s. VERLAUF_INHALTE)
+        private int gewicht;
+
+        public Rueckschritt(Ereignis pEreignis, int pAktBefehl, VPanel<ContentType> pAktiveVPan) {
+            ereignis = pEreignis;
+            aktBefehl = pAktBefehl;
+            aktiveVPan = pAktiveVPan;
+        }
+    }
+
+    /**
+     * Zustand einer Liste in einem Schluesselbild der Aufzeichnung (s. Wiedergabe).
+     */
+    class Schnappschuss {
+
+        private final ListenErfassung<ContentType> liste;
+        private final String[] namen;
+        private final String text;
+        private final int position;
+        private final int mark;
+        private final Object[] inhalte;
+
+        public Schnappschuss(ListenErfassung<ContentType> pListe, String[] pNamen, String pText, int pPosition,
+                             int pMark, Object[] pInhalte) {
+            liste = pListe;
+            namen = pNamen;
+            text = pText;
+            position = pPosition;
+            mark = pMark;
+            inhalte = pInhalte;
+        }
+    }
+
+    /**
+     * Eintrag der Befehlstabelle. erfasse wird von erfasseBefehl im Thread des Aufrufers
+     * aufgerufen, wendet den Befehl auf die Erfassung an und liefert das Ereignis (null nur, wenn
+     * die Liste waehrend der Schritte eines Abgleichs entfernt wurde); wendeAn
+     * uebernimmt dieses auf dem EDT in den Spiegel. Befehle ohne Aenderung der Inhalte (z.B.
+     * NEXT) muessen wendeAn nicht ueberschreiben, Position und Markierung werden fuer alle Befehle
+     * gemeinsam uebernommen.
+     */
+    abstract class Befehl {
+
+        protected final int opcode;
+        protected final String name;
+
+        public Befehl(int pOpcode, String pName) {
+            opcode = pOpcode;
+            name = pName;
+        }
+
+        public Befehl(Command pCommand) {
+            this(pCommand.ordinal(), pCommand.name());
+        }
+
+        public abstract Ereignis erfasse(ListenErfassung<ContentType> erf, String pText);
+
+        public void wendeAn(VPanel<ContentType> vPan, Ereignis e) {
+        }
+
+        // Verlauf: vor wendeAn die Inhalte ablegen, die wendeAn ueberschreibt
+        public void merke(VPanel<ContentType> vPan, Ereignis e, Rueckschritt r) {
+        }
+
+        // Verlauf: die Aenderung der Inhalte durch wendeAn zuruecknehmen
+        public void nimmZurueck(VPanel<ContentType> vPan, Ereignis e, Rueckschritt r) {
+        }
+    }
+
+    /**
+     * Mit registerCommand angemeldeter Befehl: liest die Liste vollstaendig neu ein. Beim Abspielen
+     * einer Aufzeichnung fehlt der handler, dort wird nur wendeAn gebraucht.
+     */
+    class EigenerBefehl extends Befehl {
+
+        private final CommandHandler<ContentType> handler;
+
+        public EigenerBefehl(int pOpcode, String pName, CommandHandler<ContentType> pHandler) {
+            super(pOpcode, pName);
+            handler = pHandler;
+        }
+
+        public Ereignis erfasse(ListenErfassung<ContentType> erf, String pText) {
+            int anzahlVorher = erf.gibAnzahl();
+            Object[] inhalte = erf.neuErfassen();
+            int[] hervorhebung = handler.perform(erf.gibOriginal(), erf.gibPosition());
+            return new Ereignis(ART_BEFEHL, erf, opcode, null, pText, 0, inhalte,
+                erf.gibPosition(), erf.gibMark(), anzahlVorher, null, true, hervorhebung);
+        }
+
+        public void wendeAn(VPanel<ContentType> vPan, Ereignis e) {
+            vPan.gibSpiegel().leeren();
+            vPan.gibSpiegel().haengeAn(e.inhalte);
+            vPan.setzeHervorhebung(e.hervorhebung);
+            verschiebe(0, Math.max(e.anzahlVorher, vPan.gibAnzElem()) + 1, 0);
+        }
+
+        public void merke(VPanel<ContentType> vPan, Ereignis e, Rueckschritt r) {
+            r.inhalte = vPan.gibSpiegel().gibInhalte();
+            r.gewicht = r.inhalte.length;
+        }
+
+        public void nimmZurueck(VPanel<ContentType> vPan, Ereignis e, Rueckschritt r) {
+            vPan.gibSpiegel().leeren();
+            vPan.gibSpiegel().haengeAn(r.inhalte);
+        }
+    }
+
+    /**
+     * animate(List, String): vergleicht die Liste mit dem Stand des letzten Abgleichs (s. Abgleich)
+     * und zeigt jede erkannte Aenderung als Ereignis von SETCONTENT, APPEND, INSERT bzw. REMOVE an.
+     * Da List beim Umstellen neue Knoten anlegt (remove, dann insert), werden ein entfernter und ein
+     * eingefuegter Knoten mit demselben Inhalt (==) zu einem Verschieben zusammengefasst (s.
+     * VerschiebeBefehl). Jedes Ereignis zeigt auf die geaenderte Stelle und
+     * wird wie ein eigener Befehl abgewartet, nur das letzte veroeffentlicht erfasseBefehl. Stehen
+     * Zeiger oder Markierung der Liste danach anders, folgt dafuer noch ein eigener Schritt.
+     * Aufzeichnung, Verlauf und Wiedergabe kommen so ohne eigene Ereignisart aus.
+     */
+    private class AbgleichBefehl extends Befehl {
+
+        public AbgleichBefehl() {
+            super(KEIN_BEFEHL, null);
+        }
+
+        public Ereignis erfasse(ListenErfassung<ContentType> erf, String pText) {
+            try {
+                return erfasseSchritte(erf, pText);
+            }
+            finally { // das letzte Ereignis veroeffentlicht erfasseBefehl noch unter der Sperre
+                erf.setzeAbgleichOffen(false);
+            }
+        }
+
+        private Ereignis erfasseSchritte(ListenErfassung<ContentType> erf, String pText) {
+            int anzahlVorher = erf.gibAnzahl();
+            int[] knotenVorher = erf.gibAbgleichKnoten();
+            Object[] inhalteVorher = erf.gibAbgleichInhalte();
+            Object[] inhalte = erf.neuErfassen(true);
+            byte[] schritte = knotenVorher == null ? null
+                : Abgleich.berechne(knotenVorher, erf.gibAbgleichKnoten(), ABGLEICH_GRENZE);
+            if (schritte == null) {
+                // das Ereignis wird ggf. beschriftet, der Stand fuer den naechsten Abgleich nicht
+                return new Ereignis(ART_BEFEHL, erf, gibNeuEinlesen().opcode, null, pText, 0, inhalte.clone(),
+                    erf.gibPosition(), erf.gibMark(), anzahlVorher, null, true, null);
+            }
+
+            int anzahl = erf.gibAnzahl();
+            int mark = erf.gibMark();
+            // verschobene Knoten: alter Index -> neuer Index und umgekehrt
+            HashMap<Integer, Integer> nachNeu = new HashMap<Integer, Integer>();
+            HashMap<Integer, Integer> nachAlt = new HashMap<Integer, Integer>();
+            paare(schritte, inhalteVorher, inhalte, nachNeu, nachAlt);
+
+            // Die Anzeige besteht waehrend des Durchlaufs aus den ersten neu Knoten des neuen Stands,
+            // dazwischen den nach rechts verschobenen Knoten, die ihr Ziel noch nicht erreicht haben
+            // (geparkt), und dem alten Stand ab alt ohne die schon nach links verschobenen (vorgezogen).
+            int[] geparktAlt = new int[nachNeu.size()];
+            int[] geparktStelle = new int[nachNeu.size()];
+            int anzGeparkt = 0;
+            int[] vorgezogen = new int[nachNeu.size()];
+            int anzVorgezogen = 0;
+            Ereignis letztes = null;
+            int alt = 0; // Index im alten Stand
+            int neu = 0; // Index im neuen Stand
+            for (int i=0; i<schritte.length; i++) {
+                int stelle = neu + anzGeparkt; // Index in der Anzeige
+                int groesse = stelle + inhalteVorher.length - alt - anzVorgezogen;
+                Ereignis e = null;
+                if (schritte[i] == Abgleich.GLEICH) {
+                    if (inhalteVorher[alt] != inhalte[neu]) {
+                        e = new Ereignis(ART_BEFEHL, erf, Command.SETCONTENT.ordinal(), null, pText, stelle,
+                            new Object[] { inhalte[neu] }, stelle, mark < groesse ? mark : -1, groesse, null, true, null);
+                    }
+                    alt++;
+                    neu++;
+                }
+                else if (schritte[i] == Abgleich.ENTFERNT) {
+                    if (!nachNeu.containsKey(alt)) {
+                        e = new Ereignis(ART_BEFEHL, erf, Command.REMOVE.ordinal(), null, pText, stelle, null,
+                            Math.min(stelle, groesse - 2), mark < groesse - 1 ? mark : -1, groesse, null, true, null);
+                    }
+                    else if (anzVorgezogen > 0 && entferneWert(vorgezogen, anzVorgezogen, alt) != -1) {
+                        anzVorgezogen--;
+                    }
+                    else { // bleibt stehen, bis sein Ziel erreicht ist
+                        geparktAlt[anzGeparkt] = alt;
+                        geparktStelle[anzGeparkt] = stelle;
+                        anzGeparkt++;
+                    }
+                    alt++;
+                }
+                else {
+                    Integer herkunft = nachAlt.isEmpty() ? null : nachAlt.get(neu);
+                    if (herkunft == null) {
+                        int befehl = stelle == groesse ? Command.APPEND.ordinal() : Command.INSERT.ordinal();
+                        e = new Ereignis(ART_BEFEHL, erf, befehl, null, pText, stelle, new Object[] { inhalte[neu] },
+                            stelle, mark < groesse + 1 ? mark : -1, groesse, null, true, null);
+                    }
+                    else {
+                        int von;
+                        int nach;
+                        int k = entferneWert(geparktAlt, anzGeparkt, herkunft);
+                        if (k != -1) { // nach rechts: aus den geparkten Knoten an das Ende des fertigen Teils
+                            von = geparktStelle[k];
+                            System.arraycopy(geparktStelle, k + 1, geparktStelle, k, anzGeparkt - k - 1);
+                            anzGeparkt--;
+                            for (int j=0; j<anzGeparkt; j++) {
+                                if (geparktStelle[j] > von) {
+                                    geparktStelle[j]--;
+                                }
+                            }
+                            nach = stelle - 1;
+                        }
+                        else { // nach links: aus dem Rest des alten Stands
+                            von = stelle + herkunft - alt;
+                            for (int j=0; j<anzVorgezogen; j++) {
+                                if (vorgezogen[j] < herkunft) {
+                                    von--;
+                                }
+                            }
+                            vorgezogen[anzVorgezogen++] = herkunft;
+                            nach = stelle;
+                        }
+                        e = erzeugeVerschiebung(erf, pText, von, nach, inhalteVorher[herkunft], inhalte[neu],
+                            mark < groesse ? mark : -1, groesse);
+                    }
+                    neu++;
+                }
+                if (e != null) {
+                    if (letztes != null && !veroeffentlicheSchritt(erf, letztes)) {
+                        return null;
+                    }
+                    letztes = e;
+                }
+            }
+            if (letztes != null && letztes.position == erf.gibPosition() && letztes.mark == mark) {
+                return letztes;
+            }
+            if (letztes != null && !veroeffentlicheSchritt(erf, letztes)) {
+                return null;
+            }
+            // nur noch Zeiger und Markierung wie in der Liste
+            return erzeugeEreignis(erf, KEIN_BEFEHL, pText, -1, null, anzahl, false);
+        }
+
+        // entfernte und eingefuegte Knoten mit demselben Inhalt einander zuordnen, gleiche Inhalte der Reihe nach
+        private void paare(byte[] pSchritte, Object[] pInhalteVorher, Object[] pInhalte, HashMap<Integer, Integer> pNachNeu,
+                           HashMap<Integer, Integer> pNachAlt) {
+            IdentityHashMap<Object, ArrayDeque<Integer>> entfernt = null; // Inhalt -> alte Indizes
+            int alt = 0;
+            for (int i=0; i<pSchritte.length; i++) {
+                if (pSchritte[i] == Abgleich.ENTFERNT && pInhalteVorher[alt] != null) {
+                    if (entfernt == null) {
+                        entfernt = new IdentityHashMap<Object, ArrayDeque<Integer>>();
+                    }
+                    ArrayDeque<Integer> indizes = entfernt.get(pInhalteVorher[alt]);
+                    if (indizes == null) {
+                        indizes = new ArrayDeque<Integer>(1);
+                        entfernt.put(pInhalteVorher[alt], indizes);
+                    }
+                    indizes.add(alt);
+                }
+                if (pSchritte[i] != Abgleich.EINGEFUEGT) {
+                    alt++;
+                }
+            }
+            if (entfernt == null) {
+                return;
+            }
+            int neu = 0;
+            for (int i=0; i<pSchritte.length; i++) {
+                if (pSchritte[i] == Abgleich.EINGEFUEGT && pInhalte[neu] != null) {
+                    ArrayDeque<Integer> indizes = entfernt.get(pInhalte[neu]);
+                    Integer herkunft = indizes == null ? null : indizes.poll();
+                    if (herkunft != null) {
+                        pNachNeu.put(herkunft, neu);
+                        pNachAlt.put(neu, herkunft);
+                    }
+                }
+                if (pSchritte[i] != Abgleich.ENTFERNT) {
+                    neu++;
+                }
+            }
+        }
+
+        // Index von pWert unter den ersten pAnzahl Eintraegen, der dabei entfernt wird; sonst -1
+        private int entferneWert(int[] pWerte, int pAnzahl, int pWert) {
+            for (int i=0; i<pAnzahl; i++) {
+                if (pWerte[i] == pWert) {
+                    System.arraycopy(pWerte, i + 1, pWerte, i, pAnzahl - i - 1);
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private Ereignis erzeugeVerschiebung(ListenErfassung<ContentType> erf, String pText, int pVon, int pNach,
+                                             Object pInhaltVorher, Object pInhalt, int pMark, int pGroesse) {
+            if (pVon != pNach) {
+                return new Ereignis(ART_BEFEHL, erf, gibVerschieben().opcode, null, pText, pVon,
+                    new Object[] { pInhalt }, pNach, pMark, pGroesse, null, true, new int[] { pNach });
+            }
+            if (pInhaltVorher != pInhalt) {
+                return new Ereignis(ART_BEFEHL, erf, Command.SETCONTENT.ordinal(), null, pText, pNach,
+                    new Object[] { pInhalt }, pNach, pMark, pGroesse, null, true, null);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Verschieben eines Knotens, wird nur von animate(List, String) erkannt (s. AbgleichBefehl):
+     * index ist die alte Stelle, hervorhebung[0] die neue, an der der Knoten hervorgehoben wird, und
+     * inhalte sein (ggf. neuer) Inhalt. In einer Aufzeichnung steht es wie ein eigener Befehl.
+     */
+    private class VerschiebeBefehl extends Befehl {
+
+        public VerschiebeBefehl(int pOpcode) {
+            super(pOpcode, VERSCHIEBEN);
+        }
+
+        // nicht ueber einen Namen erreichbar; nach einer Wiedergabe wird wie bei einem unbekannten Befehl nur der Text angezeigt
+        public Ereignis erfasse(ListenErfassung<ContentType> erf, String pText) {
+            return erzeugeEreignis(erf, KEIN_BEFEHL, pText, -1, null, erf.gibAnzahl(), false);
+        }
+
+        public void wendeAn(VPanel<ContentType> vPan, Ereignis e) {
+            int nach = e.hervorhebung[0];
+            vPan.gibSpiegel().entferne(e.index);
+            vPan.gibSpiegel().fuegeEin(nach, e.inhalte[0]);
+            vPan.setzeHervorhebung(e.hervorhebung);
+            // die Knoten dazwischen ruecken um eine Stelle nach
+            if (e.index < nach) {
+                verschiebe(e.index, nach, 70);
+            }
+            else {
+                verschiebe(nach + 1, e.index + 1, -70);
+            }
+        }
+
+        public void merke(VPanel<ContentType> vPan, Ereignis e, Rueckschritt r) {
+            r.inhalt = vPan.gibSpiegel().gibInhalt(e.index);
+            r.gewicht = 1;
+        }
+
+        public void nimmZurueck(VPanel<ContentType> vPan, Ereignis e, Rueckschritt r) {
+            vPan.gibSpiegel().entferne(e.hervorhebung[0]);
+            vPan.gibSpiegel().fuegeEin(e.index, r.inhalt);
+        }
+    }
+
+    /**
+     * Meldung einer ObservableList: Laenge, Position und neue Inhalte stehen bereits in der
+     * Meldung, die Erfassung uebernimmt sie ohne Durchlauf der Liste. Es entstehen dieselben
+     * Ereignisse wie bei den vorhandenen Befehlen, nur die bei CONCAT angehaengte Liste wird hier
+     * ueber die Quelle der Meldung statt durch Suche in allen Listen erkannt.
+     */
+    private class GemeldeterBefehl extends Befehl {
+
+        private final ObservableList.Change<ContentType> aenderung;
+
+        public GemeldeterBefehl(ObservableList.Change<ContentType> pAenderung) {
+            super(pAenderung.getCommand());
+            aenderung = pAenderung;
+        }
+
+        public Ereignis erfasse(ListenErfassung<ContentType> erf, String pText) {
+            int anzahlVorher = erf.gibAnzahl();
+            erf.uebernimm(aenderung.getSize(), aenderung.getPosition());
+            // beschrifte ersetzt die Inhalte im Ereignis, die Meldung gehoert aber auch anderen Empfaengern
+            Object[] inhalte = aenderung.getContents() == null ? null : aenderung.getContents().clone();
+            switch (aenderung.getCommand()) {
+                case SETCONTENT:
+                case APPEND:
+                case INSERT:
+                    return erzeugeEreignis(erf, opcode, pText, aenderung.getIndex(), inhalte, anzahlVorher, true);
+                case REMOVE:
+                    return erzeugeEreignis(erf, opcode, pText, aenderung.getIndex(), null, anzahlVorher, true);
+                case CONCAT:
+                    ListenErfassung<ContentType> andere = erfassungNachListe.gib(aenderung.getSource());
+                    if (andere != null && andere != erf && andere.gibAnzahl() != 0) {
+                        andere.merkeGeleert(); // wie bei CONCAT erst nach Freigabe dieser Sperre leeren
+                    }
+                    return erzeugeEreignis(erf, opcode, pText, anzahlVorher, inhalte, anzahlVorher, true);
+                default: // TOFIRST, NEXT, TOLAST
+                    return erzeugeEreignis(erf, KEIN_BEFEHL, pText, -1, null, anzahlVorher, false);
+            }
+        }
+    }
+
+    /**
+     * Kuerzeste Folge von Einfuegungen und Entfernungen zwischen zwei Folgen von Kennungen nach
+     * Myers ("An O(ND) Difference Algorithm", 1986). Gemeinsamer Anfang und gemeinsames Ende
+     * werden vorab abgetrennt, fuer wenige Aenderungen d in einer Liste der Laenge n kostet der
+     * Abgleich daher O(n + d^2) Zeit und O(d^2) Speicher.
+     */
+    private static class Abgleich {
+
+        private static final byte GLEICH = 0;
+        private static final byte ENTFERNT = 1;
+        private static final byte EINGEFUEGT = 2;
+
+        // liefert die Schritte von a nach b oder null bei mehr als pGrenze Einfuegungen und Entfernungen
+        public static byte[] berechne(int[] a, int[] b, int pGrenze) {
+            int anfang = 0;
+            while (anfang < a.length && anfang < b.length && a[anfang] == b[anfang]) {
+                anfang++;
+            }
+            int ende = 0;
+            while (ende < a.length - anfang && ende < b.length - anfang
+                   && a[a.length - 1 - ende] == b[b.length - 1 - ende]) {
+                ende++;
+            }
+            int n = a.length - anfang - ende;
+            int m = b.length - anfang - ende;
+            int grenze = Math.min(n + m, pGrenze);
+
+            // v[k] = groesstes x auf Diagonale k = x - y; von jeder Runde d wird v[-d..d] aufbewahrt
+            int versatz = grenze + 1;
+            int[] v = new int[2 * grenze + 3];
+            int[][] runden = new int[grenze + 1][];
+            int d = 0;
+            suche:
+            for (; d<=grenze; d++) {
+                for (int k=-d; k<=d; k+=2) {
+                    int x;
+                    if (k == -d || (k != d && v[versatz + k - 1] < v[versatz + k + 1])) {
+                        x = v[versatz + k + 1]; // Einfuegung
+                    }
+                    else {
+                        x = v[versatz + k - 1] + 1; // Entfernung
+                    }
+                    int y = x - k;
+                    while (x < n && y < m && a[anfang + x] == b[anfang + y]) {
+                        x++;
+                        y++;
+                    }
+                    v[versatz + k] = x;
+                    if (x >= n && y >= m) {
+                        runden[d] = Arrays.copyOfRange(v, versatz - d, versatz + d + 1);
+                        break suche;
+                    }
+                }
+                runden[d] = Arrays.copyOfRange(v, versatz - d, versatz + d + 1);
+            }
+            if (d > grenze) {
+                return null;
+            }
+
+            // Weg rueckwaerts von (n, m) nach (0, 0)
+            byte[] schritte = new byte[anfang + n + m - (n + m - d) / 2 + ende];
+            int pos = schritte.length - ende;
+            int x = n;
+            int y = m;
+            for (; d>0; d--) {
+                int[] vorher = runden[d - 1];
+                int k = x - y;
+                boolean einfuegen = k == -d || (k != d && vorher[k - 1 + d - 1] < vorher[k + 1 + d - 1]);
+                int kVorher = einfuegen ? k + 1 : k - 1;
+                int xVorher = vorher[kVorher + d - 1];
+                int yVorher = xVorher - kVorher;
+                int xStart = einfuegen ? xVorher : xVorher + 1;
+                while (x > xStart) {
+                    schritte[--pos] = GLEICH;
+                    x--;
+                    y--;
+                }
+                schritte[--pos] = einfuegen ? EINGEFUEGT : ENTFERNT;
+                x = xVorher;
+                y = yVorher;
+            }
+            // Anfang und Ende sowie die Diagonale der Runde 0 sind unveraendert (0 = GLEICH)
+            return schritte;
+        }
+    }
+
+    /**
+     * Begrenzte Warteschlange (Ringpuffer) zwischen den Threads der Aufrufer und dem EDT.
+     * Wie alle Sperren auf der Seite der Aufrufer mit ReentrantLock statt synchronized:
+     * Ein wartender virtueller Thread gibt dabei seinen Traeger-Thread frei.
+     */
+    class BefehlsWarteschlange {
+
+        private Object[] puffer;
+        private int kopf;
+        private int anzahl;
+        private final ReentrantLock sperre = new ReentrantLock();
+        private final Condition nichtVoll = sperre.newCondition();
+
+        public BefehlsWarteschlange(int pKapazitaet) {
+            puffer = new Object[pKapazitaet];
+        }
+
+        // liefert die Anzahl der danach wartenden Ereignisse
+        public int einreihen(Ereignis pEreignis, boolean pErsetzen) throws InterruptedException {
+            sperre.lock();
+            try {
+                while (anzahl == puffer.length) {
+                    if (pErsetzen && !pEreignis.strukturell) {
+                        int ende = (kopf + anzahl - 1) % puffer.length;
+                        // der Puffer enthaelt nur Ereignisse
+                        @SuppressWarnings("unchecked")
+                        Ereignis letztes = (Ereignis) puffer[ende];
+                        if (!letztes.strukturell && letztes.liste == pEreignis.liste) {
+                            puffer[ende] = pEreignis.mitTextVon(letztes);
+                            Messwerte<ContentType> m = messwerte;
+                            if (m != null) {
+                                m.uebersprungen.incrementAndGet();
+                            }
+                            return anzahl;
+                        }
+                    }
+                    nichtVoll.await();
+                }
+                puffer[(kopf + anzahl) % puffer.length] = pEreignis;
+                anzahl++;
+                return anzahl;
+            }
+            finally {
+                sperre.unlock();
+            }
+        }
+
+        public int gibAnzahl() {
+            sperre.lock();
+            try {
+                return anzahl;
+            }
+            finally {
+                sperre.unlock();
+            }
+        }
+
+        public int entnehmeAlle(Object[] pZiel) {
+            sperre.lock();
+            try {
+                int anz = Math.min(anzahl, pZiel.length);
+                for (int i=0; i<anz; i++) {
+                    pZiel[i] = puffer[kopf];
+                    puffer[kopf] = null;
+                    kopf = (kopf + 1) % puffer.length;
+                }
+                anzahl -= anz;
+                nichtVoll.signalAll();
+                return anz;
+            }
+            finally {
+                sperre.unlock();
+            }
+        }
+    }
+
+    /**
+     * Tor fuer die Threads der Aufrufer im Einzelschritt-Modus. Jeder Thread wartet an seiner
+     * eigenen Condition, ">" weckt nur die freigegebenen Threads (s. StepMode). Eine Freigabe
+     * fuer einen Thread, der gerade rechnet, bleibt bis zu seinem naechsten Befehl erhalten,
+     * eine Freigabe ohne wartenden Thread gilt fuer den naechsten, der eintrifft.
+     */
+    private class SchrittTor {
+
+        private final ReentrantLock sperre = new ReentrantLock();
+        // wartende Threads in der Reihenfolge ihres Eintreffens
+        private final LinkedHashSet<Wartender> wartende = new LinkedHashSet<Wartender>();
+        // Anzahl der Freigaben im Gleichschritt (StepMode.ALL)
+        private long runde;
+        private boolean offeneFreigabe;
+        private final ThreadLocal<Wartender> eigener = new ThreadLocal<Wartender>() {
+                protected Wartender initialValue() {
+                    return new Wartender();
+                }
+            };
+
+        private class Wartender {
+            private final Condition weiter = sperre.newCondition();
+            private boolean freigabe;
+            // bereits ausgefuehrte Runden; -1 = noch nie am Tor gewesen
+            private long runde = -1;
+        }
+
+        public Wartender gibWartenden() {
+            return eigener.get();
+        }
+
+        // Thread des Aufrufers: bis zur Freigabe warten; endet vorzeitig, sobald die Animation laeuft
+        public void warte() throws InterruptedException {
+            Wartender w = eigener.get();
+            sperre.lock();
+            try {
+                // im Gleichschritt holt ein Thread, der gerade gerechnet hat, hoechstens eine Runde nach;
+                // ein neuer Thread beginnt mit der naechsten Runde
+                w.runde = w.runde == -1 ? runde : Math.max(w.runde, runde - 1);
+                while (!nimmFreigabe(w)) {
+                    if (isAnimated || bisHaltepunkt) {
+                        w.runde = runde;
+                        return;
+                    }
+                    wartende.add(w);
+                    try {
+                        w.weiter.await();
+                    }
+                    finally {
+                        wartende.remove(w);
+                    }
+                }
+            }
+            finally {
+                sperre.unlock();
+            }
+        }
+
+        private boolean nimmFreigabe(Wartender w) {
+            if (w.freigabe) {
+                w.freigabe = false;
+                return true;
+            }
+            if (w.runde < runde) {
+                w.runde++;
+                return true;
+            }
+            if (offeneFreigabe) {
+                offeneFreigabe = false;
+                return true;
+            }
+            return false;
+        }
+
+        // EDT: ">"; pAusgewaehlt ist der Thread der ausgewaehlten Liste oder null
+        public void gibFrei(StepMode pModus, Wartender pAusgewaehlt) {
+            sperre.lock();
+            try {
+                if (pModus == StepMode.ALL) {
+                    runde++;
+                    weckeWartende();
+                    return;
+                }
+                Wartender ziel = pAusgewaehlt;
+                if (ziel == null) {
+                    if (wartende.isEmpty()) {
+                        offeneFreigabe = true;
+                        return;
+                    }
+                    ziel = wartende.iterator().next();
+                }
+                // sofort austragen, damit ein weiteres ">" nicht denselben Thread trifft
+                wartende.remove(ziel);
+                ziel.freigabe = true;
+                ziel.weiter.signal();
+            }
+            finally {
+                sperre.unlock();
+            }
+        }
+
+        // EDT: ">>" bzw. ">|"; die geweckten Threads sehen isAnimated bzw. bisHaltepunkt und laufen weiter
+        public void weckeAlle() {
+            sperre.lock();
+            try {
+                weckeWartende();
+            }
+            finally {
+                sperre.unlock();
+            }
+        }
+
+        private void weckeWartende() {
+            for (Wartender w : wartende) {
+                w.weiter.signal();
+            }
+            wartende.clear();
+        }
+    }
+
+    /**
+     * Anzeigemodell einer Liste (nur EDT). VPanels sind keine Swing-Bauteile; das einzige
+     * DrawPanel zeichnet die sichtbaren VPanels nacheinander, jedes in seiner Zeile.
+     */
+    class VPanel<ContentType> {
+
+        private SpiegelListe<ContentType> spiegel;
+        private String text;
+        private ArrayList<String> refNames;
+        private String refNamesText;
+        private int anzElemAlt;
+        private int mark;
+        // von einem eigenen Befehl hervorgehobene Positionen
+        private int[] hervorhebung;
+        private int textBreite;
+        // noch nicht gezeichneter Bereich bzw. Bereich des letzten Befehls (Koordinaten innerhalb der Zeile)
+        private Rectangle schaden = new Rectangle();
+        private Rectangle befehlsBereich = new Rectangle();
+        private int zeile;
+        private int breite;
+        // zugehoerige Erfassung; deren Nummer kennzeichnet die Liste in einer Aufzeichnung
+        private ListenErfassung<ContentType> erfassung;
+        // Ausblenden nach dem Einsammeln der Liste (0 = kein Ausblenden)
+        private long ausblendStart;
+        private long ausblendEnde;
+        // laufender Uebergang: Knoten mit Index in [verschobenAb, verschobenBis) starten um versatz Pixel
+        // verschoben, der Zeiger startet bei cursorVonX; alles gleitet bis uebergangEnde zur Zielposition
+        private long uebergangStart;
+        private long uebergangEnde;
+        private int verschobenAb;
+        private int verschobenBis;
+        private int versatz;
+        private int cursorVonX;
+        private boolean imUebergang;
+
+        public VPanel() {
+            // die Aufzeichnung haelt nur Beschriftungen fest (s. Aufzeichnung.schreibe)
+            spiegel = new SpiegelListe<ContentType>(kompakt || aufzeichnung != null);
+            text = "";
+            refNames = new ArrayList<String>();
+            refNamesText = "";
+            anzElemAlt = 0;
+            mark = -1;
+        }
+
+        public SpiegelListe<ContentType> gibSpiegel() {
+            return spiegel;
+        }
+
+        public String gibRefNames() {
+            return refNamesText;
+        }
+
+        public ArrayList<String> gibRefNamenListe() {
+            return refNames;
+        }
+
+        public int gibListenId() {
+            return erfassung.gibId();
+        }
+
+        public ListenErfassung<ContentType> gibErfassung() {
+            return erfassung;
+        }
+
+        public void setzeErfassung(ListenErfassung<ContentType> pErfassung) {
+            erfassung = pErfassung;
+        }
+
+        public void addRefName(String pRefName) {
+            refNames.add(pRefName);
+            aktualisiereRefNamesText();
+        }
+
+        public void removeRefName(String pRefName) {
+            refNames.remove(pRefName);
+            aktualisiereRefNamesText();
+        }
+
+        // Verlauf: Gegenstueck zu addRefName
+        public void entferneLetztenRefName(String pRefName) {
+            refNames.remove(refNames.lastIndexOf(pRefName));
+            aktualisiereRefNamesText();
+        }
+
+        // der Text wird nur bei Aenderungen neu zusammengesetzt, nicht bei jedem Zeichnen
+        private void aktualisiereRefNamesText() {
+            String s = "";
+            for (int i=0; i<refNames.size(); i++) {
+                s += refNames.get(i) + ", ";
+            }
+            if (s.length() > 0) {
+                s = s.substring(0, s.length()-2);
+            }
+            refNamesText = s;
+        }
+
+        public int gibAnzElem() {
+            return spiegel.gibAnzahl();
+        }
+
+        public int gibListPosition() {
+            return spiegel.gibPosition();
+        }
+
+        public int gibZeile() {
+            return zeile;
+        }
+
+        public void setzeZeile(int pZeile) {
+            zeile = pZeile;
+        }
+
+        public int gibBreite() {
+            return breite;
+        }
+
+        public void setzeAusblenden(long pJetzt, long pDauer) {
+            ausblendStart = pJetzt;
+            ausblendEnde = pJetzt + pDauer;
+        }
+
+        public long gibAusblendEnde() {
+            return ausblendEnde;
+        }
+
+        // 1 = voll sichtbar, 0 = ausgeblendet
+        public float gibSichtbarkeit(long pJetzt) {
+            if (ausblendEnde == 0) {
+                return 1f;
+            }
+            return Math.max(0f, (float) (ausblendEnde - pJetzt) / (ausblendEnde - ausblendStart));
+        }
+
+        public void setzeBreite(int pBreite) {
+            breite = pBreite;
+        }
+
+        public String gibText() {
+            return text;
+        }
+
+        public void setzeText(String pText) {
+            text = pText;
+            textBreite = pText == null || (fenster == null && !ohneFenster) ? 0 : dp.getFontMetrics(dp.getFont()).stringWidth(pText);
+        }
+
+        public int gibTextBreite() {
+            return textBreite;
+        }
+
+        public Rectangle gibSchaden() {
+            return schaden;
+        }
+
+        public Rectangle gibBefehlsBereich() {
+            return befehlsBereich;
+        }
+
+        public int gibAnzElemAlt() {
+            return anzElemAlt;
+        }
+
+        public void setzeAnzElemAlt(int pAnzElemAlt) {
+            anzElemAlt = pAnzElemAlt;
+        }
+
+        public int gibMark() {
+            return mark;
+        }
+
+        public void setzeMark(int pMark) {
+            mark = pMark;
+        }
+
+        public int[] gibHervorhebung() {
+            return hervorhebung;
+        }
+
+        public void setzeHervorhebung(int[] pHervorhebung) {
+            hervorhebung = pHervorhebung;
+        }
+
+        public void starteUebergang(long pJetzt, long pDauer, int pAb, int pBis, int pVersatz, int pCursorVonX) {
+            uebergangStart = pJetzt;
+            uebergangEnde = pJetzt + pDauer;
+            verschobenAb = pAb;
+            verschobenBis = pBis;
+            versatz = pVersatz;
+            cursorVonX = pCursorVonX;
+        }
+
+        public boolean uebergangLaeuft(long pJetzt) {
+            return pJetzt < uebergangEnde;
+        }
+
+        public boolean istImUebergang() {
+            return imUebergang;
+        }
+
+        public void setzeImUebergang(boolean pImUebergang) {
+            imUebergang = pImUebergang;
+        }
+
+        // 0 = Beginn, 1 = Ende des Uebergangs (abbremsend)
+        public float gibFortschritt(long pJetzt) {
+            if (pJetzt >= uebergangEnde) {
+                return 1f;
+            }
+            float t = (float) (pJetzt - uebergangStart) / (uebergangEnde - uebergangStart);
+            return 1f - (1f - t) * (1f - t);
+        }
+
+        public int gibX(int pIndex, float pFortschritt) {
+            if (zoomStufe > 0) { // Uebersicht: ohne Gleiten
+                return (int) (pIndex * pixelProElement) + 50;
+            }
+            int x = pIndex*70 + 50;
+            if (pFortschritt < 1f && pIndex >= verschobenAb && pIndex < verschobenBis) {
+                x += Math.round(versatz * (1f - pFortschritt));
+            }
+            return x;
+        }
+
+        public int gibCursorX(float pFortschritt) {
+            int ziel = gibX(gibListPosition() == -1 ? gibAnzElem() : gibListPosition(), pFortschritt);
+            if (pFortschritt >= 1f) {
+                return ziel;
+            }
+            return cursorVonX + Math.round((ziel - cursorVonX) * pFortschritt);
+        }
+
+    }
+    /**
+     * Anzeigemodell einer Liste (nur EDT). Die Inhalte liegen indiziert in zwei Puffern:
+     * "vorne" enthaelt die Elemente vor der Trennstelle, "hinten" (ringfoermig) die
+     * Elemente ab der Trennstelle. Die Trennstelle wird erst beim Einfuegen bzw. Loeschen
+     * zur betroffenen Position verschoben, daher kosten aufeinanderfolgende Aenderungen
+     * an der aktuellen Position sowie das Anhaengen amortisiert O(1).
+     *
+     * Zu jedem Element werden die Zeilen der Beschriftung (toString() getrennt an ":")
+     * beim Aufnehmen einmalig berechnet, damit beim Zeichnen nichts mehr erzeugt wird.
+     * Wie die Elemente abgelegt werden, bestimmen die Faecher (s. setCompactStorage).
+     */
+    class SpiegelListe<ContentType> {
+
+        private Faecher vorne;
+        private int anzVorne;
+        private Faecher hinten;
+        private int kopfHinten;
+        private int anzHinten;
+        private int position;
+        // wird bei CONCAT erhoeht und macht damit alle vorhandenen Beschriftungen ungueltig
+        private int beschriftungsStand;
+        // Uebersicht: Bloecke je Puffer, nach Faechern statt nach Index, damit Einfuegen und Loeschen
+        // an der Trennstelle nur ein Fach aendern. Der Wertebereich wird bis zum Leeren nur groesser.
+        private Bloecke bloeckeVorne;
+        private Bloecke bloeckeHinten;
+        private double minimum;
+        private double maximum;
+        private double gezeichnetMinimum;
+        private double gezeichnetMaximum;
+
+        public SpiegelListe(boolean pKompakt) {
+            // kompakt: zunaechst als Zahlen, beim ersten anderen Inhalt werden daraus Texte
+            vorne = pKompakt ? new ZahlFaecher(16) : new ObjektFaecher(16);
+            leeren();
+        }
+
+        public int gibAnzahl() {
+            return anzVorne + anzHinten;
+        }
+
+        public int gibPosition() {
+            return position;
+        }
+
+        public void setzePosition(int pPosition) {
+            position = pPosition;
+        }
+
+        public String[] gibZeilen(int pIndex) {
+            if (pIndex < anzVorne) {
+                return vorne.gibZeilen(pIndex, beschriftungsStand);
+            }
+            return hinten.gibZeilen((kopfHinten + pIndex - anzVorne) % hinten.laenge(), beschriftungsStand);
+        }
+
+        // Inhalt bzw. bei kompakter Ablage Beschriftung oder Zahl (fuer die Schluesselbilder)
+        public Object gibInhalt(int pIndex) {
+            if (pIndex < anzVorne) {
+                return vorne.gibInhalt(pIndex);
+            }
+            return hinten.gibInhalt((kopfHinten + pIndex - anzVorne) % hinten.laenge());
+        }
+
+        // alle Inhalte bzw. Beschriftungen (fuer den Verlauf); O(Anzahl der Elemente)
+        public Object[] gibInhalte() {
+            Object[] inhalte = new Object[gibAnzahl()];
+            for (int i=0; i<inhalte.length; i++) {
+                inhalte[i] = gibInhalt(i);
+            }
+            return inhalte;
+        }
+
+        public void leeren() {
+            vorne = vorne.neu(16);
+            anzVorne = 0;
+            hinten = vorne.neu(16);
+            kopfHinten = 0;
+            anzHinten = 0;
+            position = -1;
+            bloeckeVorne = new Bloecke(vorne.laenge());
+            bloeckeHinten = new Bloecke(hinten.laenge());
+            minimum = Double.POSITIVE_INFINITY;
+            maximum = Double.NEGATIVE_INFINITY;
+        }
+
+        // Zahlenwert des Elements oder NaN
+        public double gibWert(int pIndex) {
+            if (pIndex < anzVorne) {
+                return vorne.gibWert(pIndex);
+            }
+            return hinten.gibWert((kopfHinten + pIndex - anzVorne) % hinten.laenge());
+        }
+
+        public double gibMinimum() {
+            return minimum;
+        }
+
+        public double gibMaximum() {
+            return maximum;
+        }
+
+        // liefert true, wenn sich der Wertebereich seit dem letzten Aufruf geaendert hat
+        public boolean merkeWertebereich() {
+            if (minimum == gezeichnetMinimum && maximum == gezeichnetMaximum) {
+                return false;
+            }
+            gezeichnetMinimum = minimum;
+            gezeichnetMaximum = maximum;
+            return true;
+        }
+
+        // Mittelwert der Zahlenwerte mit Index in [pVon, pBis) oder NaN; ganz belegte Bloecke
+        // werden nur noch gelesen
+        public double gibMittelwert(int pVon, int pBis) {
+            double summe = 0;
+            int zahlen = 0;
+            int i = pVon;
+            while (i < pBis) {
+                boolean istVorne = i < anzVorne;
+                Faecher faecher = istVorne ? vorne : hinten;
+                Bloecke bloecke = istVorne ? bloeckeVorne : bloeckeHinten;
+                int fach = istVorne ? i : (kopfHinten + i - anzVorne) % hinten.laenge();
+                // der Block muss ganz im Bereich liegen und darf im Ring nicht umbrechen
+                int ende = istVorne ? Math.min(pBis, anzVorne) : pBis;
+                if (fach % UEBERSICHT_BLOCK == 0 && i + UEBERSICHT_BLOCK <= ende
+                    && fach + UEBERSICHT_BLOCK <= faecher.laenge()) {
+                    summe += bloecke.gibSumme(fach / UEBERSICHT_BLOCK);
+                    zahlen += bloecke.gibZahlen(fach / UEBERSICHT_BLOCK);
+                    i += UEBERSICHT_BLOCK;
+                }
+                else {
+                    double wert = faecher.gibWert(fach);
+                    if (wert == wert) {
+                        summe += wert;
+                        zahlen++;
+                    }
+                    i++;
+                }
+            }
+            return zahlen == 0 ? Double.NaN : summe / zahlen;
+        }
+
+        // nach dem Belegen (pVorzeichen 1) bzw. vor dem Leeren (-1) eines Fachs
+        private void zaehleVorne(int pFach, int pVorzeichen) {
+            zaehle(bloeckeVorne, pFach, vorne.gibWert(pFach), pVorzeichen);
+        }
+
+        private void zaehleHinten(int pFach, int pVorzeichen) {
+            zaehle(bloeckeHinten, pFach, hinten.gibWert(pFach), pVorzeichen);
+        }
+
+        private void zaehle(Bloecke pBloecke, int pFach, double pWert, int pVorzeichen) {
+            if (pWert != pWert) {
+                return;
+            }
+            pBloecke.zaehle(pFach, pWert, pVorzeichen);
+            minimum = Math.min(minimum, pWert);
+            maximum = Math.max(maximum, pWert);
+        }
+
+        public void setze(int pIndex, Object pInhalt) {
+            pruefe(pInhalt);
+            if (pIndex < anzVorne) {
+                zaehleVorne(pIndex, -1);
+                vorne.setze(pIndex, pInhalt, beschriftungsStand);
+                zaehleVorne(pIndex, 1);
+            }
+            else {
+                int fach = (kopfHinten + pIndex - anzVorne) % hinten.laenge();
+                zaehleHinten(fach, -1);
+                hinten.setze(fach, pInhalt, beschriftungsStand);
+                zaehleHinten(fach, 1);
+            }
+        }
+
+        public void haengeAn(Object pInhalt) {
+            pruefe(pInhalt);
+            vergroessereHinten();
+            int fach = (kopfHinten + anzHinten) % hinten.laenge();
+            hinten.setze(fach, pInhalt, beschriftungsStand);
+            zaehleHinten(fach, 1);
+            anzHinten++;
+        }
+
+        // CONCAT: die uebergebenen Inhalte anhaengen und alle Beschriftungen neu berechnen lassen
+        public void haengeAn(Object[] pInhalte) {
+            beschriftungsStand++;
+            for (int i=0; i<pInhalte.length; i++) {
+                haengeAn(pInhalte[i]);
+            }
+        }
+
+        public void fuegeEin(int pIndex, Object pInhalt) {
+            pruefe(pInhalt);
+            verschiebeTrennstelle(pIndex);
+            vergroessereVorne();
+            vorne.setze(anzVorne, pInhalt, beschriftungsStand);
+            zaehleVorne(anzVorne++, 1);
+        }
+
+        public void entferne(int pIndex) {
+            verschiebeTrennstelle(pIndex);
+            zaehleHinten(kopfHinten, -1);
+            hinten.leere(kopfHinten);
+            kopfHinten = (kopfHinten + 1) % hinten.laenge();
+            anzHinten--;
+        }
+
+        // Gegenstueck zu haengeAn fuer den Verlauf; O(1), die Trennstelle bleibt, wo sie ist
+        public void entferneLetztes() {
+            if (anzHinten > 0) {
+                anzHinten--;
+                int fach = (kopfHinten + anzHinten) % hinten.laenge();
+                zaehleHinten(fach, -1);
+                hinten.leere(fach);
+            }
+            else {
+                zaehleVorne(--anzVorne, -1);
+                vorne.leere(anzVorne);
+            }
+        }
+
+        // passt der Inhalt nicht in die Faecher (keine Zahl), werden beide Puffer zu Texten
+        private void pruefe(Object pInhalt) {
+            if (!vorne.nimmt(pInhalt)) {
+                vorne = vorne.alsText();
+                hinten = hinten.alsText();
+                // Texte haben keinen Zahlenwert
+                bloeckeVorne.leeren();
+                bloeckeHinten.leeren();
+            }
+        }
+
+        // je verschobenes Element wird ein Fach in beiden Bloecken umgerechnet
+        private void verschiebeTrennstelle(int pIndex) {
+            while (anzVorne > pIndex) {
+                vergroessereHinten();
+                kopfHinten = (kopfHinten - 1 + hinten.laenge()) % hinten.laenge();
+                zaehleVorne(--anzVorne, -1);
+                vorne.kopiere(anzVorne, hinten, kopfHinten);
+                zaehleHinten(kopfHinten, 1);
+                vorne.leere(anzVorne);
+                anzHinten++;
+            }
+            while (anzVorne < pIndex) {
+                vergroessereVorne();
+                zaehleHinten(kopfHinten, -1);
+                hinten.kopiere(kopfHinten, vorne, anzVorne);
+                zaehleVorne(anzVorne++, 1);
+                hinten.leere(kopfHinten);
+                kopfHinten = (kopfHinten + 1) % hinten.laenge();
+                anzHinten--;
+            }
+        }
+
+        private void vergroessereVorne() {
+            if (anzVorne == vorne.laenge()) {
+                vorne = vorne.vergroessere(anzVorne);
+                bloeckeVorne.sichere(vorne.laenge());
+            }
+        }
+
+        // der Ring beginnt danach wieder bei Fach 0, seine Bloecke werden neu bestimmt; O(n) wie das Kopieren
+        private void vergroessereHinten() {
+            if (anzHinten < hinten.laenge()) {
+                return;
+            }
+            Faecher neu = hinten.neu(hinten.laenge() * 2);
+            bloeckeHinten = new Bloecke(neu.laenge());
+            for (int i=0; i<anzHinten; i++) {
+                hinten.kopiere((kopfHinten + i) % hinten.laenge(), neu, i);
+                bloeckeHinten.zaehle(i, neu.gibWert(i), 1);
+            }
+            hinten = neu;
+            kopfHinten = 0;
+        }
+    }
+
+    /**
+     * Uebersicht einer SpiegelListe: Summe und Anzahl der Zahlenwerte je Block von
+     * UEBERSICHT_BLOCK aufeinanderfolgenden Faechern eines Puffers. Jede Aenderung eines Fachs
+     * wird sofort in O(1) eingerechnet, beim Zeichnen werden die Summen nur gelesen.
+     */
+    private static class Bloecke {
+
+        private double[] summe;
+        private int[] zahlen;
+
+        public Bloecke(int pFaecher) {
+            summe = new double[gibAnzahl(pFaecher)];
+            zahlen = new int[summe.length];
+        }
+
+        private static int gibAnzahl(int pFaecher) {
+            return (pFaecher + UEBERSICHT_BLOCK - 1) / UEBERSICHT_BLOCK;
+        }
+
+        // der Puffer hat nun pFaecher Faecher, die vorhandenen bleiben in ihren Bloecken
+        public void sichere(int pFaecher) {
+            int anzahl = gibAnzahl(pFaecher);
+            if (anzahl > summe.length) {
+                summe = Arrays.copyOf(summe, anzahl);
+                zahlen = Arrays.copyOf(zahlen, anzahl);
+            }
+        }
+
+        public void zaehle(int pFach, double pWert, int pVorzeichen) {
+            if (pWert != pWert) {
+                return;
+            }
+            int block = pFach / UEBERSICHT_BLOCK;
+            zahlen[block] += pVorzeichen;
+            // ohne Zahlen genau 0, damit sich keine Rundungsfehler ansammeln
+            summe[block] = zahlen[block] == 0 ? 0 : summe[block] + pVorzeichen * pWert;
+        }
+
+        public double gibSumme(int pBlock) {
+            return summe[pBlock];
+        }
+
+        public int gibZahlen(int pBlock) {
+            return zahlen[pBlock];
+        }
+
+        public void leeren() {
+            Arrays.fill(summe, 0);
+            Arrays.fill(zahlen, 0);
+        }
+    }
+
+    /**
+     * Puffer fester Laenge fuer die Elemente einer SpiegelListe (nur EDT). Kopiert wird
+     * nur zwischen Faechern derselben Art.
+     */
+    private abstract class Faecher {
+
+        public abstract int laenge();
+
+        // leere Faecher derselben Art
+        public abstract Faecher neu(int pLaenge);
+
+        public abstract boolean nimmt(Object pInhalt);
+
+        public abstract void setze(int pFach, Object pInhalt, int pStand);
+
+        public abstract String[] gibZeilen(int pFach, int pStand);
+
+        public abstract Object gibInhalt(int pFach);
+
+        // Zahlenwert fuer die Uebersicht oder NaN
+        public abstract double gibWert(int pFach);
+
+        public abstract void kopiere(int pFach, Faecher pZiel, int pZielFach);
+
+        public abstract void leere(int pFach);
+
+        public abstract Faecher alsText();
+
+        // die ersten pAnzahl Faecher in doppelt so viele Faecher uebernehmen
+        public Faecher vergroessere(int pAnzahl) {
+            Faecher neu = neu(laenge() * 2);
+            for (int i=0; i<pAnzahl; i++) {
+                kopiere(i, neu, i);
+            }
+            return neu;
+        }
+    }
+
+    /**
+     * Standard: haelt die Inhalte selbst, ihre Beschriftung wird nach CONCAT neu bestimmt.
+     */
+    private class ObjektFaecher extends Faecher {
+
+        private Object[] inhalte;
+        private String[][] zeilen;
+        private int[] staende;
+
+        public ObjektFaecher(int pLaenge) {
+            inhalte = new Object[pLaenge];
+            zeilen = new String[pLaenge][];
+            staende = new int[pLaenge];
+        }
+
+        public int laenge() {
+            return inhalte.length;
+        }
+
+        public Faecher neu(int pLaenge) {
+            return new ObjektFaecher(pLaenge);
+        }
+
+        public boolean nimmt(Object pInhalt) {
+            return true;
         }
-        catch (Exception e) {
-        }        
 
+        public void setze(int pFach, Object pInhalt, int pStand) {
+            inhalte[pFach] = pInhalt;
+            zeilen[pFach] = pInhalt.toString().split(":");
+            staende[pFach] = pStand;
+        }
+
+        public String[] gibZeilen(int pFach, int pStand) {
+            if (staende[pFach] != pStand) {
+                zeilen[pFach] = inhalte[pFach].toString().split(":");
+                staende[pFach] = pStand;
+            }
+            return zeilen[pFach];
+        }
+
+        public Object gibInhalt(int pFach) {
+            return inhalte[pFach];
+        }
+
+        public double gibWert(int pFach) {
+            return inhalte[pFach] instanceof Number? ((Number) inhalte[pFach]).doubleValue() : Double.NaN;
+        }
+
+        public void kopiere(int pFach, Faecher pZiel, int pZielFach) {
+            ObjektFaecher ziel = (ObjektFaecher) pZiel;
+            ziel.inhalte[pZielFach] = inhalte[pFach];
+            ziel.zeilen[pZielFach] = zeilen[pFach];
+            ziel.staende[pZielFach] = staende[pFach];
+        }
+
+        public void leere(int pFach) {
+            inhalte[pFach] = null;
+            zeilen[pFach] = null;
+        }
+
+        public Faecher alsText() {
+            return this;
+        }
     }
 
-    private class VPanel<ContentType> extends JPanel {
+    /**
+     * Kompakt: nur die (mehrfach genutzten) Zeilen der Beschriftung, die Inhalte selbst
+     * werden nicht festgehalten.
+     */
+    private class TextFaecher extends Faecher {
+
+        private String[][] zeilen;
 
-        private List<ContentType> list;
-        private List<ContentType> originalList;
-        private String text;
+        public TextFaecher(int pLaenge) {
+            zeilen = new String[pLaenge][];
+        }
+
+        public int laenge() {
+            return zeilen.length;
+        }
+
+        public Faecher neu(int pLaenge) {
+            return new TextFaecher(pLaenge);
+        }
+
+        public boolean nimmt(Object pInhalt) {
+            return true;
+        }
+
+        public void setze(int pFach, Object pInhalt, int pStand) {
+            zeilen[pFach] = zerlegeBeschriftung(pInhalt.toString());
+        }
+
+        public String[] gibZeilen(int pFach, int pStand) {
+            return zeilen[pFach];
+        }
+
+        public Object gibInhalt(int pFach) {
+            return String.join(":", zeilen[pFach]);
+        }
+
+        public double gibWert(int pFach) {
+            return Double.NaN;
+        }
+
+        public void kopiere(int pFach, Faecher pZiel, int pZielFach) {
+            ((TextFaecher) pZiel).zeilen[pZielFach] = zeilen[pFach];
+        }
+
+        public void leere(int pFach) {
+            zeilen[pFach] = null;
+        }
+
+        public Faecher alsText() {
+            return this;
+        }
+    }
+
+    /**
+     * Kompakt fuer Zahlen (z.B. List<Integer>): vier Byte pro Element.
+     */
+    private class ZahlFaecher extends Faecher {
+
+        private int[] zahlen;
+
+        public ZahlFaecher(int pLaenge) {
+            zahlen = new int[pLaenge];
+        }
+
+        public int laenge() {
+            return zahlen.length;
+        }
+
+        public Faecher neu(int pLaenge) {
+            return new ZahlFaecher(pLaenge);
+        }
+
+        public boolean nimmt(Object pInhalt) {
+            return pInhalt instanceof Integer;
+        }
+
+        public void setze(int pFach, Object pInhalt, int pStand) {
+            zahlen[pFach] = ((Integer) pInhalt).intValue();
+        }
+
+        public String[] gibZeilen(int pFach, int pStand) {
+            return gibZahlBeschriftung(zahlen[pFach]);
+        }
+
+        public Object gibInhalt(int pFach) {
+            return Integer.valueOf(zahlen[pFach]);
+        }
+
+        public double gibWert(int pFach) {
+            return zahlen[pFach];
+        }
+
+        public void kopiere(int pFach, Faecher pZiel, int pZielFach) {
+            ((ZahlFaecher) pZiel).zahlen[pZielFach] = zahlen[pFach];
+        }
+
+        public void leere(int pFach) {
+        }
+
+        public Faecher alsText() {
+            TextFaecher text = new TextFaecher(zahlen.length);
+            for (int i=0; i<zahlen.length; i++) {
+                text.zeilen[i] = gibZahlBeschriftung(zahlen[i]);
+            }
+            return text;
+        }
+    }
+
+    /**
+     * Erfassung einer Originalliste auf dem Thread des Aufrufers. Sie kennt Anzahl, Position
+     * und Markierung und liest neue Inhalte aus der Originalliste, ohne deren Zeiger zu bewegen:
+     * Dazu werden Hilfslisten verwendet, deren (paketsichtbares) Attribut current auf Knoten
+     * der Originalliste gesetzt wird.
+     */
+    class ListenErfassung<ContentType> {
+
+        private ListenReferenz<ContentType> referenz;
+        private int id;
+        // Befehle dieser Liste werden unter dieser Sperre erfasst und veroeffentlicht (s. erfasseBefehl)
+        private final ReentrantLock sperre = new ReentrantLock();
+        // animate(List, String) wartet zwischen seinen Schritten ohne die Sperre (s. veroeffentlicheSchritt)
+        private boolean abgleichOffen;
+        private final Condition abgleichFertig = sperre.newCondition();
+        // von CONCAT einer anderen Liste geleert, aber noch nicht erfasst (s. leereNachConcat)
+        private final AtomicBoolean geleert = new AtomicBoolean();
+        // Thread, der zuletzt einen Befehl fuer diese Liste aufgerufen hat (s. StepMode.SELECTED)
+        private volatile SchrittTor.Wartender produzent;
+        // Messwerte dieser Liste, erst bei der ersten Messung angelegt
+        volatile Messwerte.ListenMessung messung;
+        // stark referenziert nur waehrend eines Befehls (beginneBefehl/beendeBefehl)
+        private List<ContentType> original;
+        private int hash;
         private ArrayList<String> refNames;
-        private int anzElem;
-        private int anzElemAlt;
-        private int listPosition;
+        private Object[] anfangsInhalte;
+        private int anzahl;
+        private int position;
         private int mark;
-        private DrawPanel dp;        
+        // nur nach animate(List, String): angezeigter Stand als Kennungen der Knoten (Identitaet)
+        // und Inhalte; null, solange er nicht bekannt ist (s. AbgleichBefehl)
+        private int[] abgleichKnoten;
+        private Object[] abgleichInhalte;
+        // wird nur vom EDT gesetzt und gelesen
+        private VPanel<ContentType> vPan;
 
-        public VPanel() {
-            this.setLayout(new BorderLayout());
-            list = new List<ContentType>();
-            originalList = new List<ContentType>();
-            text = "";
+        // Zweitzeiger in die Knoten der Originalliste. Da jeder Knoten auf seine Liste verweist,
+        // werden sie zwischen zwei Befehlen nur schwach gehalten: weich gehalten waere auch die
+        // Liste nur weich erreichbar und ihre ListenReferenz wuerde nie eingereiht. Gehen sie
+        // verloren (bei jeder Einsammlung moeglich), wird bei Bedarf vom Anfang der Liste aus gesucht.
+        private WeakReference<Knotenzeiger> zeigerRef;
+        // stark referenziert nur waehrend eines Befehls
+        private Knotenzeiger z;
+        private List<ContentType> hilfsZeiger;
+
+        private class Knotenzeiger {
+            private List<ContentType> aktKnoten = new List<ContentType>();
+            private boolean aktBekannt;
+            private List<ContentType> vorgKnoten = new List<ContentType>();
+            private boolean vorgBekannt;
+            private List<ContentType> letzterKnoten = new List<ContentType>();
+            private boolean letzterBekannt;
+        }
+
+        public ListenErfassung(List<ContentType> pOriginal) {
+            referenz = new ListenReferenz<ContentType>(pOriginal, this, verwaist);
+            id = naechsteListenId.getAndIncrement();
+            hash = System.identityHashCode(pOriginal);
             refNames = new ArrayList<String>();
-            anzElem = 0;
-            anzElemAlt = 0;
-            listPosition = -1;
+            hilfsZeiger = new List<ContentType>();
+            original = pOriginal;
+            z = new Knotenzeiger();
+            zeigerRef = new WeakReference<Knotenzeiger>(z);
+            anfangsInhalte = neuErfassen();
             mark = -1;
-            dp = new DrawPanel(this, 640);
-            this.add(dp, BorderLayout.CENTER);            
+            beendeBefehl();
         }
 
-        public void resetOriginalListPointer() {
-            if (listPosition == -1) {
-                originalList.toLast();
-                originalList.next();
+        // Wiedergabe: ohne Originalliste, es werden nur Nummer und VPanel gebraucht
+        public ListenErfassung(int pId) {
+            id = pId;
+        }
+
+        // liefert false, wenn die Liste bereits eingesammelt wurde
+        public boolean beginneBefehl() {
+            original = referenz.get();
+            if (original == null) {
+                return false;
             }
-            else {
-                // Zeiger der Originalliste zurücksetzen
-                originalList.toFirst();            
-                int pos = 0;
-                while (pos < listPosition) {
-                    originalList.next();
-                    pos++;
+            z = zeigerRef.get();
+            if (z == null) { // alle Zeiger unbekannt
+                z = new Knotenzeiger();
+                zeigerRef = new WeakReference<Knotenzeiger>(z);
+            }
+            return true;
+        }
+
+        public void beendeBefehl() {
+            original = null;
+            z = null;
+            hilfsZeiger.current = null;
+        }
+
+        // vollstaendige Kopie, dabei die Position des Original-Zeigers ermitteln; O(n)
+        public Object[] neuErfassen() {
+            return neuErfassen(false);
+        }
+
+        // pAbgleich: Kennungen der Knoten und Inhalte als Stand fuer den naechsten Abgleich merken
+        public Object[] neuErfassen(boolean pAbgleich) {
+            int markVorher = mark;
+            leeren();
+            ArrayList<Object> inhalte = new ArrayList<Object>();
+            int[] knoten = pAbgleich ? new int[16] : null;
+            hilfsZeiger.current = original.first;
+            while (hilfsZeiger.hasAccess()) {
+                if (hilfsZeiger.current == original.current) {
+                    position = anzahl;
+                    z.vorgBekannt = true;
+                }
+                else if (position == -1) {
+                    z.vorgKnoten.current = hilfsZeiger.current;
+                }
+                if (knoten != null) {
+                    if (anzahl == knoten.length) {
+                        knoten = Arrays.copyOf(knoten, anzahl * 2);
+                    }
+                    knoten[anzahl] = System.identityHashCode(hilfsZeiger.current);
                 }
+                inhalte.add(hilfsZeiger.getContent());
+                anzahl++;
+                hilfsZeiger.next();
+            }
+            z.aktKnoten.current = original.current;
+            z.letzterKnoten.current = original.last;
+            mark = markVorher < anzahl ? markVorher : -1;
+            Object[] ergebnis = inhalte.toArray();
+            if (knoten != null) {
+                abgleichKnoten = Arrays.copyOf(knoten, anzahl);
+                abgleichInhalte = ergebnis;
             }
+            return ergebnis;
         }
 
-        public List<ContentType> gibList() {
-            return list;
+        public int[] gibAbgleichKnoten() {
+            return abgleichKnoten;
         }
 
-        public void setzeList(List<ContentType> pList) {
-            list = pList;
+        public Object[] gibAbgleichInhalte() {
+            return abgleichInhalte;
         }
 
-        public List<ContentType> gibOriginalList() {
-            return originalList;
+        public void vergissAbgleich() {
+            abgleichKnoten = null;
+            abgleichInhalte = null;
         }
 
-        public void setzeOriginalList(List<ContentType> pOriginalList) {
-            originalList = pOriginalList;             
-            list = new List<ContentType>();
-            originalList.toFirst();
-            anzElem = 0;            
-            while (originalList.hasAccess()) {
-                list.append(originalList.getContent());
-                originalList.next();
-                anzElem++;
-            }
-            listPosition = -1;
+        public int gibId() {
+            return id;
         }
 
-        public String gibRefNames() {
-            String s = "";
-            for (int i=0; i<refNames.size(); i++) {
-                s += refNames.get(i) + ", ";
-            }
-            s = s.substring(0, s.length()-2);
-            return s;
+        public List<ContentType> gibOriginal() {
+            return referenz.get();
+        }
+
+        public ListenReferenz<ContentType> gibReferenz() {
+            return referenz;
+        }
+
+        public int gibHash() {
+            return hash;
+        }
+
+        // die Kopie wird nur fuer das ADDLIST-Ereignis gebraucht und danach nicht festgehalten
+        public Object[] entnehmeAnfangsInhalte() {
+            Object[] inhalte = anfangsInhalte;
+            anfangsInhalte = null;
+            return inhalte;
         }
 
         public void addRefName(String pRefName) {
             refNames.add(pRefName);
         }
 
-        public void removeRefName(String pRefName) {            
-            refNames.remove(pRefName);
+        public ArrayList<String> gibRefNamenListe() {
+            return refNames;
         }
 
-        public int gibAnzElem() {
-            return anzElem;
+        public int gibAnzahl() {
+            return anzahl;
         }
 
-        public void setzeAnzElem(int pAnzElem) {
-            anzElem = pAnzElem;
+        public int gibPosition() {
+            return position;
         }
 
-        public int gibListPosition() {
-            return listPosition;
+        public int gibMark() {
+            return mark;
         }
 
-        public void setzeListPosition(int pListPosition) {
-            listPosition = pListPosition;
+        public void setzeMark(int pMark) {
+            mark = pMark;
         }
 
-        public DrawPanel gibDP() {
-            return dp;
+        public VPanel<ContentType> gibVPanel() {
+            return vPan;
         }
 
-        public void setzeDP(DrawPanel pDP) {
-            dp = pDP;
+        public ReentrantLock gibSperre() {
+            return sperre;
         }
 
-        public String gibText() {
-            return text;
+        // unter der Sperre: bis alle Schritte eines laufenden Abgleichs veroeffentlicht sind
+        public void warteAufAbgleich() {
+            while (abgleichOffen) {
+                abgleichFertig.awaitUninterruptibly();
+            }
         }
 
-        public void setzeText(String pText) {
-            text = pText;            
+        public void setzeAbgleichOffen(boolean pOffen) {
+            abgleichOffen = pOffen;
+            if (!pOffen) {
+                abgleichFertig.signalAll();
+            }
         }
 
-        public int gibAnzElemAlt() {
-            return anzElemAlt;
+        // ohne die Sperre dieser Erfassung, unter der Sperre der Erfassung, an die angehaengt wurde
+        public void merkeGeleert() {
+            geleert.set(true);
         }
 
-        public void setzeAnzElemAlt(int pAnzElemAlt) {
-            anzElemAlt = pAnzElemAlt;
+        public boolean istGeleert() {
+            return geleert.get();
         }
 
-        public int gibMark() {
-            return mark;
+        // unter der Sperre: true nur fuer den ersten Aufrufer nach merkeGeleert
+        public boolean nimmGeleert() {
+            return geleert.compareAndSet(true, false);
         }
 
-        public void setzeMark(int pMark) {
-            mark = pMark;
+        // Aufrufer und EDT; nur beim ersten Mal wird angelegt
+        public Messwerte.ListenMessung gibMessung() {
+            Messwerte.ListenMessung m = messung;
+            if (m == null) {
+                synchronized (this) {
+                    if (messung == null) {
+                        messung = new Messwerte.ListenMessung();
+                    }
+                    m = messung;
+                }
+            }
+            return m;
+        }
+
+        public SchrittTor.Wartender gibProduzent() {
+            return produzent;
+        }
+
+        public void setzeProduzent(SchrittTor.Wartender pProduzent) {
+            produzent = pProduzent;
+        }
+
+        public void setzeVPanel(VPanel<ContentType> pVPanel) {
+            vPan = pVPanel;
+        }
+
+        public void leeren() {
+            anzahl = 0;
+            position = -1;
+            mark = -1;
+            if (z != null) {
+                z.aktKnoten.current = null;
+                z.aktBekannt = true;
+                z.vorgKnoten.current = null;
+                z.vorgBekannt = false;
+                z.letzterKnoten.current = null;
+                z.letzterBekannt = true;
+            }
+            else { // ausserhalb eines Befehls (CONCAT einer anderen Liste)
+                zeigerRef.clear();
+            }
+            if (abgleichKnoten != null) { // die geleerte Liste bleibt abgleichbar
+                abgleichKnoten = new int[0];
+                abgleichInhalte = new Object[0];
+            }
+        }
+
+        public void toFirst() {
+            if (anzahl > 0) {
+                position = 0;
+                z.aktKnoten.current = original.first;
+                z.aktBekannt = true;
+                z.vorgKnoten.current = null;
+                z.vorgBekannt = true;
+            }
+        }
+
+        public void next() {
+            if (position != -1) {
+                position++;
+                if (position == anzahl) {
+                    position = -1;
+                }
+                z.vorgKnoten.current = z.aktKnoten.current;
+                z.vorgBekannt = z.aktBekannt;
+                z.aktKnoten.current = original.current;
+                z.aktBekannt = true;
+            }
+        }
+
+        public void toLast() {
+            if (anzahl > 0) {
+                position = anzahl - 1;
+                z.aktKnoten.current = original.last;
+                z.aktBekannt = true;
+                // Vorgaenger ist ohne Durchlauf nicht bekannt, er wird ggf. bei INSERT ermittelt
+                z.vorgKnoten.current = null;
+                z.vorgBekannt = position == 0;
+            }
+        }
+
+        // liefert den neuen Inhalt des aktuellen Elements oder null
+        public Object setContent() {
+            if (position == -1) {
+                return null;
+            }
+            return original.getContent();
+        }
+
+        // liefert den angehaengten Inhalt oder null
+        public Object append() {
+            if (original.isEmpty()) {
+                return null;
+            }
+            hilfsZeiger.current = original.last;
+            z.letzterKnoten.current = original.last;
+            z.letzterBekannt = true;
+            anzahl++;
+            return hilfsZeiger.getContent();
+        }
+
+        // liefert den eingefuegten Inhalt oder null
+        public Object insert() {
+            // falls Liste leer -> Element einfügen, Position bleibt -1
+            if (anzahl == 0) {
+                if (original.isEmpty()) {
+                    return null;
+                }
+                z.letzterKnoten.current = original.last;
+                z.letzterBekannt = true;
+                anzahl++;
+                hilfsZeiger.current = original.first;
+                return hilfsZeiger.getContent();
+            }
+            // nur bei vorhandenem aktuellen Element wird vor diesem eingefuegt
+            if (position == -1) {
+                return null;
+            }
+            if (position == 0) {
+                hilfsZeiger.current = original.first;
+            }
+            else if (z.vorgBekannt) {
+                hilfsZeiger.current = z.vorgKnoten.current;
+                hilfsZeiger.next();
+            }
+            else {
+                geheZu(position);
+            }
+            z.vorgKnoten.current = hilfsZeiger.current;
+            z.vorgBekannt = true;
+            position++;
+            anzahl++;
+            return hilfsZeiger.getContent();
+        }
+
+        public boolean remove() {
+            if (anzahl == 0 || position == -1) {
+                return false;
+            }
+            anzahl--;
+            if (position == anzahl) {
+                position = -1;
+            }
+            z.aktKnoten.current = original.current;
+            z.aktBekannt = true;
+            z.letzterKnoten.current = original.last;
+            z.letzterBekannt = true;
+            return true;
+        }
+
+        // liefert die neu angehaengten Inhalte
+        public Object[] concat() {
+            // nur die neu angehaengten Knoten hinter dem bisher letzten Knoten kopieren
+            if (!z.letzterBekannt && anzahl > 0) {
+                geheZu(anzahl - 1);
+                z.letzterKnoten.current = hilfsZeiger.current;
+                z.letzterBekannt = true;
+            }
+            if (z.letzterBekannt && z.letzterKnoten.hasAccess()) {
+                hilfsZeiger.current = z.letzterKnoten.current;
+                hilfsZeiger.next();
+            }
+            else {
+                hilfsZeiger.current = original.first;
+            }
+            ArrayList<Object> neu = new ArrayList<Object>();
+            while (hilfsZeiger.hasAccess()) {
+                neu.add(hilfsZeiger.getContent());
+                hilfsZeiger.next();
+            }
+            anzahl += neu.size();
+            z.letzterKnoten.current = original.last;
+            return neu.toArray();
+        }
+
+        // ObservableList: Anzahl und Position aus der Meldung uebernehmen; die Zweitzeiger
+        // werden dabei nicht nachgefuehrt und gelten fuer spaetere Befehle als unbekannt
+        public void uebernimm(int pAnzahl, int pPosition) {
+            anzahl = pAnzahl;
+            position = pPosition;
+            if (mark >= anzahl) {
+                mark = -1;
+            }
+            z.aktBekannt = false;
+            z.vorgBekannt = false;
+            z.letzterBekannt = false;
+        }
+
+        // hilfsZeiger auf den Knoten mit dem Index pIndex setzen; O(pIndex)
+        private void geheZu(int pIndex) {
+            hilfsZeiger.current = original.first;
+            for (int i=0; i<pIndex; i++) {
+                hilfsZeiger.next();
+            }
+        }
+    }
+
+    /**
+     * Schwache Referenz auf eine Originalliste; nach dem Einsammeln der Liste wird sie in die
+     * ReferenceQueue verwaist eingereiht und fuehrt dort zur zugehoerigen Erfassung.
+     */
+    private static class ListenReferenz<T> extends WeakReference<List<T>> {
+
+        private final Object erfassung;
+
+        public ListenReferenz(List<T> pListe, Object pErfassung, ReferenceQueue<Object> pQueue) {
+            super(pListe, pQueue);
+            erfassung = pErfassung;
+        }
+
+        public Object gibErfassung() {
+            return erfassung;
+        }
+    }
+
+    /**
+     * Zuordnung Listen-Objekt -> Erfassung per Identitaet wie IdentityHashMap, jedoch ohne die
+     * Listen stark zu referenzieren. Gelesen wird ohne Sperre (animate), geaendert nur unter
+     * erfassungsSperre: Die Faecher enthalten unveraenderliche Ketten, ein Schreiber ersetzt
+     * jeweils nur den Anfang einer Kette bzw. beim Vergroessern die ganze Tabelle.
+     */
+    private class ListenTabelle {
+
+        private volatile AtomicReferenceArray<Eintrag> faecher =
+            new AtomicReferenceArray<Eintrag>(64);
+        private int anzahl;
+
+        public ListenErfassung<ContentType> gib(List<ContentType> pListe) {
+            int hash = System.identityHashCode(pListe);
+            AtomicReferenceArray<Eintrag> f = faecher;
+            Eintrag e = f.get(hash & (f.length() - 1));
+            while (e != null) {
+                if (e.erfassung.gibHash() == hash && e.erfassung.gibOriginal() == pListe) {
+                    return e.erfassung;
+                }
+                e = e.naechster;
+            }
+            return null;
+        }
+
+        public void fuegeEin(ListenErfassung<ContentType> pErfassung) {
+            AtomicReferenceArray<Eintrag> f = faecher;
+            if (anzahl >= f.length() * 3 / 4) {
+                AtomicReferenceArray<Eintrag> neu =
+                    new AtomicReferenceArray<Eintrag>(f.length() * 2);
+                for (int i=0; i<f.length(); i++) {
+                    for (Eintrag e = f.get(i); e != null; e = e.naechster) {
+                        haengeEin(neu, e.erfassung);
+                    }
+                }
+                // erst die vollstaendige Tabelle wird sichtbar
+                faecher = neu;
+                f = neu;
+            }
+            haengeEin(f, pErfassung);
+            anzahl++;
+        }
+
+        private void haengeEin(AtomicReferenceArray<Eintrag> pFaecher, ListenErfassung<ContentType> pErfassung) {
+            int fach = pErfassung.gibHash() & (pFaecher.length() - 1);
+            pFaecher.set(fach, new Eintrag(pErfassung, pFaecher.get(fach)));
         }
 
+        // funktioniert auch, wenn die Liste bereits eingesammelt wurde (Suche ueber hash und Identitaet der Erfassung);
+        // die Eintraege vor dem entfernten werden kopiert, der Rest der Kette bleibt
+        public void entferne(ListenErfassung<ContentType> pErfassung) {
+            AtomicReferenceArray<Eintrag> f = faecher;
+            int fach = pErfassung.gibHash() & (f.length() - 1);
+            Eintrag anfang = f.get(fach);
+            Eintrag e = anfang;
+            while (e != null && e.erfassung != pErfassung) {
+                e = e.naechster;
+            }
+            if (e == null) {
+                return;
+            }
+            Eintrag rest = e.naechster;
+            for (Eintrag v = anfang; v != e; v = v.naechster) {
+                rest = new Eintrag(v.erfassung, rest);
+            }
+            f.set(fach, rest);
+            anzahl--;
+        }
     }
-    private class DrawPanel extends JPanel implements ActionListener{
 
-        private VPanel vParent;
+    private class Eintrag {
+
+        private final ListenErfassung<ContentType> erfassung;
+        private final Eintrag naechster;
+
+        public Eintrag(ListenErfassung<ContentType> pErfassung, Eintrag pNaechster) {
+            erfassung = pErfassung;
+            naechster = pNaechster;
+        }
+    }
 
-        public DrawPanel(VPanel pVPanelParent, int pWidth) {
-            vParent = pVPanelParent;            
-            setPreferredSize(new Dimension(pWidth, dpHeight));
-            setBorder(BorderFactory.createEtchedBorder());
+    // ein Knoten mit Kasten, Beschriftung und Pfeil zum naechsten Knoten an der x-Position pX;
+    // danach sind wie bei jedem Knoten duenner Strich und Schwarz gesetzt
+    void zeichneKnotenSofort(Zeichenflaeche<ContentType> g, String[] pZeilen, int pX, Color pRahmenFarbe, Stroke pRahmenStrich) {
+        g.setStroke(STRICH_DUENN);
+        g.setColor(Color.WHITE);
+        g.fillRect(pX-5, startYCoord-15, 50, 50);
+        g.setStroke(pRahmenStrich);
+        g.setColor(pRahmenFarbe);
+        g.drawRect(pX-5, startYCoord-15, 50, 50);
+        g.setStroke(STRICH_DUENN);
+        g.setColor(Color.BLACK);
+        for (int i=0; i<pZeilen.length; i++) {
+            g.drawString(pZeilen[i], pX, startYCoord+i*15);
         }
+        g.drawLine(pX+45, startYCoord+10, pX+65, startYCoord+10);
+        g.drawLine(pX+60, startYCoord+5, pX+65, startYCoord+10);
+        g.drawLine(pX+60, startYCoord+15, pX+65, startYCoord+10);
+    }
+
+    /**
+     * Zeichnet alle Listen untereinander,jede in einer Zeile der Hoehe dpHeight. Wie bei
+     * JList gibt es nur dieses eine Bauteil: fuer jede Zeile im sichtbaren Ausschnitt wird
+     * vParent auf das passende VPanel gesetzt und die Szene verschoben gezeichnet. Beim aktiven
+     * Zeichnen zeichnet Swing nur noch aufgedeckte Stellen, alles andere zeichnet AktivesZeichnen.
+     */
+    class DrawPanel extends JPanel {
 
-        public void resizeDP() {
-            setPreferredSize(new Dimension(vParent.gibAnzElem() * 70 + 150, dpHeight));            
+        // das gerade gezeichnete VPanel
+        private VPanel<ContentType> vParent;
+        private Rectangle clipPuffer = new Rectangle();
+        private Rectangle zeilenPuffer = new Rectangle();
+        Border rahmen = BorderFactory.createEtchedBorder();
+        Border auswahlRahmen = BorderFactory.createLineBorder(Color.BLUE, 2);
+        private final GrafikFlaeche<ContentType> flaeche = new GrafikFlaeche<ContentType>(VisualListAnimator.this, null);
+
+        public DrawPanel() {
+            setPreferredSize(new Dimension(640, dpHeight));
         }
 
-        public void actionPerformed(ActionEvent e) {        
-            repaint(); // neuzeichnen, ruft automatisch auch die Methode paintComponent auf
+        public void repaint(long pZeit, int pX, int pY, int pBreite, int pHoehe) {
+            AktivesZeichnen<ContentType> aktiv = aktivesZeichnen;
+            if (aktiv != null) {
+                aktiv.fordereAn();
+            }
+            else {
+                super.repaint(pZeit, pX, pY, pBreite, pHoehe);
+            }
         }
 
         public void paintComponent(Graphics g) {
-            super.paintComponent(g); 
-            zeichneSzene((Graphics2D)g); 
-        }
-
-        private void zeichneSzene(Graphics2D g) {
-            // Alle Knoten mitsamt Inhalt zeichnen
-            vParent.gibList().toFirst();
-            int pos = 50;            
-            while (vParent.gibList().hasAccess()) {                
-                g.setStroke(new BasicStroke(1));
-                g.setColor(Color.WHITE);
-                g.fillRect(pos-5, startYCoord-15, 50, 50);
-                if (aktBefehl.equals("CONCAT") && (pos >= vParent.gibAnzElemAlt()*70+50) && aktiveVPan.equals(vParent)) {
-                    g.setStroke(new BasicStroke(4));
-                    g.setColor(new Color(0f, 1f, 0f, 0.5f));
+            super.paintComponent(g);
+            Graphics2D g2 = (Graphics2D) g;
+            zeilenPuffer.setBounds(0, 0, getWidth(), getHeight());
+            Rectangle clip = g2.getClipBounds(zeilenPuffer);
+            flaeche.setze(g2);
+            try {
+                zeichneZeilen(flaeche, clip, g2.getColor(), g2.getStroke(), g2.getComposite());
+            }
+            finally {
+                flaeche.setze(null);
+            }
+        }
+
+        // aktives Zeichnen (EDT): den sichtbaren Ausschnitt wie paintComponent aufzeichnen
+        public boolean zeichneAuf(Bildliste<ContentType> pListe) {
+            Rectangle sichtbar = getVisibleRect();
+            if (sichtbar.isEmpty() || !isShowing()) {
+                return false;
+            }
+            pListe.beginne(sichtbar, getFont());
+            pListe.setColor(getBackground());
+            pListe.fillRect(sichtbar.x, sichtbar.y, sichtbar.width, sichtbar.height);
+            zeichneZeilen(pListe, sichtbar, getForeground(), STRICH_DUENN, AlphaComposite.SrcOver);
+            return true;
+        }
+
+        private void zeichneZeilen(Zeichenflaeche<ContentType> g, Rectangle pClip, Color pFarbe, Stroke pStrich, Composite pDeckung) {
+            int ersteZeile = Math.max(0, pClip.y / dpHeight);
+            int letzteZeile = Math.min(panels.size() - 1, (pClip.y + pClip.height - 1) / dpHeight);
+            long jetzt = System.nanoTime();
+            for (int i=ersteZeile; i<=letzteZeile; i++) {
+                vParent = panels.get(i);
+                g.translate(0, i * dpHeight);
+                g.zeichneRahmen(vParent == ausgewaehlt, getWidth());
+                // jede Zeile beginnt wie ein eigenes Bauteil mit Vordergrundfarbe und duennem Strich
+                g.setColor(pFarbe);
+                g.setStroke(pStrich);
+                if (vParent.gibAusblendEnde() != 0) {
+                    float sichtbar = vParent.gibSichtbarkeit(jetzt);
+                    g.setComposite(STUFEN_AUSBLENDEN[Math.round(sichtbar * (STUFEN_AUSBLENDEN.length - 1))]);
+                }
+                zeichneSzene(g);
+                g.setComposite(pDeckung);
+                g.translate(0, -i * dpHeight);
+                g.beendeZeile(vParent.gibErfassung());
+            }
+            vParent = null;
+            g.beendeBild();
+        }
+
+        private void zeichneSzene(Zeichenflaeche<ContentType> g) {
+            // Fortschritt eines laufenden Uebergangs (1 = Endzustand), bestimmt alle x-Positionen
+            float f = vParent.gibFortschritt(System.nanoTime());
+            boolean aktiv = aktiveVPan == vParent;
+
+            // Nur die Knoten im sichtbaren Ausschnitt (Clip) mitsamt Inhalt zeichnen,
+            // links und rechts je zwei Knoten Rand fuer Beschriftungen und verschobene Knoten
+            SpiegelListe<ContentType> spiegel = vParent.gibSpiegel();
+            int ersterIndex = 0;
+            int letzterIndex = spiegel.gibAnzahl() - 1;
+            // ohne gesetzten Clip bleibt der Puffer unveraendert, d.h. alles ist sichtbar
+            clipPuffer.setBounds(0, 0, Integer.MAX_VALUE / 2, dpHeight);
+            Rectangle clip = g.getClipBounds(clipPuffer);
+            if (zoomStufe > 0) {
+                // Streifen statt der Knoten
+                zeichneUebersicht(g, spiegel, clip);
+                letzterIndex = -1;
+            }
+            ersterIndex = Math.max(0, (clip.x - 50) / 70 - 2);
+            letzterIndex = Math.min(letzterIndex, (clip.x + clip.width - 50) / 70 + 2);
+            for (int k=ersterIndex; k<=letzterIndex; k++) {                
+                int pos = vParent.gibX(k, f);
+                if (aktBefehl == BEFEHL_CONCAT && aktiv && k >= vParent.gibAnzElemAlt()) {
+                    zeichneKnotenSofort(g, spiegel.gibZeilen(k), pos, gibStufe(STUFEN_ANGEHAENGT, f), STRICH_DICK);
                 }
                 else {
-                    g.setStroke(new BasicStroke(1));
-                    g.setColor(Color.BLACK);
-                }                
-                g.drawRect(pos-5, startYCoord-15, 50, 50);
-                g.setStroke(new BasicStroke(1));
-                g.setColor(Color.BLACK);
-                String[] s = vParent.gibList().getContent().toString().split(":");
-                for (int i=0; i<s.length; i++) {
-                    g.drawString(s[i],pos, startYCoord+i*15);
-                }
-                g.drawLine(pos+45, startYCoord+10, pos+65, startYCoord+10);
-                g.drawLine(pos+60, startYCoord+5, pos+65, startYCoord+10);
-                g.drawLine(pos+60, startYCoord+15, pos+65, startYCoord+10);
-                pos += 70;
-                vParent.gibList().next();
-            }
-            g.drawString("null", vParent.gibAnzElem()*70+50, startYCoord+15);
+                    g.zeichneKnoten(spiegel.gibZeilen(k), pos);
+                }
+            }
+            g.drawString("null", vParent.gibX(vParent.gibAnzElem(), f), startYCoord+15);
             g.drawLine(35, startYCoord+10, 35, startYCoord-40);
             g.drawLine(35, startYCoord+10, 45, startYCoord+10);
             g.drawLine(40, startYCoord+5, 45, startYCoord+10);
             g.drawLine(40, startYCoord+15, 45, startYCoord+10);
             g.drawLine(35, startYCoord-40, 60, startYCoord-40);
-            if (vParent.gibRefNames() != null) {                
+            if (vParent.gibRefNames().length() > 0) {                
                 g.drawString(vParent.gibRefNames(), 70, startYCoord-35);
             }
 
@@ -706,77 +4916,127 @@ public class VisualListAnimator<ContentType> extends JFrame {
                 g.drawString(vParent.gibText(), 35, startYCoord+90);
             }
 
-            // Aktuellen current-Knoten blau markieren
-            if (vParent.gibListPosition() != -1) {
-                g.setStroke(new BasicStroke(4));
-                g.setColor(new Color(0f, 0f, 1f, 1.0f));
-                g.drawRect(vParent.gibListPosition()*70+50-5, startYCoord-15, 50, 50);
-                g.setStroke(new BasicStroke(3));
-                g.drawLine(vParent.gibListPosition()*70+50-5+25-3, startYCoord+45, vParent.gibListPosition()*70+50-5+25-3, startYCoord+60);
-                g.drawLine(vParent.gibListPosition()*70+50-5+25-3, startYCoord+45, vParent.gibListPosition()*70+50-5+25-3-5, startYCoord+50);
-                g.drawLine(vParent.gibListPosition()*70+50-5+25-3, startYCoord+45, vParent.gibListPosition()*70+50-5+25-3+5, startYCoord+50);                
-            }
-            else { 
-                // null markieren
-                g.setStroke(new BasicStroke(4));
-                g.setColor(new Color(0f, 0f, 1f, 1.0f));
-                g.drawRect(vParent.gibAnzElem()*70+50-5, startYCoord-15, 50, 50); 
-                g.setStroke(new BasicStroke(3));
-                g.drawLine(vParent.gibAnzElem()*70+50-5+25-3, startYCoord+45, vParent.gibAnzElem()*70+50-5+25-3, startYCoord+60);
-                g.drawLine(vParent.gibAnzElem()*70+50-5+25-3, startYCoord+45, vParent.gibAnzElem()*70+50-5+25-3-5, startYCoord+50);
-                g.drawLine(vParent.gibAnzElem()*70+50-5+25-3, startYCoord+45, vParent.gibAnzElem()*70+50-5+25-3+5, startYCoord+50);                
+            if (zoomStufe > 0) {
+                zeichneUebersichtZeiger(g, f);
+                return;
             }
 
-            if (aktBefehl.equals("SETCONTENT") || aktBefehl.equals("GETCONTENT")) {
-                if (aktiveVPan.equals(vParent)) {
-                    g.setStroke(new BasicStroke(4));
-                    g.setColor(new Color(1f, 1f, 0f, 1.0f));
-                    g.drawRect(vParent.gibListPosition()*70+50-5, startYCoord-15, 50, 50);
-                }
+            // Aktuellen current-Knoten bzw. null blau markieren, der Zeiger gleitet zur neuen Position
+            int cx = vParent.gibCursorX(f);
+            if (knotenSichtbar(g, cx)) {
+                g.setStroke(STRICH_DICK);
+                g.setColor(FARBE_CURRENT);
+                g.drawRect(cx-5, startYCoord-15, 50, 50);
+                g.setStroke(STRICH_PFEIL);
+                g.drawLine(cx-5+25-3, startYCoord+45, cx-5+25-3, startYCoord+60);
+                g.drawLine(cx-5+25-3, startYCoord+45, cx-5+25-3-5, startYCoord+50);
+                g.drawLine(cx-5+25-3, startYCoord+45, cx-5+25-3+5, startYCoord+50);                
             }
 
-            if (aktBefehl.equals("APPEND")) {
-                if (aktiveVPan.equals(vParent)) {
-                    g.setStroke(new BasicStroke(4));
-                    g.setColor(new Color(0f, 1f, 0f, 1.0f));
-                    g.drawRect((vParent.gibAnzElem()-1)*70+50-5, startYCoord-15, 50, 50);
+            if (aktBefehl == BEFEHL_SETCONTENT || aktBefehl == BEFEHL_GETCONTENT) {
+                int x = vParent.gibX(vParent.gibListPosition(), f);
+                if (aktiv && knotenSichtbar(g, x)) {
+                    g.setStroke(STRICH_DICK);
+                    g.setColor(gibStufe(STUFEN_ZUGRIFF, f));
+                    g.drawRect(x-5, startYCoord-15, 50, 50);
                 }
             }
 
-            if (aktBefehl.equals("INSERT")) {
-                if (aktiveVPan.equals(vParent)) {
-                    g.setStroke(new BasicStroke(4));
-                    g.setColor(new Color(0f, 1f, 0f, 1.0f));
-                    g.drawRect((vParent.gibListPosition()-1)*70+50-5, startYCoord-15, 50, 50);
+            if (aktBefehl == BEFEHL_APPEND) {
+                int x = vParent.gibX(vParent.gibAnzElem()-1, f);
+                if (aktiv && knotenSichtbar(g, x)) {
+                    g.setStroke(STRICH_DICK);
+                    g.setColor(gibStufe(STUFEN_NEU, f));
+                    g.drawRect(x-5, startYCoord-15, 50, 50);
                 }
             }
 
-            // Markierungen
-            if (aktBefehl.equals("MARK")) {
-                if (aktiveVPan.equals(vParent)) {
-                    vParent.setzeMark(vParent.gibListPosition());                    
+            if (aktBefehl == BEFEHL_INSERT) {
+                int x = vParent.gibX(vParent.gibListPosition()-1, f);
+                if (aktiv && knotenSichtbar(g, x)) {
+                    g.setStroke(STRICH_DICK);
+                    g.setColor(gibStufe(STUFEN_NEU, f));
+                    g.drawRect(x-5, startYCoord-15, 50, 50);
                 }
             }
 
-            if (aktBefehl.equals("UNMARK")) {
-                if (aktiveVPan.equals(vParent)) {
-                    vParent.setzeMark(-1);
+            // von eigenen Befehlen hervorgehobene Elemente
+            int[] hervorhebung = vParent.gibHervorhebung();
+            if (aktBefehl >= ERSTER_EIGENER_BEFEHL && aktiv && hervorhebung != null) {
+                for (int i=0; i<hervorhebung.length; i++) {
+                    int x = vParent.gibX(hervorhebung[i], f);
+                    if (hervorhebung[i] >= 0 && hervorhebung[i] < vParent.gibAnzElem() && knotenSichtbar(g, x)) {
+                        g.setStroke(STRICH_DICK);
+                        g.setColor(gibStufe(STUFEN_ZUGRIFF, f));
+                        g.drawRect(x-5, startYCoord-15, 50, 50);
+                    }
                 }
             }
 
+            // Markierung
             if (vParent.gibMark() != -1) {
-                g.setStroke(new BasicStroke(4));
-                g.setColor(new Color(1f, 0f, 1f, 1.0f));
-                g.drawRect(vParent.gibMark()*70+50-5, startYCoord-15, 50, 50);
+                int x = vParent.gibX(vParent.gibMark(), f);
+                if (knotenSichtbar(g, x)) {
+                    g.setStroke(STRICH_DICK);
+                    g.setColor(FARBE_MARKIERUNG);
+                    g.drawRect(x-5, startYCoord-15, 50, 50);
+                }
             }
+        }  
 
-            // Zeiger wieder auf Listposition setzen
-            if (vParent.gibListPosition() != -1) {
-                vParent.gibList().toFirst();
-                for (int i=0; i<vParent.gibListPosition(); i++) {
-                    vParent.gibList().next();
+        // Uebersicht: jede Pixelspalte im Clip zeigt den Mittelwert ihrer Elemente (bzw. grau ohne Zahlen)
+        private void zeichneUebersicht(Zeichenflaeche<ContentType> g, SpiegelListe<ContentType> pSpiegel, Rectangle pClip) {
+            int anzahl = pSpiegel.gibAnzahl();
+            int links = Math.max(50, pClip.x);
+            int rechts = Math.min(vParent.gibX(anzahl, 1f), pClip.x + pClip.width);
+            if (links >= rechts) {
+                return;
+            }
+            if (pSpiegel.merkeWertebereich()) {
+                // neue Farbskala: auch die Spalten ausserhalb des Clips sind veraltet
+                repaint(0, vParent.gibZeile() * dpHeight, getWidth(), dpHeight);
+            }
+            double minimum = pSpiegel.gibMinimum();
+            double spanne = pSpiegel.gibMaximum() - minimum;
+            g.setStroke(STRICH_DUENN);
+            for (int x=links; x<rechts; x++) {
+                int von = (int) ((x - 50) / pixelProElement);
+                int bis = Math.min(anzahl, Math.max(von + 1, (int) ((x + 1 - 50) / pixelProElement)));
+                double wert = pSpiegel.gibMittelwert(von, bis);
+                if (wert != wert) {
+                    g.setColor(FARBE_DICHTE);
+                }
+                else {
+                    int stufe = spanne > 0 ? (int) ((wert - minimum) / spanne * (FARBEN_WERT.length - 1)) : 0;
+                    g.setColor(FARBEN_WERT[stufe]);
                 }
+                g.drawLine(x, startYCoord-15, x, startYCoord+35);
             }
-        }  
+            g.setColor(Color.BLACK);
+            g.drawLine(links, startYCoord-15, rechts, startYCoord-15);
+            g.drawLine(links, startYCoord+35, rechts, startYCoord+35);
+        }
+
+        // Uebersicht: aktuelles Element und Markierung als Balken, mindestens 3 Pixel breit
+        private void zeichneUebersichtZeiger(Zeichenflaeche<ContentType> g, float f) {
+            int breite = Math.max(3, (int) pixelProElement);
+            if (vParent.gibMark() != -1) {
+                int x = vParent.gibX(vParent.gibMark(), f);
+                g.setColor(FARBE_MARKIERUNG);
+                g.fillRect(x - 1, startYCoord-15, breite, 50);
+            }
+            int cx = vParent.gibCursorX(f);
+            g.setColor(FARBE_CURRENT);
+            g.fillRect(cx - 1, startYCoord-15, breite, 50);
+            g.setStroke(STRICH_PFEIL);
+            g.drawLine(cx, startYCoord+45, cx, startYCoord+60);
+            g.drawLine(cx, startYCoord+45, cx-5, startYCoord+50);
+            g.drawLine(cx, startYCoord+45, cx+5, startYCoord+50);
+        }
+
+        // Rahmen (inkl. Strichbreite) und Zeigerpfeil des Knotens an der x-Position pX
+        private boolean knotenSichtbar(Zeichenflaeche<ContentType> g, int pX) {
+            return g.hitClip(pX-5-2, startYCoord-15-2, 54, 80);
+        }
     }
-}
\ No newline at end of file
+}
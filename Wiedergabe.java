@@ -0,0 +1,400 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Abspielen einer Aufzeichnung (eigener Thread, s. playTrace). Die Ereignisse werden wie bei
+ * animate veroeffentlicht, "||", ">" und ">>" steuern die Wiedergabe daher wie gewohnt.
+ * Ein Sprung zu Schritt n beginnt beim letzten Schluesselbild vor n und veroeffentlicht die
+ * Ereignisse bis n ohne zu warten; der EDT uebernimmt sie gesammelt. Der Schieberegler weckt
+ * den Thread dazu per interrupt, auch aus dem Warten auf ">" oder die naechste Pause.
+ */
+class Wiedergabe<ContentType> implements Runnable {
+
+    // Anzeige, in der abgespielt wird
+    private final VisualListAnimator<ContentType> animator;
+    private final SpurLeser leser;
+    private Thread thread;
+    // Beginn des ersten Satzes und Ende des letzten Ereignisses (SATZ_INDEX bzw. Dateiende)
+    private long datenAnfang;
+    private long datenEnde;
+    long gesamtSchritte;
+    long[] bildSchritte = new long[64];
+    private long[] bildPositionen = new long[64];
+    private int anzahlBilder;
+    private final String[] texte = new String[Aufzeichnung.TEXT_FAECHER];
+    // Listen der Aufzeichnung nach ihrer Nummer
+    private HashMap<Integer, VisualListAnimator<ContentType>.ListenErfassung<ContentType>> listen =
+        new HashMap<Integer, VisualListAnimator<ContentType>.ListenErfassung<ContentType>>();
+    // Anzahl der bereits veroeffentlichten Ereignisse
+    long schritt;
+    private volatile long angezeigterSchritt;
+    private final AtomicLong sprungZiel = new AtomicLong(-1);
+    private volatile boolean beendet;
+
+    public Wiedergabe(VisualListAnimator<ContentType> pAnimator, SpurLeser pLeser) {
+        animator = pAnimator;
+        leser = pLeser;
+        datenAnfang = leser.gibStand();
+    }
+
+    public void starte() {
+        thread = new Thread(this, "VisualListAnimator-Wiedergabe");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void beende() {
+        beendet = true;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    // EDT: Sprung zu einem Wert des Schiebereglers
+    public void springeZu(int pWert) {
+        // die schon entnommenen Ereignisse setzen den aktuellen Stand voraus
+        animator.holeAuf();
+        long ziel = gesamtSchritte * pWert / Math.max(1, animator.schieber.getMaximum());
+        angezeigterSchritt = ziel;
+        sprungZiel.set(ziel);
+        thread.interrupt();
+    }
+
+    // EDT, mit jedem Takt: Schieberegler dem abgespielten Schritt nachfuehren
+    public void zeigeStand() {
+        if (!animator.schieber.isEnabled() || animator.schieber.getValueIsAdjusting()) {
+            return;
+        }
+        long angezeigt = angezeigterSchritt;
+        int wert = (int) (angezeigt * animator.schieber.getMaximum() / Math.max(1, gesamtSchritte));
+        if (wert != animator.schieber.getValue()) {
+            animator.schieberWirdGesetzt = true;
+            animator.schieber.setValue(wert);
+            animator.schieberWirdGesetzt = false;
+        }
+        String text = angezeigt + " / " + gesamtSchritte;
+        if (!text.equals(animator.schieberStand.getText())) {
+            animator.schieberStand.setText(text);
+        }
+    }
+
+    // Schritte, Schluesselbilder und eigene Befehle bestimmen; danach steht der Leser am Anfang
+    public void oeffne() {
+        long index = leser.gibIndexPosition();
+        if (index >= 0) {
+            datenEnde = index;
+            leser.setzeStand(index);
+            liesIndex();
+        }
+        else {
+            datenEnde = leser.gibLaenge();
+            durchsuche();
+        }
+        leser.setzeStand(datenAnfang);
+        Arrays.fill(texte, null);
+    }
+
+    // wie oeffne, aber von einer schon geoeffneten Wiedergabe derselben Datei (s. exportTrace)
+    public void uebernimmIndex(VisualListAnimator<ContentType> pVorlage) {
+        Wiedergabe<ContentType> vorlage = pVorlage.wiedergabe;
+        datenEnde = vorlage.datenEnde;
+        gesamtSchritte = vorlage.gesamtSchritte;
+        bildSchritte = vorlage.bildSchritte;
+        bildPositionen = vorlage.bildPositionen;
+        anzahlBilder = vorlage.anzahlBilder;
+        for (int i=animator.befehle.size(); i<pVorlage.befehle.size(); i++) {
+            animator.registriere(animator.erzeugeGelesenenBefehl(i, pVorlage.befehle.get(i).name));
+        }
+    }
+
+    public void run() {
+        oeffne();
+        SwingUtilities.invokeLater(new Runnable() {
+                public void run() {
+                    animator.schieberWirdGesetzt = true;
+                    animator.schieber.setMaximum((int) Math.min(gesamtSchritte, 1 << 30));
+                    animator.schieberWirdGesetzt = false;
+                    animator.schieber.setEnabled(true);
+                    zeigeStand();
+                }
+            });
+        while (!beendet) {
+            // ein Sprung unterbricht auch das Warten, der interrupt ist damit erledigt
+            Thread.interrupted();
+            long ziel = sprungZiel.getAndSet(-1);
+            if (ziel >= 0) {
+                springe(ziel);
+                animator.warte();
+            }
+            else if (schritt < gesamtSchritte) {
+                VisualListAnimator<ContentType>.Ereignis e = liesBisEreignis();
+                schritt++;
+                angezeigterSchritt = schritt;
+                if (e != null) {
+                    animator.veroeffentliche(e);
+                    animator.warte();
+                }
+            }
+            else { // Ende der Aufzeichnung: bis zum naechsten Sprung
+                LockSupport.park(this);
+            }
+        }
+    }
+
+    // Zustand nach Schritt pZiel herstellen
+    private void springe(long pZiel) {
+        animator.veroeffentliche(ladeSchluesselbild(pZiel));
+        // ein weiterer Sprung macht den Rest ueberfluessig
+        while (schritt < pZiel && sprungZiel.get() < 0) {
+            VisualListAnimator<ContentType>.Ereignis e = liesBisEreignis();
+            if (e != null) {
+                animator.veroeffentliche(e);
+            }
+            schritt++;
+        }
+        angezeigterSchritt = schritt;
+    }
+
+    // letztes Schluesselbild vor Schritt pZiel oder -1
+    int gibSchluesselbild(long pZiel) {
+        int bild = -1;
+        int von = 0;
+        int bis = anzahlBilder - 1;
+        while (von <= bis) {
+            int mitte = (von + bis) >>> 1;
+            if (bildSchritte[mitte] < pZiel) {
+                bild = mitte;
+                von = mitte + 1;
+            }
+            else {
+                bis = mitte - 1;
+            }
+        }
+        return bild;
+    }
+
+    // liest das letzte Schluesselbild vor Schritt pZiel (bzw. beginnt von vorn) und liefert
+    // das Ereignis, das das Anzeigemodell durch diesen Zustand ersetzt
+    VisualListAnimator<ContentType>.Ereignis ladeSchluesselbild(long pZiel) {
+        int bild = gibSchluesselbild(pZiel);
+        Object[] zustand;
+        if (bild == -1) {
+            leser.setzeStand(datenAnfang);
+            Arrays.fill(texte, null);
+            listen = new HashMap<Integer, VisualListAnimator<ContentType>.ListenErfassung<ContentType>>();
+            zustand = new Object[0];
+            schritt = 0;
+        }
+        else {
+            leser.setzeStand(bildPositionen[bild]);
+            leser.liesInt(); // SATZ_SCHLUESSELBILD
+            zustand = liesSchluesselbild(true);
+            schritt = bildSchritte[bild];
+        }
+        return animator.new Ereignis(VisualListAnimator.ART_ZUSTAND, null, VisualListAnimator.KEIN_BEFEHL, null, null, 0,
+            null, -1, -1, 0, zustand, true, null);
+    }
+
+    // Export: den naechsten Schritt direkt auf das eigene Anzeigemodell anwenden
+    void wendeNaechstesAn() {
+        VisualListAnimator<ContentType>.Ereignis e = liesBisEreignis();
+        if (e != null) {
+            animator.wendeAn(e);
+        }
+        schritt++;
+    }
+
+    // liest Saetze bis einschliesslich des naechsten Ereignisses; null bei einer unbekannten Liste
+    private VisualListAnimator<ContentType>.Ereignis liesBisEreignis() {
+        while (true) {
+            int satz = leser.liesInt();
+            if (satz == Aufzeichnung.SATZ_BEFEHL) {
+                liesBefehl();
+            }
+            else if (satz == Aufzeichnung.SATZ_SCHLUESSELBILD) {
+                liesSchluesselbild(false);
+            }
+            else {
+                return liesEreignis(satz);
+            }
+        }
+    }
+
+    private void liesIndex() {
+        leser.liesInt(); // SATZ_INDEX
+        gesamtSchritte = leser.liesZahl();
+        anzahlBilder = leser.liesInt();
+        bildSchritte = new long[anzahlBilder];
+        bildPositionen = new long[anzahlBilder];
+        for (int i=0; i<anzahlBilder; i++) {
+            bildSchritte[i] = leser.liesZahl() + (i == 0 ? 0 : bildSchritte[i-1]);
+            bildPositionen[i] = leser.liesZahl() + (i == 0 ? 0 : bildPositionen[i-1]);
+        }
+        int anzahl = leser.liesInt();
+        for (int i=0; i<anzahl; i++) {
+            liesBefehl();
+        }
+    }
+
+    // nicht abgeschlossene Aufzeichnung: einmal vollstaendig lesen, um Schritte und Schluesselbilder
+    // zu zaehlen; ein unvollstaendiger letzter Satz wird dabei weggelassen
+    private void durchsuche() {
+        long schritte = 0;
+        try {
+            while (leser.gibStand() < datenEnde) {
+                long anfang = leser.gibStand();
+                int satz = leser.liesInt();
+                if (satz == Aufzeichnung.SATZ_INDEX) { // unvollstaendig, sonst gaebe es das Dateiende
+                    break;
+                }
+                if (satz == Aufzeichnung.SATZ_BEFEHL) {
+                    liesBefehl();
+                }
+                else if (satz == Aufzeichnung.SATZ_SCHLUESSELBILD) {
+                    liesSchluesselbild(false);
+                    if(anzahlBilder == bildSchritte.length) {
+                        bildSchritte = Arrays.copyOf(bildSchritte, anzahlBilder * 2);
+                        bildPositionen = Arrays.copyOf(bildPositionen, anzahlBilder * 2);
+                    }
+                    bildSchritte[anzahlBilder] = schritte;
+                    bildPositionen[anzahlBilder] = anfang;
+                    anzahlBilder++;
+                }
+                else {
+                    liesEreignis(satz);
+                    schritte++;
+                }
+            }
+        }
+        catch (IndexOutOfBoundsException ex) { // Ende der Datei mitten in einem Satz
+        }
+        gesamtSchritte = schritte;
+        listen = new HashMap<Integer, VisualListAnimator<ContentType>.ListenErfassung<ContentType>>();
+    }
+
+    // Name eines eigenen Befehls; fehlende Opcodes davor gehoeren zu nie verwendeten Befehlen
+    private void liesBefehl() {
+        int opcode = leser.liesInt();
+        String name = liesText(leser.liesZahl());
+        while (animator.befehle.size() < opcode) {
+            animator.registriere(animator.new EigenerBefehl(animator.befehle.size(), "", null));
+        }
+        if (animator.befehle.size() == opcode) {
+            animator.registriere(animator.erzeugeGelesenenBefehl(opcode, name));
+        }
+    }
+
+    // mit pUebernehmen werden die Listen neu angelegt, sonst wird der Satz nur ueberlesen
+    private Object[] liesSchluesselbild(boolean pUebernehmen) {
+        Arrays.fill(texte, null);
+        leser.liesZahl(); // Schritt, steht auch im Index
+        Object[] zustand = new Object[leser.liesInt()];
+        HashMap<Integer, VisualListAnimator<ContentType>.ListenErfassung<ContentType>> neu =
+            new HashMap<Integer, VisualListAnimator<ContentType>.ListenErfassung<ContentType>>();
+        for (int i=0; i<zustand.length; i++) {
+            int id = leser.liesInt();
+            String[] namen = new String[leser.liesInt()];
+            for (int j=0; j<namen.length; j++) {
+                namen[j] = liesText(leser.liesZahl());
+            }
+            String text = liesText(leser.liesZahl());
+            int position = zurueck(leser.liesInt());
+            int mark = zurueck(leser.liesInt());
+            Object[] inhalte = liesInhalte();
+            if (pUebernehmen) {
+                VisualListAnimator<ContentType>.ListenErfassung<ContentType> liste =
+                    animator.new ListenErfassung<ContentType>(id);
+                neu.put(id, liste);
+                zustand[i] = animator.new Schnappschuss(liste, namen, text, position, mark, inhalte);
+            }
+        }
+        if (pUebernehmen) {
+            listen = neu;
+        }
+        return zustand;
+    }
+
+    private VisualListAnimator<ContentType>.Ereignis liesEreignis(int pSatz) {
+        int art = pSatz - Aufzeichnung.SATZ_EREIGNIS;
+        int id = leser.liesInt();
+        int befehl = leser.liesInt() - 1;
+        int flags = leser.liesInt();
+        int index = zurueck(leser.liesInt());
+        int position = zurueck(leser.liesInt());
+        int mark = zurueck(leser.liesInt());
+        int anzahlVorher = leser.liesInt();
+        String name = (flags & 1) != 0 ? liesText(leser.liesZahl()) : null;
+        String text = (flags & 2) != 0 ? liesText(leser.liesZahl()) : null;
+        Object[] inhalte = (flags & 4) != 0 ? liesInhalte() : null;
+        Object[] geleerte = null;
+        if ((flags & 8) != 0) {
+            geleerte = new Object[leser.liesInt()];
+            for (int i=0; i<geleerte.length; i++) {
+                geleerte[i] = listen.get(leser.liesInt());
+            }
+        }
+        int[] hervorhebung = null;
+        if ((flags & 16) != 0) {
+            hervorhebung = new int[leser.liesInt()];
+            for (int i=0; i<hervorhebung.length; i++) {
+                hervorhebung[i] = zurueck(leser.liesInt());
+            }
+        }
+        VisualListAnimator<ContentType>.ListenErfassung<ContentType> liste = null;
+        if (art == VisualListAnimator.ART_ADDLIST) {
+            liste = animator.new ListenErfassung<ContentType>(id);
+            listen.put(id, liste);
+        }
+        else if (id != 0) {
+            liste = art == VisualListAnimator.ART_REMOVELIST ? listen.remove(id) : listen.get(id);
+            if (liste == null) {
+                return null;
+            }
+        }
+        if (art == VisualListAnimator.ART_VERWAIST) {
+            for (Object o : geleerte) {
+                // oben aus listen gelesen, wie im Ereignis als Object[]
+                @SuppressWarnings("unchecked")
+                VisualListAnimator<ContentType>.ListenErfassung<ContentType> tot =
+                    (VisualListAnimator<ContentType>.ListenErfassung<ContentType>) o;
+                listen.remove(tot.gibId());
+            }
+        }
+        return animator.new Ereignis(art, liste, befehl, name, text, index, inhalte, position, mark, anzahlVorher,
+            geleerte, (flags & 32) != 0, hervorhebung);
+    }
+
+    private Object[] liesInhalte() {
+        Object[] inhalte = new Object[leser.liesInt()];
+        for (int i=0; i<inhalte.length; i++) {
+            long wert = leser.liesZahl();
+            if ((wert & 1) != 0) {
+                inhalte[i] = liesText(wert >>> 1);
+            }
+            else {
+                inhalte[i] = Integer.valueOf(zurueck((int) (wert >>> 1)));
+            }
+        }
+        return inhalte;
+    }
+
+    // pWert = fach * 2, bei + 1 folgen Laenge und UTF-8-Bytes (s. Aufzeichnung)
+    private String liesText(long pWert) {
+        int fach = (int) (pWert >>> 1);
+        if ((pWert & 1) != 0) {
+            byte[] bytes = new byte[leser.liesInt()];
+            leser.lies(bytes);
+            texte[fach] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return texte[fach];
+    }
+
+    private int zurueck(int pZickzack) {
+        return (pZickzack >>> 1) ^ -(pZickzack & 1);
+    }
+}
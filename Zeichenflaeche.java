@@ -0,0 +1,44 @@
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Rectangle;
+import java.awt.Stroke;
+
+/**
+ * Ziel beim Zeichnen der Zeilen: entweder sofort eine Graphics2D (GrafikFlaeche) oder eine
+ * Bildliste, die nur aufzeichnet, was der Zeichen-Thread des aktiven Zeichnens spaeter
+ * abspielt. Die Methoden entsprechen denen von Graphics2D, dazu kommen ganze Knoten und
+ * Zeilenrahmen sowie die Messpunkte fuer die Messwerte.
+ */
+abstract class Zeichenflaeche<ContentType> {
+
+    public abstract void setColor(Color pFarbe);
+
+    public abstract void setStroke(Stroke pStrich);
+
+    public abstract void setComposite(Composite pDeckung);
+
+    public abstract void translate(int pX, int pY);
+
+    public abstract void fillRect(int pX, int pY, int pBreite, int pHoehe);
+
+    public abstract void drawRect(int pX, int pY, int pBreite, int pHoehe);
+
+    public abstract void drawLine(int pX1, int pY1, int pX2, int pY2);
+
+    public abstract void drawString(String pText, int pX, int pY);
+
+    public abstract Rectangle getClipBounds(Rectangle pPuffer);
+
+    public abstract boolean hitClip(int pX, int pY, int pBreite, int pHoehe);
+
+    // Knoten mit schwarzem Rahmen wie zeichneKnotenSofort
+    public abstract void zeichneKnoten(String[] pZeilen, int pX);
+
+    // Rahmen einer Zeile der Breite pBreite (blau, wenn die Zeile ausgewaehlt ist)
+    public abstract void zeichneRahmen(boolean pAusgewaehlt, int pBreite);
+
+    // eine Zeile bzw. das ganze Bild ist fertig (fuer die Messwerte)
+    public abstract void beendeZeile(VisualListAnimator<ContentType>.ListenErfassung<ContentType> pErfassung);
+
+    public abstract void beendeBild();
+}
@@ -0,0 +1,104 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * CONCAT leert die angehängte Liste erst nach Freigabe der eigenen Sperre: solange ein anderer
+ * Thread die angehängte Liste hält, bleibt die verlängerte Liste für alle Threads benutzbar.
+ */
+public class ConcatTest {
+
+    private VisualListAnimator<Integer> v;
+    private List<Integer> a;
+    private List<Integer> b;
+
+    @Before
+    public void setUp() {
+        v = Offscreen.create(800, 200);
+        v.setTweenDuration(0);
+        a = new List<Integer>();
+        b = new List<Integer>();
+        for (int i=0; i<3; i++) {
+            a.append(i);
+        }
+        b.append(10);
+        b.append(11);
+        v.addList(a, "a");
+        v.addList(b, "b");
+        Offscreen.flush();
+        v.setMetricsEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        v.close();
+    }
+
+    @Test
+    public void concatDoesNotHoldTwoLocks() throws Exception {
+        // wie ein Befehl fuer b in einem anderen Thread, der gerade die Sperre von b haelt
+        ReentrantLock sperreB = gibSperre(b);
+        sperreB.lock();
+        try {
+            Thread concat = new Thread(new Runnable() {
+                    public void run() {
+                        a.concat(b);
+                        v.animate(a, VisualListAnimator.Command.CONCAT, "b anhängen");
+                    }
+                });
+            concat.start();
+            WaitTest.warteBisGeparkt(concat);
+
+            // frueher hielt der CONCAT die Sperre von a, waehrend er auf die von b wartete
+            Thread anderer = new Thread(new Runnable() {
+                    public void run() {
+                        v.animate(a, VisualListAnimator.Command.TOFIRST, null);
+                    }
+                });
+            anderer.start();
+            anderer.join(5000);
+            assertFalse("a bleibt gesperrt, solange b gesperrt ist", anderer.isAlive());
+
+            // der naechste Befehl fuer b holt das Leeren nach, der CONCAT dann nicht noch einmal
+            v.animate(b, VisualListAnimator.Command.TOFIRST, null);
+            sperreB.unlock();
+            concat.join(5000);
+            assertFalse("CONCAT endet nicht", concat.isAlive());
+        }
+        finally {
+            if (sperreB.isHeldByCurrentThread()) {
+                sperreB.unlock();
+            }
+        }
+        Offscreen.flush();
+
+        java.util.List<?> panels = (java.util.List<?>) Offscreen.field(v, "panels");
+        assertEquals(5, Offscreen.call(panels.get(0), "gibAnzElem"));
+        assertEquals(0, Offscreen.call(panels.get(1), "gibAnzElem"));
+        assertEquals(1, gibAnzahl(v.getMetrics().getApplyByCommand(), "(Abgleich)"));
+    }
+
+    private ReentrantLock gibSperre(List<Integer> pList) {
+        for (Object erf : ((Map<?, ?>) Offscreen.field(v, "erfassungen")).values()) {
+            if (Offscreen.call(erf, "gibOriginal") == pList) {
+                return (ReentrantLock) Offscreen.call(erf, "gibSperre");
+            }
+        }
+        throw new IllegalStateException("nicht erfasst");
+    }
+
+    private static long gibAnzahl(Metrics.LatencyStats[] pStats, String pName) {
+        for (Metrics.LatencyStats s : pStats) {
+            if (s.getName().equals(pName)) {
+                return s.getCount();
+            }
+        }
+        return 0;
+    }
+}
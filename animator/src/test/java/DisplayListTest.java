@@ -0,0 +1,208 @@
+import static org.junit.Assert.assertEquals;
+
+import java.awt.AlphaComposite;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.Constructor;
+import java.util.Random;
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Aktives Zeichnen: eine aufgezeichnete Bildliste, abgespielt über die vorgezeichneten Knoten
+ * (KachelSpeicher), ergibt Pixel für Pixel dasselbe Bild wie paintComponent, auch für einen
+ * verschobenen Ausschnitt.
+ */
+public class DisplayListTest {
+
+    private static final int BREITE = 1400;
+    private static final int HOEHE = 3 * 170;
+
+    private VisualListAnimator<Object> v;
+    private Object bildliste;
+    private Object flaeche;
+
+    @Before
+    public void setUp() {
+        v = Offscreen.create(BREITE, HOEHE);
+        v.setTweenDuration(0);
+        v.setFadeOutDuration(0);
+        v.registerCommand("SWAP", new VisualListAnimator.CommandHandler<Object>() {
+                public int[] perform(List<Object> pList, int pPosition) {
+                    return new int[] { pPosition, pPosition + 1 };
+                }
+            });
+        // wie in AktivesZeichnen: eine Bildliste und eine Flaeche mit vorgezeichneten Knoten
+        bildliste = erzeuge("Bildliste");
+        flaeche = erzeuge("GrafikFlaeche", erzeuge("KachelSpeicher"));
+    }
+
+    @After
+    public void tearDown() {
+        v.close();
+    }
+
+    @Test
+    public void replayedDisplayListMatchesPaintComponent() throws Exception {
+        List<Object> l = new List<Object>();
+        List<Object> o = new List<Object>();
+        for (int i=0; i<4; i++) {
+            l.append(i);
+        }
+        v.addList(l, "l");
+        v.addList(o, "o");
+        v.addList(l, "alias");
+        Object[] texte = { "x", "lang:zweite Zeile ist deutlich breiter", "a:b:c", "Ågy|", "12345678901234" };
+
+        Random r = new Random(25);
+        for (int s=0; s<150; s++) {
+            Object inhalt = r.nextBoolean() ? (Object) r.nextInt(100) : texte[r.nextInt(texte.length)];
+            String befehl;
+            switch (r.nextInt(10)) {
+                case 0:
+                    l.toFirst();
+                    befehl = "TOFIRST";
+                    break;
+                case 1:
+                    l.next();
+                    befehl = "NEXT";
+                    break;
+                case 2:
+                    l.setContent(inhalt);
+                    befehl = "SETCONTENT";
+                    break;
+                case 3:
+                    l.append(inhalt);
+                    befehl = "APPEND";
+                    break;
+                case 4:
+                    l.insert(inhalt);
+                    befehl = "INSERT";
+                    break;
+                case 5:
+                    l.remove();
+                    befehl = "REMOVE";
+                    break;
+                case 6:
+                    o.append(r.nextInt(9));
+                    v.animate(o, "APPEND", null);
+                    l.concat(o);
+                    befehl = "CONCAT";
+                    break;
+                case 7:
+                    befehl = r.nextBoolean() ? "MARK" : "UNMARK";
+                    break;
+                case 8:
+                    befehl = "SWAP";
+                    break;
+                default:
+                    befehl = "GETCONTENT";
+                    break;
+            }
+            // nicht breiter als das Bild, sonst vergleicht der Test nur abgeschnittene Zeilen
+            if (zaehle(l) > 18) {
+                l.toFirst();
+                while (!l.isEmpty()) {
+                    l.remove();
+                }
+                befehl = "REMOVE";
+            }
+            v.animate(l, befehl, r.nextInt(4) == 0 ? "Schritt " + s : null);
+            Offscreen.flush();
+            // ausgewaehlte Zeile (blauer Rahmen) wechselt mit
+            waehleAus(r.nextInt(4));
+            vergleiche(new Rectangle(0, 0, BREITE, HOEHE));
+            vergleiche(new Rectangle(r.nextInt(3) * 70, r.nextInt(2) * 100, BREITE / 2, HOEHE / 2));
+        }
+    }
+
+    // pSichtbar einmal direkt und einmal ueber die Bildliste zeichnen (auf dem EDT, wie beide Wege)
+    private void vergleiche(final Rectangle pSichtbar) throws Exception {
+        final BufferedImage direkt = new BufferedImage(BREITE, HOEHE, BufferedImage.TYPE_INT_RGB);
+        final BufferedImage aktiv = new BufferedImage(pSichtbar.width, pSichtbar.height, BufferedImage.TYPE_INT_RGB);
+        SwingUtilities.invokeAndWait(new Runnable() {
+                public void run() {
+                    JComponent dp = Offscreen.drawPanel(v);
+                    // wie exportTrace
+                    Graphics2D g = direkt.createGraphics();
+                    g.setClip(0, 0, BREITE, HOEHE);
+                    g.setFont(dp.getFont());
+                    g.setColor(dp.getForeground());
+                    Offscreen.call(dp, "paintComponent", g);
+                    g.dispose();
+
+                    // wie DrawPanel.zeichneAuf, das ohne Fenster nichts aufzeichnet
+                    Offscreen.call(bildliste, "beginne", pSichtbar, dp.getFont());
+                    Offscreen.call(bildliste, "setColor", dp.getBackground());
+                    Offscreen.call(bildliste, "fillRect", pSichtbar.x, pSichtbar.y, pSichtbar.width, pSichtbar.height);
+                    Offscreen.call(dp, "zeichneZeilen", bildliste, pSichtbar, dp.getForeground(),
+                        Offscreen.field(v, "STRICH_DUENN"), AlphaComposite.SrcOver);
+
+                    // wie AktivesZeichnen.zeichne
+                    g = aktiv.createGraphics();
+                    g.translate(-pSichtbar.x, -pSichtbar.y);
+                    g.setClip(pSichtbar.x, pSichtbar.y, pSichtbar.width, pSichtbar.height);
+                    g.setFont((Font) Offscreen.field(bildliste, "schrift"));
+                    Offscreen.call(flaeche, "setze", g);
+                    Offscreen.call(bildliste, "spieleAb", flaeche);
+                    Offscreen.call(flaeche, "setze", (Object) null);
+                    g.dispose();
+                }
+            });
+        for (int y=0; y<pSichtbar.height; y++) {
+            for (int x=0; x<pSichtbar.width; x++) {
+                int erwartet = direkt.getRGB(pSichtbar.x + x, pSichtbar.y + y);
+                if (erwartet != aktiv.getRGB(x, y)) {
+                    assertEquals("Pixel " + (pSichtbar.x + x) + "," + (pSichtbar.y + y) + " in " + pSichtbar,
+                        Integer.toHexString(erwartet), Integer.toHexString(aktiv.getRGB(x, y)));
+                }
+            }
+        }
+    }
+
+    // pZeile auswaehlen wie ein Klick auf die Zeile, ohne gueltige Zeile keine Auswahl
+    private void waehleAus(final int pZeile) throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+                public void run() {
+                    java.util.List<?> panels = (java.util.List<?>) Offscreen.field(v, "panels");
+                    Offscreen.call(v, "waehleAus", pZeile < panels.size() ? panels.get(pZeile) : null);
+                }
+            });
+    }
+
+    // Klasse des aktiven Zeichnens (nicht oeffentlich); braucht sie die Anzeige, ist v das erste Argument
+    private Object erzeuge(String pKlasse, Object... pArgs) {
+        try {
+            Constructor<?> c = Class.forName(pKlasse).getDeclaredConstructors()[0];
+            Object[] args = pArgs;
+            if (c.getParameterTypes().length == pArgs.length + 1) {
+                args = new Object[pArgs.length + 1];
+                args[0] = v;
+                System.arraycopy(pArgs, 0, args, 1, pArgs.length);
+            }
+            c.setAccessible(true);
+            return c.newInstance(args);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int zaehle(List<Object> pList) {
+        List<Object> zeiger = new List<Object>();
+        zeiger.current = pList.first;
+        int anzahl = 0;
+        while (zeiger.hasAccess()) {
+            anzahl++;
+            zeiger.next();
+        }
+        return anzahl;
+    }
+}
@@ -0,0 +1,126 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.swing.JComponent;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Export einer Aufzeichnung: je Schritt genau ein Bild in der gewünschten Größe, als PNG-Dateien
+ * in der Reihenfolge der Schritte (obwohl mehrere Kerne gleichzeitig zeichnen) und als GIF.
+ */
+public class ExportTest {
+
+    private static final int BREITE = 320;
+    private static final int HOEHE = 200;
+
+    @Rule
+    public TemporaryFolder ordner = new TemporaryFolder();
+
+    private String datei;
+
+    @Before
+    public void setUp() {
+        datei = new File(ordner.getRoot(), "lauf.vlat").getPath();
+        // mehrere Auftraege (Export.AUFTRAG Schritte) und ein CONCAT mit eigenem Leeren-Schritt
+        VisualListAnimator<Integer> v = new VisualListAnimator<Integer>(datei);
+        List<Integer> a = new List<Integer>();
+        List<Integer> b = new List<Integer>();
+        v.addList(a, "a");
+        v.addList(b, "b");
+        Random r = new Random(17);
+        for (int s=0; s<150; s++) {
+            List<Integer> l = r.nextBoolean() ? a : b;
+            if (s == 100) {
+                a.concat(b);
+                v.animate(a, "CONCAT", "b anhängen");
+            }
+            else if (r.nextInt(3) == 0) {
+                l.toFirst();
+                v.animate(l, "TOFIRST", null);
+            }
+            else {
+                l.append(r.nextInt(100));
+                v.animate(l, "APPEND", "Schritt " + s);
+            }
+        }
+        v.close();
+    }
+
+    @Test
+    public void exportsOnePngPerStep() throws Exception {
+        File ziel = new File(ordner.getRoot(), "bilder");
+        VisualListAnimator.exportTrace(datei, ziel.getPath(), BREITE, HOEHE);
+
+        VisualListAnimator<Object> spieler = Offscreen.player(datei, BREITE, HOEHE);
+        Object wiedergabe = Offscreen.field(spieler, "wiedergabe");
+        long gesamt = (Long) Offscreen.field(wiedergabe, "gesamtSchritte");
+        assertTrue(gesamt > 150);
+        String[] namen = ziel.list();
+        Arrays.sort(namen);
+        assertEquals(gesamt, namen.length);
+        assertEquals("step-000001.png", namen[0]);
+
+        // jedes Bild zeigt seinen Schritt, wie beim schrittweisen Abspielen gezeichnet
+        BufferedImage erwartet = new BufferedImage(BREITE, HOEHE, BufferedImage.TYPE_INT_RGB);
+        JComponent dp = Offscreen.drawPanel(spieler);
+        for (int s=1; s<=gesamt; s++) {
+            Offscreen.call(wiedergabe, "wendeNaechstesAn");
+            Graphics2D g = erwartet.createGraphics();
+            g.setClip(0, 0, BREITE, HOEHE);
+            g.setFont(dp.getFont());
+            g.setColor(dp.getForeground());
+            Offscreen.call(dp, "paintComponent", g);
+            g.dispose();
+
+            String name = String.format("step-%06d.png", s);
+            assertEquals(name, namen[s - 1]);
+            BufferedImage bild = ImageIO.read(new File(ziel, name));
+            assertEquals(BREITE, bild.getWidth());
+            assertEquals(HOEHE, bild.getHeight());
+            for (int y=0; y<HOEHE; y++) {
+                for (int x=0; x<BREITE; x++) {
+                    if (erwartet.getRGB(x, y) != bild.getRGB(x, y)) {
+                        assertEquals(name + " Pixel " + x + "," + y,
+                            Integer.toHexString(erwartet.getRGB(x, y)), Integer.toHexString(bild.getRGB(x, y)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void exportsOneGifFramePerStep() throws Exception {
+        File ziel = new File(ordner.getRoot(), "lauf.gif");
+        VisualListAnimator.exportTrace(datei, ziel.getPath(), BREITE, HOEHE);
+
+        Object wiedergabe = Offscreen.field(Offscreen.player(datei, BREITE, HOEHE), "wiedergabe");
+        long gesamt = (Long) Offscreen.field(wiedergabe, "gesamtSchritte");
+        ImageReader leser = ImageIO.getImageReadersByFormatName("gif").next();
+        ImageInputStream ein = ImageIO.createImageInputStream(ziel);
+        try {
+            leser.setInput(ein);
+            assertEquals(gesamt, leser.getNumImages(true));
+            for (int i=0; i<gesamt; i++) {
+                assertEquals(BREITE, leser.getWidth(i));
+                assertEquals(HOEHE, leser.getHeight(i));
+            }
+        }
+        finally {
+            leser.dispose();
+            ein.close();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collection;
+
+import org.junit.Test;
+
+/**
+ * Eine aufgenommene ObservableList meldet an die Visualisierung, bis sie entfernt bzw. die
+ * Visualisierung geschlossen wird.
+ */
+public class ListenerTest {
+
+    @Test
+    public void removeListUnsubscribes() {
+        VisualListAnimator<Integer> v = Offscreen.create(800, 200);
+        ObservableList<Integer> l = new ObservableList<Integer>();
+        v.addList(l, "l");
+        v.addList(l, "alias");
+        assertEquals(1, gibEmpfaenger(l));
+        v.removeList(l);
+        assertEquals(0, gibEmpfaenger(l));
+        v.close();
+    }
+
+    @Test
+    public void closeUnsubscribes() {
+        VisualListAnimator<Integer> v = Offscreen.create(800, 200);
+        ObservableList<Integer> a = new ObservableList<Integer>();
+        ObservableList<Integer> b = new ObservableList<Integer>();
+        v.addList(a, "a");
+        v.addList(b, "b");
+        v.close();
+        assertEquals(0, gibEmpfaenger(a));
+        assertEquals(0, gibEmpfaenger(b));
+    }
+
+    private static int gibEmpfaenger(ObservableList<?> pListe) {
+        return ((Collection<?>) Offscreen.field(pListe, "listeners")).size();
+    }
+}
@@ -0,0 +1,132 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Momentaufnahme der Messwerte nach einer bekannten Folge von Befehlen, und das Messen selbst
+ * legt auf dem Thread des Aufrufers keine Objekte an.
+ */
+public class MetricsTest {
+
+    private VisualListAnimator<Integer> v;
+    private List<Integer> l;
+
+    @Before
+    public void setUp() {
+        v = Offscreen.create(800, 200);
+        v.setTweenDuration(0);
+        l = new List<Integer>();
+        for (int i=0; i<3; i++) {
+            l.append(i);
+        }
+        v.addList(l, "l");
+        Offscreen.flush();
+    }
+
+    @After
+    public void tearDown() {
+        v.close();
+    }
+
+    @Test
+    public void snapshotCountsCommandsAndLists() throws Exception {
+        v.setMetricsEnabled(true);
+        l.toFirst();
+        v.animate(l, VisualListAnimator.Command.TOFIRST, null);
+        for (int i=0; i<2; i++) {
+            l.next();
+            v.animate(l, VisualListAnimator.Command.NEXT, null);
+        }
+        for (int i=0; i<3; i++) {
+            l.append(10 + i);
+            v.animate(l, VisualListAnimator.Command.APPEND, null);
+        }
+        Offscreen.flush();
+
+        Metrics m = v.getMetrics();
+        assertEquals(1, gibAnzahl(m.getCaptureByCommand(), "TOFIRST"));
+        assertEquals(2, gibAnzahl(m.getCaptureByCommand(), "NEXT"));
+        assertEquals(3, gibAnzahl(m.getCaptureByCommand(), "APPEND"));
+        assertEquals(6, gibSumme(m.getWaitByCommand()));
+        // Zeigerbewegungen werden ohne Befehl angezeigt
+        assertEquals(3, gibAnzahl(m.getApplyByCommand(), "(ohne Befehl)"));
+        assertEquals(3, gibAnzahl(m.getApplyByCommand(), "APPEND"));
+        assertEquals(6, gibAnzahl(m.getWaitByList(), "l"));
+        assertEquals(6, gibAnzahl(m.getApplyByList(), "l"));
+        assertEquals(0, m.getQueueDepth());
+        assertTrue(m.getMaxQueueDepth() >= 1);
+        for (Metrics.LatencyStats[] alle : new Metrics.LatencyStats[][] {
+                m.getCaptureByCommand(), m.getWaitByCommand(), m.getApplyByCommand(), m.getApplyByList() }) {
+            for (Metrics.LatencyStats s : alle) {
+                pruefeVerteilung(s);
+            }
+        }
+    }
+
+    @Test
+    public void recordingDoesNotAllocate() throws Exception {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        int befehle = 20000;
+        long ohne = 0;
+        long mit = 0;
+        // abwechselnd, damit beide Messungen gleich warm sind; gezaehlt wird die letzte Runde
+        for (int runde=0; runde<5; runde++) {
+            v.setMetricsEnabled(false);
+            ohne = gibAllokation(threads, befehle);
+            v.setMetricsEnabled(true);
+            mit = gibAllokation(threads, befehle);
+        }
+        assertTrue("Messen legt " + (mit - ohne) / befehle + " Bytes je Befehl an", (mit - ohne) / befehle < 8);
+    }
+
+    // Bytes, die der Thread des Aufrufers fuer pBefehle Zeigerbewegungen anlegt
+    private long gibAllokation(com.sun.management.ThreadMXBean pThreads, int pBefehle) throws Exception {
+        long id = Thread.currentThread().getId();
+        long vorher = pThreads.getThreadAllocatedBytes(id);
+        for (int i=0; i<pBefehle; i++) {
+            l.toFirst();
+            v.animate(l, VisualListAnimator.Command.TOFIRST, null);
+            l.next();
+            v.animate(l, VisualListAnimator.Command.NEXT, null);
+        }
+        long bytes = pThreads.getThreadAllocatedBytes(id) - vorher;
+        Offscreen.flush();
+        return bytes / 2;
+    }
+
+    private static void pruefeVerteilung(Metrics.LatencyStats pStats) {
+        String name = pStats.getName();
+        assertTrue(name, pStats.getCount() > 0);
+        assertTrue(name, pStats.getTotalNanos() >= pStats.getMaxNanos());
+        assertTrue(name, pStats.getMedianNanos() <= pStats.getP90Nanos());
+        assertTrue(name, pStats.getP90Nanos() <= pStats.getP99Nanos());
+    }
+
+    private static long gibAnzahl(Metrics.LatencyStats[] pStats, String pName) {
+        for (Metrics.LatencyStats s : pStats) {
+            if (s.getName().equals(pName)) {
+                return s.getCount();
+            }
+        }
+        return 0;
+    }
+
+    private static long gibSumme(Metrics.LatencyStats[] pStats) {
+        long summe = 0;
+        for (Metrics.LatencyStats s : pStats) {
+            summe += s.getCount();
+        }
+        return summe;
+    }
+}
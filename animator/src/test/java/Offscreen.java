@@ -0,0 +1,133 @@
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+
+/**
+ * Zugang der Tests zur Anzeige ohne Fenster. Wie in den Messungen (s. BenchmarkWorkloads) wird
+ * sie per Reflection erzeugt, damit VisualListAnimator für BlueJ keine zusätzlichen Methoden
+ * zeigen muss.
+ */
+final class Offscreen {
+
+    private Offscreen() {
+    }
+
+    /**
+     * @return Anzeige ohne Fenster mit einem DrawPanel von pWidth x pHeight Pixeln; animate
+     *         wartet nicht, die Befehle werden auf dem EDT übernommen (s. flush)
+     */
+    @SuppressWarnings("unchecked")
+    static <T> VisualListAnimator<T> create(int pWidth, int pHeight) {
+        try {
+            Constructor<?> c = VisualListAnimator.class.getDeclaredConstructor(int.class, int.class);
+            c.setAccessible(true);
+            return (VisualListAnimator<T>) c.newInstance(pWidth, pHeight);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Wartet, bis der EDT alle bisher eingereihten Befehle übernommen hat.
+     */
+    static void flush() {
+        try {
+            SwingUtilities.invokeAndWait(new Runnable() {
+                    public void run() {
+                    }
+                });
+        }
+        catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * @return das DrawPanel, in das alle Listen gezeichnet werden
+     */
+    static JComponent drawPanel(VisualListAnimator<?> pAnimator) {
+        return (JComponent) field(pAnimator, "dp");
+    }
+
+    /**
+     * @return Wert des privaten Attributs pName
+     */
+    static Object field(Object pObject, String pName) {
+        try {
+            Class<?> klasse = pObject.getClass();
+            while (true) {
+                try {
+                    Field f = klasse.getDeclaredField(pName);
+                    f.setAccessible(true);
+                    return f.get(pObject);
+                }
+                catch (NoSuchFieldException e) {
+                    klasse = klasse.getSuperclass();
+                    if (klasse == null) {
+                        throw e;
+                    }
+                }
+            }
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return Ergebnis der privaten Methode pName mit so vielen Parametern, wie übergeben werden
+     */
+    static Object call(Object pObject, String pName, Object... pArgs) {
+        try {
+            Class<?> klasse = pObject.getClass();
+            while (klasse != null) {
+                for (Method m : klasse.getDeclaredMethods()) {
+                    if (m.getName().equals(pName) && m.getParameterTypes().length == pArgs.length) {
+                        m.setAccessible(true);
+                        return m.invoke(pObject, pArgs);
+                    }
+                }
+                klasse = klasse.getSuperclass();
+            }
+            throw new NoSuchMethodException(pName);
+        }
+        catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return Wiedergabe einer Aufzeichnung ohne Fenster und ohne eigenen Thread wie beim Export
+     *         (s. exportTrace): die Schritte wendet der Aufrufer selbst an (s. wendeNaechstesAn)
+     */
+    @SuppressWarnings("unchecked")
+    static VisualListAnimator<Object> player(String pTraceFile, int pWidth, int pHeight) {
+        try {
+            Class<?> leserKlasse = Class.forName("SpurLeser");
+            Constructor<?> l = leserKlasse.getDeclaredConstructor(String.class);
+            l.setAccessible(true);
+            Constructor<?> c = VisualListAnimator.class.getDeclaredConstructor(leserKlasse, int.class, int.class);
+            c.setAccessible(true);
+            VisualListAnimator<Object> v = (VisualListAnimator<Object>) c.newInstance(l.newInstance(pTraceFile),
+                pWidth, pHeight);
+            call(field(v, "wiedergabe"), "oeffne");
+            return v;
+        }
+        catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Listen, die nur noch von der Visualisierung gekannt werden, werden nach ihrer Einsammlung
+ * bei addList/removeList ausgetragen (wie kleiner/groesser in den rekursiven Aufrufen des
+ * Quicksort-Beispiels).
+ */
+public class PruneTest {
+
+    private VisualListAnimator<Integer> v;
+
+    @Before
+    public void setUp() {
+        v = Offscreen.create(800, 600);
+        v.setTweenDuration(0);
+        v.setFadeOutDuration(0);
+    }
+
+    @After
+    public void tearDown() {
+        v.close();
+    }
+
+    @Test
+    public void collectedListsArePruned() throws Exception {
+        List<Integer> bleibt = erzeugeListe(v, "bleibt", 3);
+        erzeugeRekursiv(v, 200);
+        Offscreen.flush();
+        assertEquals(201, gibErfassungen());
+
+        for (int i=0; i<50 && gibErfassungen() > 1; i++) {
+            System.gc();
+            Thread.sleep(20);
+            v.removeList("unbekannt");
+        }
+        assertEquals(1, gibErfassungen());
+        Offscreen.flush();
+        assertEquals(1, ((java.util.List<?>) Offscreen.field(v, "panels")).size());
+
+        // die verbliebene Liste wird weiter angezeigt
+        bleibt.toFirst();
+        v.animate(bleibt, VisualListAnimator.Command.TOFIRST, null);
+        bleibt.remove();
+        v.animate(bleibt, VisualListAnimator.Command.REMOVE, null);
+        Offscreen.flush();
+        assertEquals(1, gibErfassungen());
+    }
+
+    // jede Ebene legt eine Liste an, bewegt ihren Zeiger und vergisst sie beim Ruecksprung
+    private static void erzeugeRekursiv(VisualListAnimator<Integer> pAnimator, int pTiefe) {
+        if (pTiefe == 0) {
+            return;
+        }
+        List<Integer> l = erzeugeListe(pAnimator, "ebene" + pTiefe, 4);
+        l.toFirst();
+        pAnimator.animate(l, VisualListAnimator.Command.TOFIRST, null);
+        l.next();
+        pAnimator.animate(l, VisualListAnimator.Command.NEXT, null);
+        erzeugeRekursiv(pAnimator, pTiefe - 1);
+    }
+
+    private static List<Integer> erzeugeListe(VisualListAnimator<Integer> pAnimator, String pName, int pAnzahl) {
+        List<Integer> l = new List<Integer>();
+        for (int i=0; i<pAnzahl; i++) {
+            l.append(i);
+        }
+        pAnimator.addList(l, pName);
+        return l;
+    }
+
+    private int gibErfassungen() {
+        return ((Map<?, ?>) Offscreen.field(v, "erfassungen")).size();
+    }
+}
@@ -0,0 +1,133 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import javax.swing.JComponent;
+import javax.swing.RepaintManager;
+import javax.swing.SwingUtilities;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Ein Befehl auf einer Liste zeichnet nur den beschädigten Bereich ihrer Zeile neu: Gezählt
+ * werden die repaint-Aufrufe des DrawPanels (über einen eigenen RepaintManager) und, nach dem
+ * Zeichnen dieser Bereiche, die gezeichneten Zeilen je Liste (s. Metrics.getPaintByList).
+ */
+public class RepaintTest {
+
+    // Hoehe einer Zeile im DrawPanel
+    private static final int ZEILE = 170;
+    private static final int BREITE = 800;
+
+    private final java.util.List<Rectangle> bereiche = Collections.synchronizedList(new ArrayList<Rectangle>());
+    private VisualListAnimator<Integer> v;
+    private JComponent dp;
+
+    @Before
+    public void setUp() {
+        v = Offscreen.create(BREITE, 3 * ZEILE);
+        v.setTweenDuration(0);
+        dp = Offscreen.drawPanel(v);
+        RepaintManager.setCurrentManager(new RepaintManager() {
+                public void addDirtyRegion(JComponent c, int x, int y, int w, int h) {
+                    if (c == dp) {
+                        bereiche.add(new Rectangle(x, y, w, h));
+                    }
+                }
+            });
+    }
+
+    @After
+    public void tearDown() {
+        v.close();
+        RepaintManager.setCurrentManager(null);
+    }
+
+    @Test
+    public void commandRepaintsOnlyTheDamagedAreaOfItsList() throws Exception {
+        List<Integer> a = erzeugeListe(v, "a");
+        List<Integer> b = erzeugeListe(v, "b");
+        List<Integer> c = erzeugeListe(v, "c");
+        b.toFirst();
+        v.animate(b, VisualListAnimator.Command.TOFIRST, null);
+        Offscreen.flush();
+        bereiche.clear();
+        v.setMetricsEnabled(true);
+
+        b.next();
+        v.animate(b, VisualListAnimator.Command.NEXT, null);
+        Offscreen.flush();
+
+        assertFalse("kein repaint", bereiche.isEmpty());
+        Rectangle zeileB = new Rectangle(0, ZEILE, BREITE, ZEILE);
+        Rectangle gesamt = null;
+        for (Rectangle r : bereiche) {
+            assertTrue(r + " liegt nicht in der Zeile von b", zeileB.contains(r));
+            gesamt = gesamt == null ? new Rectangle(r) : gesamt.union(r);
+        }
+        // nur die Knoten um den Zeiger, nicht die ganze Zeile
+        assertTrue("ganze Zeile neu gezeichnet: " + gesamt, gesamt.width < BREITE && gesamt.height < ZEILE);
+
+        zeichne(bereiche);
+        Metrics m = v.getMetrics();
+        assertEquals(bereiche.size(), gibZeilen(m, "b"));
+        assertEquals(0, gibZeilen(m, "a"));
+        assertEquals(0, gibZeilen(m, "c"));
+    }
+
+    @Test
+    public void addListRepaintsOnlyTheNewRow() throws Exception {
+        erzeugeListe(v, "a");
+        Offscreen.flush();
+        bereiche.clear();
+
+        erzeugeListe(v, "b");
+        Offscreen.flush();
+
+        assertFalse("kein repaint", bereiche.isEmpty());
+        for (Rectangle r : bereiche) {
+            assertTrue(r + " liegt nicht in der neuen Zeile", r.y >= ZEILE);
+        }
+    }
+
+    private static List<Integer> erzeugeListe(VisualListAnimator<Integer> pAnimator, String pName) {
+        List<Integer> l = new List<Integer>();
+        for (int i=0; i<5; i++) {
+            l.append(i);
+        }
+        pAnimator.addList(l, pName);
+        return l;
+    }
+
+    // jeden Bereich einzeln zeichnen wie Swing nach repaint
+    private void zeichne(final java.util.List<Rectangle> pBereiche) throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+                public void run() {
+                    BufferedImage bild = new BufferedImage(BREITE, 3 * ZEILE, BufferedImage.TYPE_INT_RGB);
+                    for (Rectangle r : pBereiche) {
+                        Graphics2D g = bild.createGraphics();
+                        g.setClip(r);
+                        dp.paint(g);
+                        g.dispose();
+                    }
+                }
+            });
+    }
+
+    // Anzahl der gezeichneten Zeilen der Liste pName
+    private static long gibZeilen(Metrics pMetrics, String pName) {
+        for (Metrics.LatencyStats s : pMetrics.getPaintByList()) {
+            if (s.getName().equals(pName)) {
+                return s.getCount();
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,86 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * animate(List, String): jede erkannte Änderung wird als eigener Schritt angezeigt und wie ein
+ * eigener Befehl abgewartet, ein Umstellen mit remove und insert als Verschieben (gezählt über
+ * die Messwerte je Befehl).
+ */
+public class SyncTest {
+
+    private VisualListAnimator<Integer> v;
+    private List<Integer> l;
+
+    @Before
+    public void setUp() {
+        v = Offscreen.create(800, 200);
+        v.setTweenDuration(0);
+        l = new List<Integer>();
+        for (int i=0; i<6; i++) {
+            l.append(1000 + i);
+        }
+        v.addList(l, "l");
+        // der erste Abgleich liest die Liste vollstaendig ein
+        v.animate(l, "Anfang");
+        Offscreen.flush();
+        v.setMetricsEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        v.close();
+    }
+
+    @Test
+    public void eachEditIsAStepOfItsOwn() throws Exception {
+        l.toFirst();
+        l.remove();
+        l.toLast();
+        l.append(2000);
+        l.toFirst();
+        l.setContent(3000);
+        v.animate(l, "drei Änderungen");
+        Offscreen.flush();
+
+        Metrics m = v.getMetrics();
+        assertEquals(1, gibAnzahl(m.getApplyByCommand(), "REMOVE"));
+        assertEquals(1, gibAnzahl(m.getApplyByCommand(), "APPEND"));
+        assertEquals(1, gibAnzahl(m.getApplyByCommand(), "SETCONTENT"));
+        // die beiden ersten Schritte warten selbst, der letzte in erfasseBefehl (ohne Befehl)
+        assertEquals(1, gibAnzahl(m.getWaitByCommand(), "REMOVE"));
+        assertEquals(1, gibAnzahl(m.getWaitByCommand(), "APPEND"));
+        assertEquals(1, gibAnzahl(m.getWaitByCommand(), "(ohne Befehl)"));
+    }
+
+    @Test
+    public void removeAndInsertOfTheSameContentIsAMove() throws Exception {
+        l.toFirst();
+        l.next();
+        Integer inhalt = l.getContent();
+        l.remove();
+        l.toLast();
+        l.append(inhalt);
+        l.toFirst();
+        v.animate(l, "Verschieben ans Ende");
+        Offscreen.flush();
+
+        Metrics m = v.getMetrics();
+        assertEquals(1, gibAnzahl(m.getApplyByCommand(), "(Verschieben)"));
+        assertEquals(0, gibAnzahl(m.getApplyByCommand(), "REMOVE"));
+        assertEquals(0, gibAnzahl(m.getApplyByCommand(), "APPEND"));
+        // der Zeiger steht danach wieder am Anfang: ein eigener Schritt
+        assertEquals(1, gibAnzahl(m.getApplyByCommand(), "(ohne Befehl)"));
+    }
+
+    private static long gibAnzahl(Metrics.LatencyStats[] pStats, String pName) {
+        for (Metrics.LatencyStats s : pStats) {
+            if (s.getName().equals(pName)) {
+                return s.getCount();
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,213 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Aufzeichnung und Wiedergabe: ein gemischter Lauf mit eigenem Befehl, CONCAT und mehr
+ * verschiedenen Texten, als die Texttabelle Fächer hat, wird ohne Fenster abgespielt. Am Ende
+ * zeigt die Wiedergabe die Listen der Aufzeichnung, und jeder Sprung (auch rückwärts über
+ * mehrere Schlüsselbilder) zeigt denselben Zustand wie das schrittweise Abspielen.
+ */
+public class TraceTest {
+
+    private static final int SCHRITTE = 100000;
+
+    @Rule
+    public TemporaryFolder ordner = new TemporaryFolder();
+
+    @Test
+    public void seeksMatchTheForwardPlayback() throws Exception {
+        String datei = new File(ordner.getRoot(), "lauf.vlat").getPath();
+        TreeMap<Long, String> aufgezeichnet = nehmeAuf(datei);
+
+        VisualListAnimator<Object> spieler = Offscreen.player(datei, 800, 600);
+        Object wiedergabe = Offscreen.field(spieler, "wiedergabe");
+        long gesamt = (Long) Offscreen.field(wiedergabe, "gesamtSchritte");
+        assertTrue("zu wenige Schluesselbilder", (Integer) Offscreen.field(wiedergabe, "anzahlBilder") >= 3);
+
+        assertEquals((long) aufgezeichnet.lastKey(), gesamt);
+        TreeMap<Long, String> stichproben = new TreeMap<Long, String>();
+        for (long s=1; s<=gesamt; s++) {
+            Offscreen.call(wiedergabe, "wendeNaechstesAn");
+            if (aufgezeichnet.containsKey(s)) {
+                assertEquals("Schritt " + s, aufgezeichnet.get(s), gibZustand(spieler, false));
+                stichproben.put(s, gibZustand(spieler, true));
+            }
+        }
+
+        // vom Ende aus rueckwaerts, dabei jedes Mal ueber mindestens ein Schluesselbild
+        for (Long s : stichproben.descendingKeySet()) {
+            springe(spieler, wiedergabe, s);
+            assertEquals("Schritt " + s, stichproben.get(s), gibZustand(spieler, true));
+        }
+        // und durcheinander
+        Random r = new Random(15);
+        Long[] ziele = stichproben.keySet().toArray(new Long[0]);
+        for (int i=0; i<20; i++) {
+            long s = ziele[r.nextInt(ziele.length)];
+            springe(spieler, wiedergabe, s);
+            assertEquals("Schritt " + s, stichproben.get(s), gibZustand(spieler, true));
+        }
+    }
+
+    // liefert die Listen nach einigen Schritten der Aufzeichnung wie gibZustand(..., false)
+    private static TreeMap<Long, String> nehmeAuf(String pDatei) {
+        VisualListAnimator<Object> v = new VisualListAnimator<Object>(pDatei);
+        v.registerCommand("ROTATE", new VisualListAnimator.CommandHandler<Object>() {
+                public int[] perform(List<Object> pList, int pPosition) {
+                    return new int[] { pPosition };
+                }
+            });
+        @SuppressWarnings("unchecked")
+        List<Object>[] listen = new List[] { new List<Object>(), new List<Object>(), new List<Object>() };
+        for (int i=0; i<listen.length; i++) {
+            v.addList(listen[i], "l" + i);
+        }
+        TreeMap<Long, String> stichproben = new TreeMap<Long, String>();
+        long schritt = listen.length;
+
+        Random r = new Random(14);
+        HashSet<String> texte = new HashSet<String>();
+        int naechsterText = 0;
+        for (int s=0; s<SCHRITTE; s++) {
+            int nummer = r.nextInt(listen.length);
+            List<Object> l = listen[nummer];
+            // Liste 0 nur Zahlen, Liste 1 nur Texte (teils mehrzeilig), Liste 2 gemischt
+            Object inhalt;
+            if (nummer == 0 || (nummer == 2 && r.nextBoolean())) {
+                inhalt = r.nextInt(1000);
+            }
+            else {
+                inhalt = "t" + naechsterText++ + (r.nextInt(4) == 0 ? ":" + r.nextInt(9) : "");
+                texte.add((String) inhalt);
+            }
+            String befehl;
+            switch (r.nextInt(12)) {
+                case 0:
+                    l.toFirst();
+                    befehl = "TOFIRST";
+                    break;
+                case 1:
+                    l.next();
+                    befehl = "NEXT";
+                    break;
+                case 2:
+                    l.toLast();
+                    befehl = "TOLAST";
+                    break;
+                case 3:
+                    l.append(inhalt);
+                    befehl = "APPEND";
+                    break;
+                case 4:
+                    l.insert(inhalt);
+                    befehl = "INSERT";
+                    break;
+                case 5:
+                case 6:
+                    l.remove();
+                    befehl = "REMOVE";
+                    break;
+                case 8:
+                    l.setContent(inhalt);
+                    befehl = "SETCONTENT";
+                    break;
+                case 7:
+                case 9:
+                    befehl = r.nextBoolean() ? "MARK" : "UNMARK";
+                    break;
+                case 10: // erstes Element ans Ende
+                    l.toFirst();
+                    if (l.hasAccess()) {
+                        Object erstes = l.getContent();
+                        l.remove();
+                        l.append(erstes);
+                    }
+                    befehl = "ROTATE";
+                    break;
+                default:
+                    // selten, damit die Listen nicht alle leer werden; leert die andere Liste
+                    List<Object> andere = listen[(nummer + 1) % listen.length];
+                    if (r.nextInt(8) != 0 || andere.isEmpty()) {
+                        befehl = "GETCONTENT";
+                        break;
+                    }
+                    l.concat(andere);
+                    befehl = "CONCAT";
+                    schritt++; // das Leeren der anderen Liste ist ein eigener Schritt
+                    break;
+            }
+            String text = r.nextInt(4) == 0 ? null : "Schritt " + s;
+            if (text != null) {
+                texte.add(text);
+            }
+            v.animate(l, befehl, text);
+            schritt++;
+            if (s % 4099 == 0 || s == SCHRITTE - 1 || s < 3) {
+                stichproben.put(schritt, gibZustand(listen));
+            }
+        }
+        assertTrue("Texttabelle nicht ueberschritten", texte.size() > 1 << 16);
+        v.close();
+        return stichproben;
+    }
+
+    private static String gibZustand(List<Object>[] pListen) {
+        StringBuilder zustand = new StringBuilder();
+        for (List<Object> l : pListen) {
+            List<Object> zeiger = new List<Object>();
+            zeiger.current = l.first;
+            int position = -1;
+            StringBuilder zeilen = new StringBuilder();
+            for (int i=0; zeiger.hasAccess(); i++) {
+                if (zeiger.current == l.current) {
+                    position = i;
+                }
+                zeilen.append(zeiger.getContent()).append(',');
+                zeiger.next();
+            }
+            zustand.append(position).append('|').append(zeilen).append(';');
+        }
+        return zustand.toString();
+    }
+
+    // wie exportTrace: vom letzten Schluesselbild vor pSchritt aus vorwaerts
+    private static void springe(VisualListAnimator<Object> pSpieler, Object pWiedergabe, long pSchritt) {
+        Offscreen.call(pSpieler, "wendeAn", Offscreen.call(pWiedergabe, "ladeSchluesselbild", pSchritt));
+        while ((Long) Offscreen.field(pWiedergabe, "schritt") < pSchritt) {
+            Offscreen.call(pWiedergabe, "wendeNaechstesAn");
+        }
+    }
+
+    // je Zeile Position und Inhalte, mit pAlles auch Namen, Text und Markierung
+    private static String gibZustand(VisualListAnimator<Object> pSpieler, boolean pAlles) {
+        StringBuilder zustand = new StringBuilder();
+        for (Object vPan : (java.util.List<?>) Offscreen.field(pSpieler, "panels")) {
+            Object spiegel = Offscreen.call(vPan, "gibSpiegel");
+            if (pAlles) {
+                zustand.append(Offscreen.call(vPan, "gibRefNames")).append('|')
+                    .append(Offscreen.call(vPan, "gibText")).append('|')
+                    .append(Offscreen.call(vPan, "gibMark")).append('|');
+            }
+            zustand.append(Offscreen.call(spiegel, "gibPosition")).append('|');
+            int anzahl = (Integer) Offscreen.call(spiegel, "gibAnzahl");
+            for (int i=0; i<anzahl; i++) {
+                String[] zeilen = (String[]) Offscreen.call(spiegel, "gibZeilen", i);
+                for (int k=0; k<zeilen.length; k++) {
+                    zustand.append(k == 0 ? "" : ":").append(zeilen[k]);
+                }
+                zustand.append(',');
+            }
+            zustand.append(';');
+        }
+        return zustand.toString();
+    }
+}
@@ -0,0 +1,235 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeMap;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Verlauf ("<" und ">"): nach beliebigen Befehlen führt das Zurücknehmen aller Schritte genau
+ * zum Anfangszustand (Inhalte, Zeiger, Markierung, Zeilen), das erneute Anwenden zum Endzustand.
+ * Übersteigen die abgelegten Inhalte das Budget, bleiben nur die neuesten Schritte erhalten.
+ */
+public class UndoTest {
+
+    private VisualListAnimator<Integer> v;
+
+    @Before
+    public void setUp() {
+        v = Offscreen.create(800, 600);
+        v.setTweenDuration(0);
+        v.registerCommand("SWAP", new VisualListAnimator.CommandHandler<Integer>() {
+                public int[] perform(List<Integer> pList, int pPosition) {
+                    return new int[] { pPosition, pPosition + 1 };
+                }
+            });
+    }
+
+    @After
+    public void tearDown() {
+        v.close();
+    }
+
+    @Test
+    public void stepBackAndForwardRestoreEveryState() throws Exception {
+        @SuppressWarnings("unchecked")
+        List<Integer>[] listen = new List[] { new List<Integer>(), new List<Integer>(), new List<Integer>() };
+        for (int i=0; i<5; i++) {
+            listen[0].append(i);
+            listen[1].append(10 + i);
+        }
+        v.addList(listen[0], "a");
+        v.addList(listen[1], "b");
+        Offscreen.flush();
+        // Zustand nach jedem Befehl, nach der Position im Verlauf
+        TreeMap<Integer, String> zustaende = new TreeMap<Integer, String>();
+        int vorher = merke(zustaende);
+
+        Random r = new Random(16);
+        boolean drittesAngezeigt = false;
+        for (int s=0; s<300; s++) {
+            int nummer = r.nextInt(drittesAngezeigt ? 3 : 2);
+            List<Integer> l = listen[nummer];
+            int inhalt = r.nextInt(1000);
+            String befehl;
+            switch (r.nextInt(13)) {
+                case 0:
+                    l.toFirst();
+                    befehl = "TOFIRST";
+                    break;
+                case 1:
+                case 2:
+                    l.next();
+                    befehl = "NEXT";
+                    break;
+                case 3:
+                    l.append(inhalt);
+                    befehl = "APPEND";
+                    break;
+                case 4:
+                    l.insert(inhalt);
+                    befehl = "INSERT";
+                    break;
+                case 5:
+                    l.remove();
+                    befehl = "REMOVE";
+                    break;
+                case 6:
+                    l.setContent(inhalt);
+                    befehl = "SETCONTENT";
+                    break;
+                case 7:
+                    befehl = r.nextBoolean() ? "MARK" : "UNMARK";
+                    break;
+                case 8:
+                    if (l.hasAccess()) {
+                        l.setContent(inhalt);
+                    }
+                    befehl = "SWAP";
+                    break;
+                case 9:
+                    List<Integer> andere = listen[(nummer + 1) % 2];
+                    if (r.nextInt(4) != 0 || andere == l) {
+                        befehl = "GETCONTENT";
+                        break;
+                    }
+                    l.concat(andere);
+                    befehl = "CONCAT";
+                    break;
+                case 10: // Zeilen: die dritte Liste kommt und geht
+                    if (drittesAngezeigt) {
+                        v.removeList(listen[2]);
+                    }
+                    else {
+                        v.addList(listen[2], "c" + s);
+                    }
+                    drittesAngezeigt = !drittesAngezeigt;
+                    merke(zustaende);
+                    continue;
+                case 11:
+                    v.addList(l, "alias" + s);
+                    merke(zustaende);
+                    continue;
+                default:
+                    l.toLast();
+                    befehl = "TOLAST";
+                    break;
+            }
+            v.animate(l, befehl, r.nextInt(3) == 0 ? null : "Schritt " + s);
+            merke(zustaende);
+        }
+        int schritte = zustaende.lastKey() - vorher;
+        assertTrue(schritte >= 300);
+
+        // Schritt fuer Schritt zurueck bis zum Anfang, dabei jeden bekannten Zustand vergleichen
+        for (int i=0; i<schritte; i++) {
+            assertEquals(1, aufEdt("geheZurueck", 1));
+            vergleiche(zustaende);
+        }
+        assertEquals(zustaende.firstEntry().getValue(), gibZustand());
+        // und wieder vor bis zum Ende
+        for (int i=0; i<schritte; i++) {
+            assertEquals(1, aufEdt("wiederhole", 1));
+            vergleiche(zustaende);
+        }
+        assertEquals(zustaende.lastEntry().getValue(), gibZustand());
+        assertFalse("noch im Rueckblick", (Boolean) Offscreen.call(v, "imRueckblick"));
+    }
+
+    @Test
+    public void theElementBudgetDropsTheOldestSteps() throws Exception {
+        // jeder eigene Befehl legt alle Inhalte ab, nach wenigen ist das Budget erschoepft
+        List<Integer> l = new List<Integer>();
+        for (int i=0; i<300000; i++) {
+            l.append(i);
+        }
+        v.addList(l, "gross");
+        Offscreen.flush();
+        int befehle = 20;
+        String[] nach = new String[befehle + 1];
+        nach[0] = gibZustand();
+        Random r = new Random(16);
+        for (int s=1; s<=befehle; s++) {
+            l.toFirst();
+            for (int i=r.nextInt(1000); i>0; i--) {
+                l.next();
+            }
+            l.setContent(-s);
+            v.animate(l, "SWAP", "Schritt " + s);
+            Offscreen.flush();
+            nach[s] = gibZustand();
+        }
+
+        int zurueck = aufEdt("geheZurueck", befehle + 1);
+        assertTrue("nichts vergessen", zurueck < befehle);
+        assertTrue(zurueck > 0);
+        assertEquals(nach[befehle - zurueck], gibZustand());
+        aufEdt("wiederhole", zurueck);
+        assertEquals(nach[befehle], gibZustand());
+        assertFalse("noch im Rueckblick", (Boolean) Offscreen.call(v, "imRueckblick"));
+    }
+
+    private int merke(TreeMap<Integer, String> pZustaende) {
+        Offscreen.flush();
+        int position = (Integer) Offscreen.field(v, "verlaufPosition");
+        pZustaende.put(position, gibZustand());
+        return position;
+    }
+
+    private void vergleiche(TreeMap<Integer, String> pZustaende) {
+        int position = (Integer) Offscreen.field(v, "verlaufPosition");
+        if (pZustaende.containsKey(position)) {
+            assertEquals("Verlauf " + position, pZustaende.get(position), gibZustand());
+        }
+    }
+
+    // pMal Schritte zurueck bzw. vor, solange es geht; liefert die Anzahl der Schritte (auf dem EDT)
+    private int aufEdt(final String pMethode, final int pMal) throws Exception {
+        final int[] anzahl = new int[1];
+        SwingUtilities.invokeAndWait(new Runnable() {
+                public void run() {
+                    for (int i=0; i<pMal; i++) {
+                        if (pMethode.equals("wiederhole")) {
+                            // nur, solange zurueckgenommene Schritte vorliegen
+                            if (!(Boolean) Offscreen.call(v, "imRueckblick")) {
+                                return;
+                            }
+                            Offscreen.call(v, pMethode);
+                        }
+                        else if (!(Boolean) Offscreen.call(v, pMethode)) {
+                            return;
+                        }
+                        anzahl[0]++;
+                    }
+                }
+            });
+        return anzahl[0];
+    }
+
+    // Zeilen in ihrer Reihenfolge mit Namen, Text, Zeiger, Markierung und Inhalten, dazu der
+    // zuletzt angezeigte Befehl und seine Zeile; lange Listen nur als Hashwert
+    private String gibZustand() {
+        StringBuilder zustand = new StringBuilder();
+        java.util.List<?> panels = (java.util.List<?>) Offscreen.field(v, "panels");
+        for (Object vPan : panels) {
+            Object spiegel = Offscreen.call(vPan, "gibSpiegel");
+            Object[] inhalte = (Object[]) Offscreen.call(spiegel, "gibInhalte");
+            zustand.append(Offscreen.call(vPan, "gibRefNames")).append('|')
+                .append(Offscreen.call(vPan, "gibText")).append('|')
+                .append(Offscreen.call(spiegel, "gibPosition")).append('|')
+                .append(Offscreen.call(vPan, "gibMark")).append('|')
+                .append(inhalte.length < 1000 ? Arrays.toString(inhalte) : "#" + Arrays.hashCode(inhalte))
+                .append('\n');
+        }
+        zustand.append(Offscreen.field(v, "aktBefehl")).append(' ')
+            .append(panels.indexOf(Offscreen.field(v, "aktiveVPan")));
+        return zustand.toString();
+    }
+}
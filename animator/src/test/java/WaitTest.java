@@ -0,0 +1,112 @@
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Warten am Tor (BLOCK ohne Animation): ein wartender Aufrufer lässt sich unterbrechen und
+ * behält dabei seine Unterbrechung, und andere Threads können währenddessen Listen aufnehmen
+ * und entfernen, auch zwischen den Schritten von animate(List, String).
+ */
+public class WaitTest {
+
+    private VisualListAnimator<Integer> v;
+    private List<Integer> l;
+
+    @Before
+    public void setUp() {
+        v = Offscreen.create(800, 200);
+        v.setTweenDuration(0);
+        l = new List<Integer>();
+        for (int i=0; i<3; i++) {
+            l.append(i);
+        }
+        v.addList(l, "l");
+        v.setQueuePolicy(VisualListAnimator.QueuePolicy.BLOCK);
+    }
+
+    @After
+    public void tearDown() {
+        v.close();
+    }
+
+    @Test
+    public void interruptEndsTheWaitAndStaysSet() throws Exception {
+        final AtomicBoolean unterbrochen = new AtomicBoolean();
+        Thread t = new Thread(new Runnable() {
+                public void run() {
+                    l.toFirst();
+                    v.animate(l, VisualListAnimator.Command.TOFIRST, null);
+                    unterbrochen.set(Thread.currentThread().isInterrupted());
+                }
+            });
+        t.start();
+        warteBisGeparkt(t);
+        t.interrupt();
+        t.join(5000);
+        assertFalse("animate wartet trotz Unterbrechung", t.isAlive());
+        assertTrue("Unterbrechung verloren", unterbrochen.get());
+    }
+
+    @Test
+    public void addAndRemoveListDoNotWaitForAPausedDiff() throws Exception {
+        v.setQueuePolicy(VisualListAnimator.QueuePolicy.COALESCE);
+        // der erste Abgleich liest die Liste vollstaendig ein
+        v.animate(l, "Anfang");
+        v.setQueuePolicy(VisualListAnimator.QueuePolicy.BLOCK);
+        l.toFirst();
+        l.remove();
+        l.toLast();
+        l.append(9);
+        Thread abgleich = new Thread(new Runnable() {
+                public void run() {
+                    v.animate(l, "zwei Schritte");
+                }
+            });
+        abgleich.start();
+        warteBisGeparkt(abgleich);
+
+        fuehreAus(new Runnable() {
+                public void run() {
+                    v.addList(l, "zweiter Name");
+                }
+            });
+        fuehreAus(new Runnable() {
+                public void run() {
+                    v.addList(new List<Integer>(), "andere");
+                }
+            });
+        fuehreAus(new Runnable() {
+                public void run() {
+                    v.removeList(l);
+                }
+            });
+
+        abgleich.interrupt();
+        abgleich.join(5000);
+        assertFalse("animate endet nicht", abgleich.isAlive());
+        Offscreen.flush();
+        // die entfernte Liste bekommt keine weiteren Schritte, es bleibt nur die andere Zeile
+        assertTrue(((java.util.List<?>) Offscreen.field(v, "panels")).size() == 1);
+    }
+
+    // in einem eigenen Thread, der nicht haengen bleiben darf
+    private static void fuehreAus(Runnable pAufgabe) throws InterruptedException {
+        Thread t = new Thread(pAufgabe);
+        t.start();
+        t.join(5000);
+        assertFalse("haengt, waehrend animate am Tor wartet", t.isAlive());
+    }
+
+    static void warteBisGeparkt(Thread pThread) throws InterruptedException {
+        long ende = System.currentTimeMillis() + 5000;
+        while (pThread.getState() != Thread.State.WAITING && System.currentTimeMillis() < ende) {
+            Thread.sleep(5);
+        }
+        assertTrue("wartet nicht am Tor", pThread.getState() == Thread.State.WAITING);
+    }
+}
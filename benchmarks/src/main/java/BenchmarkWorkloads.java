@@ -0,0 +1,337 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Random;
+import javax.swing.JComponent;
+
+import visuallistanimator.benchmarks.Workload;
+import visuallistanimator.benchmarks.Workloads;
+
+/**
+ * Die Lasten der Messungen (s. Workloads). Liegt im Standardpaket, damit VisualListAnimator,
+ * List und LockstepSortDemo direkt verwendet werden können.
+ *
+ * Für das Zeichnen wird wie bei exportTrace der private Zeichner ohne Fenster verwendet; er wird
+ * einmal beim Vorbereiten per Reflection erzeugt, damit VisualListAnimator für BlueJ keine
+ * zusätzlichen Methoden zeigen muss. Gemessen wird danach nur noch paint des DrawPanel.
+ */
+public class BenchmarkWorkloads implements Workloads {
+
+    private static final String TEXT = "Befehl auf der Liste <l>";
+    // feste Zahlen, damit jede Messung dieselbe Arbeit hat
+    private static final long SAAT = 42;
+
+    public Workload command(String pCommand, int pLength) {
+        final VisualListAnimator.Command befehl = VisualListAnimator.Command.valueOf(pCommand);
+        if (befehl == VisualListAnimator.Command.CONCAT) {
+            throw new IllegalArgumentException("CONCAT leert eine zweite Liste und ist daher nicht einzeln messbar");
+        }
+        final Aufnahme aufnahme = new Aufnahme();
+        final VisualListAnimator<Integer> v = aufnahme.vla;
+        final List<Integer> l = erzeugeListe(pLength);
+        v.addList(l, "l");
+        l.toFirst();
+        v.animate(l, VisualListAnimator.Command.TOFIRST, TEXT);
+        return new Workload() {
+            private int zahl;
+
+            public void run() {
+                zahl = (zahl + 1) % 100;
+                switch (befehl) {
+                    case TOFIRST:
+                        l.toFirst();
+                        break;
+                    case NEXT:
+                        if (!l.hasAccess()) {
+                            l.toFirst();
+                        }
+                        l.next();
+                        break;
+                    case TOLAST:
+                        l.toLast();
+                        break;
+                    case GETCONTENT:
+                        l.getContent();
+                        break;
+                    case SETCONTENT:
+                        l.setContent(zahl);
+                        break;
+                    case APPEND:
+                        // danach wieder entfernen, damit die Liste ihre Laenge behaelt
+                        l.append(zahl);
+                        v.animate(l, VisualListAnimator.Command.APPEND, TEXT);
+                        l.toLast();
+                        l.remove();
+                        v.animate(l, VisualListAnimator.Command.REMOVE, TEXT);
+                        return;
+                    case INSERT:
+                        l.toFirst();
+                        l.insert(zahl);
+                        v.animate(l, VisualListAnimator.Command.INSERT, TEXT);
+                        l.toFirst();
+                        l.remove();
+                        v.animate(l, VisualListAnimator.Command.REMOVE, TEXT);
+                        return;
+                    case REMOVE:
+                        l.toFirst();
+                        l.remove();
+                        v.animate(l, VisualListAnimator.Command.REMOVE, TEXT);
+                        l.append(zahl);
+                        v.animate(l, VisualListAnimator.Command.APPEND, TEXT);
+                        return;
+                    default:
+                        break;
+                }
+                v.animate(l, befehl, TEXT);
+            }
+
+            public void close() {
+                aufnahme.schliesse();
+            }
+        };
+    }
+
+    public Workload sort(final String pAlgorithm, int pLength) {
+        final Aufnahme aufnahme = new Aufnahme();
+        final LockstepSortDemo demo = new LockstepSortDemo(aufnahme.vla);
+        final int[] zahlen = new int[pLength];
+        Random zufall = new Random(SAAT);
+        for (int i=0; i<zahlen.length; i++) {
+            zahlen[i] = zufall.nextInt(100);
+        }
+        if (!pAlgorithm.equals("BUBBLE") && !pAlgorithm.equals("INSERTION")
+                && !pAlgorithm.equals("SELECTION") && !pAlgorithm.equals("QUICK")) {
+            throw new IllegalArgumentException(pAlgorithm);
+        }
+        return new Workload() {
+            public void run() {
+                List<Integer> l = new List<Integer>();
+                for (int zahl : zahlen) {
+                    l.append(zahl);
+                }
+                aufnahme.vla.addList(l, "l");
+                if (pAlgorithm.equals("BUBBLE")) {
+                    demo.bubbleSort(l);
+                }
+                else if (pAlgorithm.equals("INSERTION")) {
+                    demo.insertionSort(l);
+                }
+                else if (pAlgorithm.equals("SELECTION")) {
+                    demo.selectionSort(l);
+                }
+                else {
+                    demo.quickSort(l);
+                }
+                aufnahme.vla.removeList(l);
+            }
+
+            public void close() {
+                aufnahme.schliesse();
+            }
+        };
+    }
+
+    public Workload addList(int pPanels) {
+        final Aufnahme aufnahme = new Aufnahme();
+        final Object[] angezeigt = new Object[pPanels];
+        for (int i=0; i<pPanels; i++) {
+            List<Integer> l = erzeugeListe(10);
+            aufnahme.vla.addList(l, "l" + i);
+            angezeigt[i] = l;
+        }
+        final List<Integer> neu = erzeugeListe(10);
+        return new Workload() {
+            // die Listen muessen erreichbar bleiben, sonst entfernt addList sie wieder
+            private final Object[] listen = angezeigt;
+
+            public void run() {
+                aufnahme.vla.addList(neu, "neu");
+                aufnahme.vla.removeList(neu);
+            }
+
+            public void close() {
+                aufnahme.schliesse();
+            }
+        };
+    }
+
+    public Workload commandAmong(int pLists) {
+        final Aufnahme aufnahme = new Aufnahme();
+        final List<Integer>[] weitere = erzeugeListen(pLists);
+        for (int i=0; i<weitere.length; i++) {
+            aufnahme.vla.addList(weitere[i], "weitere" + i);
+        }
+        final List<Integer> l = erzeugeListe(10);
+        aufnahme.vla.addList(l, "l");
+        l.toFirst();
+        aufnahme.vla.animate(l, VisualListAnimator.Command.TOFIRST, TEXT);
+        return new Workload() {
+            // die Listen muessen erreichbar bleiben, sonst entfernt addList sie wieder
+            private final Object[] listen = weitere;
+
+            public void run() {
+                l.next();
+                if (l.hasAccess()) {
+                    aufnahme.vla.animate(l, VisualListAnimator.Command.NEXT, TEXT);
+                }
+                else {
+                    l.toFirst();
+                    aufnahme.vla.animate(l, VisualListAnimator.Command.TOFIRST, TEXT);
+                }
+            }
+
+            public void close() {
+                aufnahme.schliesse();
+            }
+        };
+    }
+
+    public Workload paint(int pLength, final int pWidth, final int pHeight) {
+        final Zeichner zeichner = new Zeichner(pLength, pWidth, pHeight, true);
+        final BufferedImage bild = new BufferedImage(pWidth, pHeight, BufferedImage.TYPE_INT_RGB);
+        return new Workload() {
+            public void run() {
+                Graphics2D g = bild.createGraphics();
+                try {
+                    g.setClip(0, 0, pWidth, pHeight);
+                    g.setFont(zeichner.anzeige.getFont());
+                    g.setColor(zeichner.anzeige.getForeground());
+                    zeichner.anzeige.paint(g);
+                }
+                finally {
+                    g.dispose();
+                }
+            }
+
+            public void close() {
+            }
+        };
+    }
+
+    public Workload tracked(int pLength, boolean pCompact) {
+        // ein Pixel, damit das Bild des Zeichners nicht mitgezaehlt wird
+        final Zeichner zeichner = new Zeichner(pLength, 1, 1, pCompact);
+        return new Workload() {
+            // haelt die Anzeige fest, solange gemessen wird
+            private final Zeichner gehalten = zeichner;
+
+            public void run() {
+            }
+
+            public void close() {
+            }
+        };
+    }
+
+    // pLength Zahlen wie in den Demos (0 bis 99)
+    private static List<Integer> erzeugeListe(int pLength) {
+        List<Integer> l = new List<Integer>();
+        Random zufall = new Random(SAAT);
+        for (int i=0; i<pLength; i++) {
+            l.append(zufall.nextInt(100));
+        }
+        return l;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Integer>[] erzeugeListen(int pAnzahl) {
+        // List<Integer>[] laesst sich nicht direkt erzeugen
+        List<Integer>[] listen = (List<Integer>[]) new List<?>[pAnzahl];
+        for (int i=0; i<pAnzahl; i++) {
+            listen[i] = new List<Integer>();
+        }
+        return listen;
+    }
+
+    // Visualisierung, die in eine temporaere Datei aufzeichnet; schliesse loescht die Datei wieder
+    private static class Aufnahme {
+
+        private final File datei;
+        private final VisualListAnimator<Integer> vla;
+
+        public Aufnahme() {
+            try {
+                datei = File.createTempFile("visuallistanimator", ".vlat");
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            datei.deleteOnExit();
+            vla = new VisualListAnimator<Integer>(datei.getPath());
+        }
+
+        public void schliesse() {
+            vla.close();
+            datei.delete();
+        }
+    }
+
+    // Zeichner ohne Fenster wie bei exportTrace, der eine Liste mit pLength Elementen anzeigt
+    // (Zeiger, Markierung und Zugriff wie mitten in einer Demo)
+    private static class Zeichner {
+
+        private final VisualListAnimator<Object> vla;
+        private final JComponent anzeige;
+
+        @SuppressWarnings("unchecked")
+        public Zeichner(int pLength, int pWidth, int pHeight, boolean pKompakt) {
+            Aufnahme aufnahme = new Aufnahme();
+            List<Integer> l = erzeugeListe(pLength);
+            VisualListAnimator<Integer> v = aufnahme.vla;
+            v.addList(l, "l");
+            l.toFirst();
+            v.animate(l, VisualListAnimator.Command.TOFIRST, TEXT);
+            for (int i=0; i<3 && l.hasAccess(); i++) {
+                l.next();
+                v.animate(l, VisualListAnimator.Command.NEXT, TEXT);
+            }
+            v.animate(l, VisualListAnimator.Command.MARK, TEXT);
+            l.next();
+            v.animate(l, VisualListAnimator.Command.NEXT, TEXT);
+            v.animate(l, VisualListAnimator.Command.GETCONTENT, TEXT);
+            v.close();
+            try {
+                Class<?> leserKlasse = Class.forName("SpurLeser");
+                Constructor<?> leser = leserKlasse.getDeclaredConstructor(String.class);
+                leser.setAccessible(true);
+                Constructor<?> erzeuge = VisualListAnimator.class.getDeclaredConstructor(leserKlasse, int.class, int.class);
+                erzeuge.setAccessible(true);
+                vla = (VisualListAnimator<Object>) erzeuge.newInstance(leser.newInstance(aufnahme.datei.getPath()), pWidth, pHeight);
+                vla.setCompactStorage(pKompakt);
+                Object wiedergabe = gibFeld(VisualListAnimator.class, "wiedergabe").get(vla);
+                gibMethode(wiedergabe.getClass(), "oeffne").invoke(wiedergabe);
+                long gesamt = gibFeld(wiedergabe.getClass(), "gesamtSchritte").getLong(wiedergabe);
+                // spielt alle Schritte ab wie der Export
+                Method naechstes = gibMethode(wiedergabe.getClass(), "wendeNaechstesAn");
+                for (long i=0; i<gesamt; i++) {
+                    naechstes.invoke(wiedergabe);
+                }
+                anzeige = (JComponent) gibFeld(VisualListAnimator.class, "dp").get(vla);
+            }
+            catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("VisualListAnimator passt nicht zu den Messungen", e);
+            }
+            finally {
+                // die Aufzeichnung ist bereits eingeblendet
+                aufnahme.datei.delete();
+            }
+        }
+
+        private static Field gibFeld(Class<?> pKlasse, String pName) throws NoSuchFieldException {
+            Field f = pKlasse.getDeclaredField(pName);
+            f.setAccessible(true);
+            return f;
+        }
+
+        private static Method gibMethode(Class<?> pKlasse, String pName, Class<?>... pParameter) throws NoSuchMethodException {
+            Method m = pKlasse.getDeclaredMethod(pName, pParameter);
+            m.setAccessible(true);
+            return m;
+        }
+    }
+}
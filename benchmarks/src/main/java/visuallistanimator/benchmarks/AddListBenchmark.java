@@ -0,0 +1,50 @@
+package visuallistanimator.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * addList und removeList einer Liste mit 10 Elementen, während bereits panels Listen angezeigt
+ * werden: Die Dauer sollte nicht mit der Anzahl der Listen wachsen.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class AddListBenchmark {
+
+    @Param({ "1", "10", "100", "1000" })
+    private int panels;
+
+    private Workload workload;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        workload = Workloads.load().addList(panels);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        workload.close();
+    }
+
+    @Benchmark
+    public void addAndRemoveList() {
+        workload.run();
+    }
+}
@@ -0,0 +1,56 @@
+package visuallistanimator.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Durchsatz von animate ohne Fenster (Aufzeichnung in eine Datei), je Befehl auf einer Liste
+ * mit length Elementen. APPEND, INSERT und REMOVE zählen je zwei Befehle, da das Gegenstück die
+ * Liste wieder auf ihre Länge bringt (s. Workloads.command).
+ *
+ * Die Aufzeichnung beginnt in jeder Iteration neu, damit die Datei nicht unbegrenzt wächst.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class AnimateBenchmark {
+
+    @Param({ "TOFIRST", "NEXT", "TOLAST", "GETCONTENT", "SETCONTENT", "APPEND", "INSERT", "REMOVE", "MARK", "UNMARK" })
+    private String command;
+
+    @Param({ "10", "1000" })
+    private int length;
+
+    private Workload workload;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        workload = Workloads.load().command(command, length);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        workload.close();
+    }
+
+    @Benchmark
+    public void animate() {
+        workload.run();
+    }
+}
@@ -0,0 +1,75 @@
+package visuallistanimator.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Speicher je angezeigtem Element: Belegter Heap nach einer vollständigen Speicherbereinigung
+ * mit und ohne eine Anzeige, die eine Liste von length Elementen festhält, geteilt durch length.
+ * Das Ergebnis steht in der Spalte bytesPerElement; die gemessene Zeit ist die Dauer des Aufbaus.
+ *
+ * Gemessen wird die Anzeige ohne Fenster wie bei exportTrace; ein Fenster hält zusätzlich den
+ * Verlauf für "<" fest (s. setHistorySize).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class MemoryBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    private int length;
+
+    @Param({ "false", "true" })
+    private boolean compact;
+
+    private final Workloads workloads = Workloads.load();
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Footprint {
+
+        public long bytesPerElement;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            bytesPerElement = 0;
+        }
+    }
+
+    @Benchmark
+    public void track(Footprint pFootprint) {
+        long vorher = belegt();
+        Workload workload = workloads.tracked(length, compact);
+        long nachher = belegt();
+        pFootprint.bytesPerElement = (nachher - vorher) / length;
+        // erst hier freigeben, damit die Anzeige in der zweiten Messung noch erreichbar ist
+        workload.close();
+    }
+
+    private static long belegt() {
+        Runtime laufzeit = Runtime.getRuntime();
+        long belegt = Long.MAX_VALUE;
+        // mehrmals, bis sich nichts mehr freigeben laesst
+        for (int i=0; i<5; i++) {
+            System.gc();
+            belegt = Math.min(belegt, laufzeit.totalMemory() - laufzeit.freeMemory());
+        }
+        return belegt;
+    }
+}
@@ -0,0 +1,64 @@
+package visuallistanimator.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Ein ganzes Bild (paintComponent und damit zeichneSzene für jede sichtbare Zeile) in ein Bild
+ * von width x 720 Pixeln, mit einer Liste von length Elementen. Gezeichnet wird nur der sichtbare
+ * Ausschnitt, die Dauer sollte daher ab etwa 20 Elementen kaum noch wachsen.
+ *
+ * Mit dem Profiler gc misst JMH zusätzlich den Speicher, der je Bild angelegt wird:
+ *
+ *   java -jar benchmarks/target/benchmarks.jar PaintBenchmark -prof gc
+ *
+ * In der Spalte gc.alloc.rate.norm (Bytes je Bild) muss der Wert für alle length und width bis
+ * auf Schwankungen der Messung gleich sein: Je Knoten wird nichts angelegt, auch nicht für
+ * Striche, Farben oder Beschriftungen.
+ * Der feste Rest von etwa 1 KB je Bild stammt von Swing (Kopie der Graphics in paintComponent,
+ * Farben des Rahmens) und vom Anlegen der Graphics in der Messung selbst.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class PaintBenchmark {
+
+    @Param({ "10", "100", "1000", "10000", "100000" })
+    private int length;
+
+    // 640 Pixel zeigen etwa 9 Knoten, 2560 Pixel etwa 36
+    @Param({ "640", "1280", "2560" })
+    private int width;
+
+    private Workload workload;
+
+    @Setup
+    public void setUp() {
+        workload = Workloads.load().paint(length, width, 720);
+    }
+
+    @TearDown
+    public void tearDown() {
+        workload.close();
+    }
+
+    @Benchmark
+    public void paint() {
+        workload.run();
+    }
+}
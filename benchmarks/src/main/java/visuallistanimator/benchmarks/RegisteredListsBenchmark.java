@@ -0,0 +1,51 @@
+package visuallistanimator.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Dauer eines animate auf einer Liste, während lists weitere Listen angezeigt werden, z.B. die
+ * vielen Teillisten eines rekursiven Quicksort. Die Liste wird über ihre Identität gefunden,
+ * die Dauer sollte daher von 10 bis 100000 Listen gleich bleiben.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RegisteredListsBenchmark {
+
+    @Param({ "10", "100", "1000", "10000", "100000" })
+    private int lists;
+
+    private Workload workload;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        workload = Workloads.load().commandAmong(lists);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        workload.close();
+    }
+
+    @Benchmark
+    public void animate() {
+        workload.run();
+    }
+}
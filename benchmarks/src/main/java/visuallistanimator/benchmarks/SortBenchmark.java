@@ -0,0 +1,55 @@
+package visuallistanimator.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Ganze Läufe der Sortierverfahren aus den Demos (Bubblesort, Insertionsort, Selectionsort,
+ * Quicksort, s. LockstepSortDemo) ohne Fenster: die übliche Mischung aus Zeigerbewegungen,
+ * Zugriffen und Änderungen, samt addList und removeList der Hilfslisten.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class SortBenchmark {
+
+    @Param({ "BUBBLE", "INSERTION", "SELECTION", "QUICK" })
+    private String algorithm;
+
+    // 10 wie in den Demos
+    @Param({ "10", "100" })
+    private int length;
+
+    private Workload workload;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        workload = Workloads.load().sort(algorithm, length);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        workload.close();
+    }
+
+    @Benchmark
+    public void sort() {
+        workload.run();
+    }
+}
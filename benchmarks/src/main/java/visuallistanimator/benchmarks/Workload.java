@@ -0,0 +1,12 @@
+package visuallistanimator.benchmarks;
+
+/**
+ * Eine vorbereitete Last: run wird in der Messung wiederholt aufgerufen, close gibt die
+ * Visualisierung und ihre Aufzeichnung wieder frei.
+ */
+public interface Workload {
+
+    void run();
+
+    void close();
+}
@@ -0,0 +1,60 @@
+package visuallistanimator.benchmarks;
+
+/**
+ * Erzeugt die Lasten der Messungen. VisualListAnimator, List und die Demos liegen für BlueJ im
+ * Standardpaket, das aus einem Paket heraus nicht erreichbar ist, JMH verlangt aber Messungen in
+ * einem Paket. Die Umsetzung (BenchmarkWorkloads) liegt daher selbst im Standardpaket und wird
+ * einmal mit load geladen; in der Messung selbst wird sie dann direkt aufgerufen.
+ *
+ * Alle Lasten laufen ohne Fenster: animate und addList zeichnen dazu in eine temporäre Datei auf
+ * (s. VisualListAnimator(String)), gezeichnet wird wie bei exportTrace in ein Bild.
+ */
+public interface Workloads {
+
+    /**
+     * Ein Befehl auf einer Liste mit pLength Elementen, je run ein Aufruf von animate. APPEND,
+     * INSERT und REMOVE werden abwechselnd ausgeführt, damit die Liste ihre Länge behält; je run
+     * sind das dann zwei Befehle (s. AnimateBenchmark).
+     */
+    Workload command(String pCommand, int pLength);
+
+    /**
+     * Ein Sortierverfahren der Demos (BUBBLE, INSERTION, SELECTION oder QUICK) auf pLength
+     * zufälligen Zahlen, je run ein ganzer Lauf mit addList und removeList.
+     */
+    Workload sort(String pAlgorithm, int pLength);
+
+    /**
+     * Je run ein addList und removeList einer weiteren Liste, während bereits pPanels Listen
+     * angezeigt werden.
+     */
+    Workload addList(int pPanels);
+
+    /**
+     * Je run ein animate (NEXT bzw. am Ende TOFIRST) auf einer Liste mit 10 Elementen, während
+     * pLists weitere, leere Listen angezeigt werden (s. RegisteredListsBenchmark).
+     */
+    Workload commandAmong(int pLists);
+
+    /**
+     * Je run ein Bild von pWidth x pHeight Pixeln mit einer Liste von pLength Elementen.
+     */
+    Workload paint(int pLength, int pWidth, int pHeight);
+
+    /**
+     * Eine Anzeige, die eine Liste von pLength Elementen festhält (s. MemoryBenchmark); run tut nichts.
+     */
+    Workload tracked(int pLength, boolean pCompact);
+
+    /**
+     * @return die Umsetzung im Standardpaket
+     */
+    static Workloads load() {
+        try {
+            return (Workloads) Class.forName("BenchmarkWorkloads").getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}